@@ -0,0 +1,79 @@
+package de.unistuttgart.iste.meitrex.content_service.persistence.entity;
+
+import de.unistuttgart.iste.meitrex.generated.dto.ContentType;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares collecting contents into a set and looking them up by ID-based equality with the field-based equality
+ * they had before, which hashed the whole metadata including the tags.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EntitySetBenchmark {
+
+    @Param({"1000", "10000"})
+    private int contentCount;
+
+    @Param({"10"})
+    private int tagCount;
+
+    private List<ContentEntity> contents;
+    private List<ContentEntity> lookups;
+
+    @Setup
+    public void setUp() {
+        final UUID chapterId = UUID.randomUUID();
+        final UUID courseId = UUID.randomUUID();
+        contents = new ArrayList<>(contentCount);
+        for (int i = 0; i < contentCount; i++) {
+            final Set<String> tags = new HashSet<>();
+            for (int j = 0; j < tagCount; j++) {
+                tags.add("tag " + j + " of content " + i);
+            }
+            contents.add(MediaContentEntity.builder()
+                    .id(UUID.randomUUID())
+                    .metadata(ContentMetadataEmbeddable.builder()
+                            .name("content " + i)
+                            .suggestedDate(OffsetDateTime.now())
+                            .rewardPoints(i)
+                            .type(ContentType.MEDIA)
+                            .tags(tags)
+                            .chapterId(chapterId)
+                            .courseId(courseId)
+                            .build())
+                    .build());
+        }
+        // look up every other content
+        lookups = new ArrayList<>(contentCount);
+        for (int i = 0; i < contentCount; i++) {
+            lookups.add(contents.get((i * 2) % contentCount));
+        }
+    }
+
+    @Benchmark
+    public long idEquality() {
+        final Set<ContentEntity> set = contents.stream().collect(Collectors.toSet());
+        return lookups.stream().filter(set::contains).count();
+    }
+
+    @Benchmark
+    public long fieldEquality() {
+        final Set<FieldKey> set = contents.stream().map(FieldKey::new).collect(Collectors.toSet());
+        return lookups.stream().map(FieldKey::new).filter(set::contains).count();
+    }
+
+    /**
+     * Equality over all fields of a content, as generated by lombok before.
+     */
+    private record FieldKey(UUID id, ContentMetadataEmbeddable metadata) {
+        FieldKey(final ContentEntity content) {
+            this(content.getId(), content.getMetadata());
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package de.unistuttgart.iste.meitrex.content_service.persistence.mapper;
+
+import de.unistuttgart.iste.meitrex.content_service.persistence.entity.*;
+import de.unistuttgart.iste.meitrex.generated.dto.*;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cost of mapping a single entity with the direct mappers and with ModelMapper, which was used for all
+ * entities before. The allocation rate is reported by the gc profiler configured in the build.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MapperBenchmark {
+
+    private final ModelMapper modelMapper = new ModelMapper();
+    private final ContentMapper contentMapper = new ContentMapper(modelMapper);
+    private final UserProgressDataMapper userProgressDataMapper = new UserProgressDataMapper(modelMapper);
+
+    private MediaContentEntity mediaContent;
+    private AssessmentEntity assessment;
+    private UserProgressDataEntity userProgressData;
+
+    @Setup
+    public void setUp() {
+        final ContentMetadataEmbeddable metadata = ContentMetadataEmbeddable.builder()
+                .name("content")
+                .type(ContentType.MEDIA)
+                .suggestedDate(OffsetDateTime.now())
+                .rewardPoints(10)
+                .chapterId(UUID.randomUUID())
+                .courseId(UUID.randomUUID())
+                .tags(new HashSet<>(Set.of("tag1", "tag2", "tag3")))
+                .build();
+        mediaContent = MediaContentEntity.builder()
+                .id(UUID.randomUUID())
+                .metadata(metadata)
+                .build();
+
+        final List<ItemEntity> items = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            items.add(ItemEntity.builder()
+                    .id(UUID.randomUUID())
+                    .associatedSkills(new ArrayList<>(List.of(
+                            new SkillEntity(UUID.randomUUID(), "skill " + i, "category", false))))
+                    .associatedBloomLevels(new ArrayList<>(List.of(BloomLevel.REMEMBER, BloomLevel.UNDERSTAND)))
+                    .build());
+        }
+        assessment = AssessmentEntity.builder()
+                .id(UUID.randomUUID())
+                .metadata(ContentMetadataEmbeddable.builder()
+                        .name("quiz")
+                        .type(ContentType.QUIZ)
+                        .suggestedDate(OffsetDateTime.now())
+                        .rewardPoints(10)
+                        .chapterId(UUID.randomUUID())
+                        .courseId(UUID.randomUUID())
+                        .tags(new HashSet<>(Set.of("tag1", "tag2", "tag3")))
+                        .build())
+                .assessmentMetadata(AssessmentMetadataEmbeddable.builder()
+                        .skillPoints(10)
+                        .skillTypes(List.of(SkillType.REMEMBER, SkillType.UNDERSTAND))
+                        .initialLearningInterval(1)
+                        .build())
+                .items(items)
+                .build();
+
+        userProgressData = UserProgressDataEntity.builder()
+                .userId(UUID.randomUUID())
+                .contentId(UUID.randomUUID())
+                .learningInterval(2)
+                .learned(true)
+                .lastLearnDate(OffsetDateTime.now())
+                .nextLearnDate(OffsetDateTime.now().plusDays(2))
+                .attemptCount(3)
+                .build();
+    }
+
+    @Benchmark
+    public Content mediaContentDirect() {
+        return contentMapper.entityToDto(mediaContent);
+    }
+
+    @Benchmark
+    public Content mediaContentModelMapper() {
+        final MediaContent result = modelMapper.map(mediaContent, MediaContent.class);
+        result.getMetadata().setTagNames(new ArrayList<>(mediaContent.getMetadata().getTags()));
+        return result;
+    }
+
+    @Benchmark
+    public Content assessmentDirect() {
+        return contentMapper.entityToDto(assessment);
+    }
+
+    @Benchmark
+    public Content assessmentModelMapper() {
+        final QuizAssessment result = modelMapper.map(assessment, QuizAssessment.class);
+        result.getMetadata().setTagNames(new ArrayList<>(assessment.getMetadata().getTags()));
+        return result;
+    }
+
+    @Benchmark
+    public UserProgressData userProgressDataDirect() {
+        return userProgressDataMapper.entityToDto(userProgressData);
+    }
+
+    @Benchmark
+    public UserProgressData userProgressDataModelMapper() {
+        return modelMapper.map(userProgressData, UserProgressData.class);
+    }
+}
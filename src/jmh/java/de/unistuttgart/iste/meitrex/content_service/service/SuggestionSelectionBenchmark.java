@@ -0,0 +1,91 @@
+package de.unistuttgart.iste.meitrex.content_service.service;
+
+import de.unistuttgart.iste.meitrex.generated.dto.Content;
+import de.unistuttgart.iste.meitrex.generated.dto.ContentMetadata;
+import de.unistuttgart.iste.meitrex.generated.dto.MediaContent;
+import de.unistuttgart.iste.meitrex.generated.dto.UserProgressData;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Comparator.comparing;
+import static java.util.Comparator.reverseOrder;
+
+/**
+ * Compares the bounded-heap selection of suggestions with sorting all contents, as it was done before.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SuggestionSelectionBenchmark {
+
+    @Param({"10000"})
+    private int contentCount;
+
+    @Param({"5", "20"})
+    private int amount;
+
+    private List<Content> contents;
+    private Map<UUID, UserProgressData> progressByContentId;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        final OffsetDateTime now = OffsetDateTime.now();
+        contents = new ArrayList<>(contentCount);
+        progressByContentId = HashMap.newHashMap(contentCount);
+
+        for (int i = 0; i < contentCount; i++) {
+            final OffsetDateTime date = now.plusHours(random.nextInt(24 * 60) - 24 * 30L);
+            final Content content = MediaContent.builder()
+                    .setId(UUID.randomUUID())
+                    .setMetadata(ContentMetadata.builder()
+                            .setSuggestedDate(date)
+                            .setRewardPoints(random.nextInt(100))
+                            .build())
+                    .build();
+            contents.add(content);
+            progressByContentId.put(content.getId(), UserProgressData.builder()
+                    .setIsLearned(random.nextBoolean())
+                    .setNextLearnDate(date)
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public List<SuggestionCandidate> boundedHeap() {
+        final OffsetDateTime now = OffsetDateTime.now();
+        final List<SuggestionCandidate> candidates = new ArrayList<>(contents.size());
+        for (int i = 0; i < contents.size(); i++) {
+            final Content content = contents.get(i);
+            candidates.add(SuggestionCandidate.of(content, progressByContentId.get(content.getId()), now, i));
+        }
+        return SuggestionCandidate.selectBest(candidates, amount);
+    }
+
+    @Benchmark
+    public List<Content> fullSort() {
+        return contents.stream()
+                .sorted(comparing(this::daysUntilDue)
+                        .thenComparing(this::isNew, reverseOrder())
+                        .thenComparing(content -> content.getMetadata().getRewardPoints(), reverseOrder()))
+                .limit(amount)
+                .toList();
+    }
+
+    // the previous implementation calculated the sort keys, including the current time, in every comparison
+    private long daysUntilDue(final Content content) {
+        final UserProgressData progress = progressByContentId.get(content.getId());
+        final OffsetDateTime relevantLearnDate = progress.getIsLearned()
+                ? progress.getNextLearnDate()
+                : content.getMetadata().getSuggestedDate();
+        return Duration.between(OffsetDateTime.now(), relevantLearnDate).toDays();
+    }
+
+    private boolean isNew(final Content content) {
+        return !progressByContentId.get(content.getId()).getIsLearned();
+    }
+}
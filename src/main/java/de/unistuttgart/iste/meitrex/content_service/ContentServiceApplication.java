@@ -2,11 +2,13 @@ package de.unistuttgart.iste.meitrex.content_service;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * This is the entry point of the application.
  */
 @SpringBootApplication
+@EnableScheduling
 public class ContentServiceApplication {
 
     public static void main(final String[] args) {
@@ -0,0 +1,24 @@
+package de.unistuttgart.iste.meitrex.content_service.config;
+
+import io.dapr.client.DaprClient;
+import io.dapr.client.DaprClientBuilder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Provides the dapr client for the
+ * {@link de.unistuttgart.iste.meitrex.content_service.service.DaprCacheInvalidationTransport}, unless a client is
+ * already provided. The client is closed when the application context is closed.
+ */
+@Configuration
+@ConditionalOnProperty(name = "content-service.cache-invalidation.transport", havingValue = "dapr")
+public class DaprClientConfiguration {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean
+    public DaprClient daprClient() {
+        return new DaprClientBuilder().build();
+    }
+}
@@ -5,15 +5,20 @@ import de.unistuttgart.iste.meitrex.common.user_handling.LoggedInUser;
 import de.unistuttgart.iste.meitrex.common.user_handling.LoggedInUser.UserRoleInCourse;
 import de.unistuttgart.iste.meitrex.content_service.persistence.entity.SkillEntity;
 import de.unistuttgart.iste.meitrex.content_service.service.*;
+import de.unistuttgart.iste.meitrex.content_service.service.SuggestionIndexCache.ChapterSuggestionIndex;
 import de.unistuttgart.iste.meitrex.generated.dto.*;
+import graphql.schema.DataFetchingEnvironment;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.dataloader.DataLoader;
 import org.springframework.graphql.data.method.annotation.*;
 import org.springframework.stereotype.Controller;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -86,22 +91,18 @@ public class ContentController {
                                                     @Argument final int amount,
                                                     @Argument final List<SkillType> skillTypes,
                                                     @ContextValue final LoggedInUser currentUser) {
-        final List<Content> requiredContents = suggestionService.getAvailableRequiredContentsOfChaptersForUser(
+        final List<ChapterSuggestionIndex> suggestionIndexes = suggestionService.getSuggestionIndexesOfChaptersForUser(
                 chapterIds,
                 currentUser.getId()
         );
 
-        final List<Content> optionalContents = suggestionService.getAvailableOptionalContentsOfChaptersForUser(
-                chapterIds,
-                currentUser.getId()
-        );
-
-        validateReadAccessToContents(currentUser, requiredContents);
-        validateReadAccessToContents(currentUser, optionalContents);
+        for (final ChapterSuggestionIndex suggestionIndex : suggestionIndexes) {
+            validateReadAccessToContents(currentUser, suggestionIndex.requiredContents());
+            validateReadAccessToContents(currentUser, suggestionIndex.optionalContents());
+        }
 
         return suggestionService.createSuggestions(
-                requiredContents,
-                optionalContents,
+                suggestionIndexes,
                 currentUser.getId(),
                 amount,
                 skillTypes);
@@ -222,30 +223,36 @@ public class ContentController {
      */
     public abstract class ContentResolver<T extends Content> {
         @SchemaMapping
-        public UserProgressData userProgressData(final T content, @ContextValue final LoggedInUser currentUser) {
-            return userProgressDataService.getUserProgressData(currentUser.getId(), content.getId());
+        public CompletableFuture<UserProgressData> userProgressData(final T content,
+                                                                   @ContextValue final LoggedInUser currentUser,
+                                                                   final DataFetchingEnvironment env) {
+            return loadUserProgressData(env, currentUser.getId(), content);
         }
 
         @SchemaMapping
-        public UserProgressData progressDataForUser(final T content, @Argument final UUID userId) {
-            return userProgressDataService.getUserProgressData(userId, content.getId());
+        public CompletableFuture<UserProgressData> progressDataForUser(final T content,
+                                                                      @Argument final UUID userId,
+                                                                      final DataFetchingEnvironment env) {
+            return loadUserProgressData(env, userId, content);
         }
 
         @SchemaMapping
-        public boolean isAvailableToBeWorkedOn(final T content, @ContextValue final LoggedInUser currentUser) {
-            return userProgressDataService.isContentAvailableToBeWorkedOn(content.getId(), currentUser.getId());
+        public CompletableFuture<Boolean> isAvailableToBeWorkedOn(final T content,
+                                                                  @ContextValue final LoggedInUser currentUser,
+                                                                  final DataFetchingEnvironment env) {
+            return loadContentAvailability(env, currentUser.getId(), content);
         }
 
         @SchemaMapping(field = INTERNAL_NOAUTH_PREFIX + "isAvailableToBeWorkedOnForUser")
-        public boolean isAvailableToBeWorkedOnForUser(final T content, @Argument final UUID userId) {
-            return userProgressDataService.isContentAvailableToBeWorkedOn(content.getId(), userId);
+        public CompletableFuture<Boolean> isAvailableToBeWorkedOnForUser(final T content,
+                                                                         @Argument final UUID userId,
+                                                                         final DataFetchingEnvironment env) {
+            return loadContentAvailability(env, userId, content);
         }
 
         @BatchMapping
         public Map<T, Boolean> required(final List<T> content) {
-            List<UUID> requiredContents = stageService.getRequiredContentsIds(content.stream()
-                    .map(Content::getId)
-                    .toList());
+            Set<UUID> requiredContents = stageService.filterRequiredContents(content);
             return content.stream().collect(Collectors.toMap(x -> x, x -> requiredContents.contains(x.getId())));
         }
     }
@@ -266,6 +273,22 @@ public class ContentController {
     public class AssignmentAssessmentResolver extends ContentResolver<AssignmentAssessment> {
     }
 
+    private static CompletableFuture<UserProgressData> loadUserProgressData(final DataFetchingEnvironment env,
+                                                                           final UUID userId,
+                                                                           final Content content) {
+        final DataLoader<UserContentKey, UserProgressData> dataLoader =
+                env.getDataLoader(UserProgressDataLoaders.USER_PROGRESS_DATA);
+        return dataLoader.load(new UserContentKey(userId, content.getId()));
+    }
+
+    private static CompletableFuture<Boolean> loadContentAvailability(final DataFetchingEnvironment env,
+                                                                      final UUID userId,
+                                                                      final Content content) {
+        final DataLoader<UserContentKey, Boolean> dataLoader =
+                env.getDataLoader(UserProgressDataLoaders.CONTENT_AVAILABILITY);
+        return dataLoader.load(new UserContentKey(userId, content.getId()));
+    }
+
     private void validateReadAccessToContents(final LoggedInUser currentUser, final List<Content> contents) {
         validateUserHasAccessToCourses(currentUser, UserRoleInCourse.STUDENT,
                 contents.stream().map(content -> content.getMetadata().getCourseId()));
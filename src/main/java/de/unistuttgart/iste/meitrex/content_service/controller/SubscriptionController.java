@@ -8,13 +8,19 @@ import de.unistuttgart.iste.meitrex.common.event.CrudOperation;
 import de.unistuttgart.iste.meitrex.common.event.ItemChangeEvent;
 import io.dapr.Topic;
 import io.dapr.client.domain.CloudEvent;
+import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
 import reactor.core.publisher.Mono;
 
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+
 /**
  * REST Controller Class listening to a dapr Topic.
  */
@@ -25,22 +31,37 @@ public class SubscriptionController {
 
     private final ContentService contentService;
     private final SectionService sectionService;
-    private final UserProgressDataService userProgressDataService;
+    private final ContentProgressedEventProcessor contentProgressedEventProcessor;
+    /**
+     * Only present if the cache invalidations are sent via dapr, see {@link CacheInvalidationTransport}.
+     */
+    private final Optional<DaprCacheInvalidationTransport> daprCacheInvalidationTransport;
 
     /**
-     * Listens to the content-progressed topic and logs the user progress.
+     * Listens to the content-progressed topic and queues the event for logging the user progress.
+     * The event is only acknowledged once the progress has been committed. If the queue is full or logging the
+     * progress fails, dapr is told to retry the event later. Events whose content does not exist are dropped.
      */
     @Topic(name = "content-progressed", pubsubName = "meitrex")
     @PostMapping(path = "/content-progressed-pubsub")
-    public Mono<Void> logUserProgress(@RequestBody final CloudEvent<ContentProgressedEvent> cloudEvent) {
-        return Mono.fromRunnable(() -> {
-            try {
-                log.info("Received content-progressed event: {}", cloudEvent.getData());
-                userProgressDataService.logUserProgress(cloudEvent.getData());
-            } catch (final Exception e) {
-                log.error("Error while processing logUserProgress event. {}", e.getMessage());
-            }
-        });
+    public Mono<ResponseEntity<Void>> logUserProgress(@RequestBody final CloudEvent<ContentProgressedEvent> cloudEvent) {
+        log.info("Received content-progressed event: {}", cloudEvent.getData());
+        return Mono.fromFuture(() -> contentProgressedEventProcessor.submit(cloudEvent.getData()))
+                .then(Mono.fromSupplier(() -> ResponseEntity.ok().<Void>build()))
+                .onErrorResume(RejectedExecutionException.class, e -> {
+                    log.warn("Content-progressed event {} was rejected ({}), requesting redelivery",
+                            cloudEvent.getData(), e.getMessage());
+                    return Mono.just(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build());
+                })
+                .onErrorResume(EntityNotFoundException.class, e -> {
+                    // retrying would fail again, so the event is acknowledged
+                    log.error("Dropping content-progressed event {}: {}", cloudEvent.getData(), e.getMessage());
+                    return Mono.just(ResponseEntity.ok().build());
+                })
+                .onErrorResume(e -> {
+                    log.warn("Requesting redelivery of content-progressed event {}", cloudEvent.getData());
+                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
+                });
     }
 
     @Topic(name = "chapter-changed", pubsubName = "meitrex")
@@ -68,6 +89,10 @@ public class SubscriptionController {
     public Mono<Void> onItemChanged(@RequestBody final CloudEvent<ItemChangeEvent> cloudEvent) {
         return Mono.fromRunnable(() -> {
             try {
+                // the skills or bloom levels of the item might have changed
+                // only one instance receives the event, so the other ones are told as well
+                contentService.invalidateCachedItem(cloudEvent.getData().getItemId());
+
                 if (cloudEvent.getData().getOperation() != CrudOperation.DELETE)
                     return;
                 contentService.deleteItem(cloudEvent.getData().getItemId());
@@ -79,5 +104,17 @@ public class SubscriptionController {
         });
     }
 
+    @Topic(name = DaprCacheInvalidationTransport.TOPIC, pubsubName = DaprCacheInvalidationTransport.PUBSUB_NAME)
+    @PostMapping(path = "/content-service/cache-invalidation-pubsub")
+    public Mono<Void> onCacheInvalidation(@RequestBody final CloudEvent<CacheInvalidationBus.Message> cloudEvent) {
+        return Mono.fromRunnable(() -> {
+            try {
+                daprCacheInvalidationTransport.ifPresent(transport -> transport.deliver(cloudEvent.getData()));
+            } catch (final Exception e) {
+                // an invalid message would otherwise be redelivered forever
+                log.error("Error while processing cache invalidation message", e);
+            }
+        });
+    }
 
 }
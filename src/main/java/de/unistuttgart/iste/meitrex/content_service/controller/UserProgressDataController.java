@@ -0,0 +1,31 @@
+package de.unistuttgart.iste.meitrex.content_service.controller;
+
+import de.unistuttgart.iste.meitrex.content_service.service.UserProgressDataService;
+import de.unistuttgart.iste.meitrex.generated.dto.ProgressLogItem;
+import de.unistuttgart.iste.meitrex.generated.dto.UserProgressData;
+import lombok.RequiredArgsConstructor;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.SchemaMapping;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Controller;
+
+import java.util.List;
+
+@Controller
+@RequiredArgsConstructor
+public class UserProgressDataController {
+
+    private final UserProgressDataService userProgressDataService;
+
+    /**
+     * Resolves the progress log separately, so that it is only loaded if it is requested
+     * and only as many entries as requested.
+     */
+    @SchemaMapping(typeName = "UserProgressData", field = "log")
+    public List<ProgressLogItem> log(final UserProgressData userProgressData,
+                                     @Argument @Nullable final Integer first,
+                                     @Argument @Nullable final String after) {
+        return userProgressDataService.getProgressLog(
+                userProgressData.getUserId(), userProgressData.getContentId(), first, after);
+    }
+}
@@ -0,0 +1,62 @@
+package de.unistuttgart.iste.meitrex.content_service.controller;
+
+import de.unistuttgart.iste.meitrex.content_service.service.UserContentKey;
+import de.unistuttgart.iste.meitrex.content_service.service.UserProgressDataService;
+import de.unistuttgart.iste.meitrex.generated.dto.UserProgressData;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.graphql.execution.BatchLoaderRegistry;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Registers the data loaders which load the progress of users on contents, so that the progress related fields of
+ * all contents of a query result are resolved with a constant number of service calls instead of one per content.
+ * <p>
+ * The number of keys of each batch is recorded as the {@code content_service.graphql.batch.size} metric, tagged with
+ * the name of the data loader. Its count is the number of service calls, which should stay at one per data loader and
+ * query.
+ */
+@Component
+public class UserProgressDataLoaders {
+
+    public static final String USER_PROGRESS_DATA = "userProgressData";
+    public static final String CONTENT_AVAILABILITY = "contentAvailability";
+
+    public UserProgressDataLoaders(final BatchLoaderRegistry registry,
+                                   final UserProgressDataService userProgressDataService,
+                                   final MeterRegistry meterRegistry) {
+        registry.forTypePair(UserContentKey.class, UserProgressData.class)
+                .withName(USER_PROGRESS_DATA)
+                .registerMappedBatchLoader((keys, environment) -> load(keys,
+                        userProgressDataService::getUserProgressData,
+                        batchSizeSummary(meterRegistry, USER_PROGRESS_DATA)));
+
+        registry.forTypePair(UserContentKey.class, Boolean.class)
+                .withName(CONTENT_AVAILABILITY)
+                .registerMappedBatchLoader((keys, environment) -> load(keys,
+                        userProgressDataService::areContentsAvailableToBeWorkedOn,
+                        batchSizeSummary(meterRegistry, CONTENT_AVAILABILITY)));
+    }
+
+    private static <V> Mono<Map<UserContentKey, V>> load(
+            final Collection<UserContentKey> keys,
+            final Function<Collection<UserContentKey>, Map<UserContentKey, V>> loader,
+            final DistributionSummary batchSizeSummary) {
+        return Mono.fromCallable(() -> {
+            batchSizeSummary.record(keys.size());
+            return loader.apply(keys);
+        });
+    }
+
+    private static DistributionSummary batchSizeSummary(final MeterRegistry meterRegistry, final String loaderName) {
+        return DistributionSummary.builder("content_service.graphql.batch.size")
+                .description("Number of keys loaded by one call of a data loader")
+                .tag("loader", loaderName)
+                .register(meterRegistry);
+    }
+}
@@ -3,6 +3,10 @@ package de.unistuttgart.iste.meitrex.content_service.persistence.entity;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -13,7 +17,6 @@ import java.util.List;
 @SuperBuilder
 @Getter
 @Setter
-@EqualsAndHashCode(callSuper = true)
 @ToString(callSuper = true)
 public class AssessmentEntity extends ContentEntity {
 
@@ -21,6 +24,9 @@ public class AssessmentEntity extends ContentEntity {
     @Builder.Default
     private AssessmentMetadataEmbeddable assessmentMetadata = new AssessmentMetadataEmbeddable();
 
+    // load the items of all assessments of a query at once instead of one query per assessment
+    @Fetch(FetchMode.SUBSELECT)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
     private List<ItemEntity> items = new ArrayList<>();
@@ -6,8 +6,11 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.DiscriminatorFormula;
 
+import java.util.Objects;
 import java.util.UUID;
 
 /**
@@ -27,6 +30,8 @@ import java.util.UUID;
  * Embeddable classes are used to have the same structure as the DTOs.
  * This makes it easier to convert between DTOs and entities.
  * <p>
+ * Contents are kept in the second-level cache, because they are read far more often than they are changed.
+ * The cache is shared by all subclasses.
  */
 @Entity(name = "Content")
 @Table(indexes = {
@@ -35,6 +40,8 @@ import java.util.UUID;
 })
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
 @DiscriminatorFormula("case when content_type = 'MEDIA' then 'MEDIA' else 'ASSESSMENT' end")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Data
 @SuperBuilder
 @NoArgsConstructor
@@ -48,4 +55,23 @@ public class ContentEntity implements IWithId<UUID> {
     @Builder.Default
     private ContentMetadataEmbeddable metadata = new ContentMetadataEmbeddable();
 
+    /**
+     * Contents are equal if they have the same ID, regardless of their type and state.
+     * <p>
+     * Equality and hash code only use the ID, so that contents can be put into sets and compared without hashing
+     * their metadata or initializing lazily loaded collections like the tags. The ID is read through its getter,
+     * because the field of an uninitialized proxy is not set. Contents without ID are only equal to themselves.
+     */
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof ContentEntity other && getId() != null && getId().equals(other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(getId());
+    }
 }
@@ -6,6 +6,10 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 
 import java.time.OffsetDateTime;
 import java.util.HashSet;
@@ -32,6 +36,9 @@ public class ContentMetadataEmbeddable {
     @Enumerated(EnumType.STRING)
     private ContentType type;
 
+    // load the tags of all contents of a query at once instead of one query per content
+    @Fetch(FetchMode.SUBSELECT)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @ElementCollection
     @Builder.Default
     private Set<String> tags = new HashSet<>();
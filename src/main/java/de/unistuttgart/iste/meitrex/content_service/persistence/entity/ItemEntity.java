@@ -5,12 +5,19 @@ import de.unistuttgart.iste.meitrex.generated.dto.BloomLevel;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
 
 @Entity(name = "Item")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Data
 @SuperBuilder
 @AllArgsConstructor
@@ -20,10 +27,29 @@ public class ItemEntity implements IWithId<UUID> {
     @Id
     @GeneratedValue
     private UUID id;
+    // load the skills of all items of a query at once instead of one query per item
+    @Fetch(FetchMode.SUBSELECT)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @OneToMany(cascade = {CascadeType.PERSIST, CascadeType.MERGE, CascadeType.REMOVE}, orphanRemoval = true)
     @Builder.Default
     private List<SkillEntity> associatedSkills = new ArrayList<>();
     @Column(name = "associated_bloom_levels", nullable = false)
     @Builder.Default
     private List<BloomLevel> associatedBloomLevels = new ArrayList<>();
-}
\ No newline at end of file
+
+    /**
+     * Items are equal if they have the same ID, see {@link ContentEntity#equals(Object)}.
+     */
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof ItemEntity other && getId() != null && getId().equals(other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(getId());
+    }
+}
@@ -0,0 +1,76 @@
+package de.unistuttgart.iste.meitrex.content_service.persistence.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * An event which has been written in the same transaction as the change it describes and which still has to be
+ * published to dapr. Events are deleted as soon as they have been published.
+ * <p>
+ * Events with the same aggregate ID are published in the order of their IDs. The IDs are assigned on insert, so
+ * they reflect the order in which the events were written, not the order of the commits, see {@link
+ * de.unistuttgart.iste.meitrex.content_service.service.OutboxRelay}.
+ */
+@Entity(name = "OutboxEvent")
+@Table(indexes = {
+        @Index(name = "idx_outbox_event_aggregate_id", columnList = "aggregate_id"),
+        @Index(name = "idx_outbox_event_next_attempt_at", columnList = "next_attempt_at")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEventEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * ID of the entity the event is about, e.g. the user whose progress changed.
+     */
+    @Column(name = "aggregate_id", nullable = false)
+    private UUID aggregateId;
+
+    /**
+     * Stored as plain varchar, so that hibernate does not create a check constraint which would have to be changed
+     * whenever an event type is added.
+     */
+    @Column(nullable = false, columnDefinition = "varchar(255)")
+    @Enumerated(EnumType.STRING)
+    private EventType eventType;
+
+    /**
+     * The event serialized as JSON.
+     */
+    @Column(nullable = false, columnDefinition = "text")
+    private String payload;
+
+    @Column(nullable = false)
+    private OffsetDateTime createdAt;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    /**
+     * When the event is published next. While the event is being published, this is the end of the claim.
+     */
+    @Column(name = "next_attempt_at", nullable = false)
+    private OffsetDateTime nextAttemptAt;
+
+    @Column(columnDefinition = "text")
+    private String lastError;
+
+    public enum EventType {
+        CONTENT_CHANGED,
+        SKILL_ENTITY_CHANGED,
+        USER_PROGRESS_UPDATED,
+        STAGE_COMPLETED,
+        CHAPTER_COMPLETED,
+        COURSE_COMPLETED,
+        CACHE_INVALIDATION
+    }
+}
@@ -16,6 +16,14 @@ import java.time.OffsetDateTime;
 @NoArgsConstructor
 public class ProgressLogItemEmbeddable {
 
+    /**
+     * Number of the entry, assigned by the database when the entry is inserted. It is unique, so it breaks ties
+     * between entries with the same timestamp when paging through the log.
+     */
+    @Column(name = "entry_no", insertable = false, updatable = false,
+            columnDefinition = "bigint generated by default as identity")
+    private Long entryNo;
+
     @Column(nullable = false)
     private OffsetDateTime timestamp;
 
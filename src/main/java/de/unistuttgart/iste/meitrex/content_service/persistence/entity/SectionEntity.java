@@ -5,7 +5,10 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 
+import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 
@@ -34,9 +37,27 @@ public class SectionEntity {
     @Column(nullable = false, length = 255)
     private String name;
 
+    // load the stages of all sections of a query at once instead of one query per section
+    @Fetch(FetchMode.SUBSELECT)
     @OneToMany(cascade = CascadeType.ALL, mappedBy = "sectionId")
     Set<StageEntity> stages;
 
     @Column(name = "course_id", nullable = false)
     private UUID courseId;
+
+    /**
+     * Sections are equal if they have the same ID, see {@link ContentEntity#equals(Object)}.
+     */
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof SectionEntity other && getId() != null && getId().equals(other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(getId());
+    }
 }
@@ -2,16 +2,22 @@ package de.unistuttgart.iste.meitrex.content_service.persistence.entity;
 
 
 import de.unistuttgart.iste.meitrex.common.persistence.IWithId;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+import java.util.Objects;
 import java.util.UUID;
 
 @Entity(name = "Skill")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -30,4 +36,20 @@ public class SkillEntity implements IWithId<UUID> {
     public boolean getIsCustomSkill() {
         return isCustomSkill;
     }
-}
\ No newline at end of file
+
+    /**
+     * Skills are equal if they have the same ID, see {@link ContentEntity#equals(Object)}.
+     */
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof SkillEntity other && getId() != null && getId().equals(other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(getId());
+    }
+}
@@ -6,7 +6,10 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 
+import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 
@@ -30,9 +33,40 @@ public class StageEntity {
     @Column(nullable = false)
     private int position;
 
+    // the join tables are named explicitly because they are queried natively, see StageRepository.
+    // The indexes start with the content ID, so that looking up the stage of a content only needs the index.
+    // The contents of all stages of a query are loaded at once instead of one query per stage
+    @Fetch(FetchMode.SUBSELECT)
     @OneToMany(cascade = CascadeType.PERSIST)
+    @JoinTable(name = "stage_required_contents",
+            joinColumns = @JoinColumn(name = "stage_id"),
+            inverseJoinColumns = @JoinColumn(name = "required_contents_id"),
+            indexes = @Index(name = "idx_stage_required_contents_content_stage",
+                    columnList = "required_contents_id, stage_id"))
     Set<ContentEntity> requiredContents;
 
+    @Fetch(FetchMode.SUBSELECT)
     @OneToMany(cascade = CascadeType.PERSIST)
+    @JoinTable(name = "stage_optional_contents",
+            joinColumns = @JoinColumn(name = "stage_id"),
+            inverseJoinColumns = @JoinColumn(name = "optional_contents_id"),
+            indexes = @Index(name = "idx_stage_optional_contents_content_stage",
+                    columnList = "optional_contents_id, stage_id"))
     Set<ContentEntity> optionalContents;
+
+    /**
+     * Stages are equal if they have the same ID, see {@link ContentEntity#equals(Object)}.
+     */
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof StageEntity other && getId() != null && getId().equals(other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(getId());
+    }
 }
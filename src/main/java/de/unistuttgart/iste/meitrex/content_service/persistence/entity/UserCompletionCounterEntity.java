@@ -0,0 +1,59 @@
+package de.unistuttgart.iste.meitrex.content_service.persistence.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+/**
+ * Counts how many contents of a stage, chapter or course a user has learned.
+ * <p>
+ * For stages only the required contents are counted, for chapters and courses all contents are counted.
+ * The counters are created lazily from the progress data the first time they are needed and are then
+ * incremented whenever a content is learned for the first time. Whenever the contents of a scope change,
+ * the counters of the scope are deleted and will be recreated on next use.
+ */
+@Entity(name = "UserCompletionCounter")
+@Table(indexes = {
+        @Index(name = "idx_user_completion_counter_scope_id", columnList = "scope_id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@IdClass(UserCompletionCounterEntity.UserCompletionCounterPk.class)
+public class UserCompletionCounterEntity {
+
+    @Column(name = "user_id", nullable = false)
+    @Id
+    private UUID userId;
+
+    /**
+     * ID of the stage, chapter or course this counter belongs to.
+     */
+    @Column(name = "scope_id", nullable = false)
+    @Id
+    private UUID scopeId;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private CompletionScope scope;
+
+    @Column(nullable = false)
+    private int completedContents;
+
+    public enum CompletionScope {
+        STAGE,
+        CHAPTER,
+        COURSE
+    }
+
+    @EqualsAndHashCode
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static final class UserCompletionCounterPk implements Serializable {
+        private UUID userId;
+        private UUID scopeId;
+    }
+}
@@ -3,10 +3,13 @@ package de.unistuttgart.iste.meitrex.content_service.persistence.entity;
 import jakarta.persistence.*;
 
 import lombok.*;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 import org.hibernate.annotations.OrderBy;
 import org.hibernate.annotations.SQLOrder;
 
 import java.io.Serializable;
+import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -27,14 +30,52 @@ public class UserProgressDataEntity {
     @Id
     private UUID contentId;
 
-    @ElementCollection
-    @SQLOrder("timestamp DESC")
+    /**
+     * The full progress log, which is only loaded when accessed. Code which only needs the learning state should use
+     * the derived fields below, and new entries should be appended with
+     * {@link de.unistuttgart.iste.meitrex.content_service.persistence.repository.UserProgressDataRepository#insertProgressLogItem}
+     * so that the log does not have to be loaded.
+     */
+    @ElementCollection(fetch = FetchType.LAZY)
+    // load the logs of all entities of a query at once instead of one query per entity
+    @Fetch(FetchMode.SUBSELECT)
+    @SQLOrder("timestamp DESC, entry_no DESC")
     @Builder.Default
     private List<ProgressLogItemEmbeddable> progressLog = new ArrayList<>();
 
     @Column(nullable = true)
     private Integer learningInterval;
 
+    /*
+     * The following fields are derived from the progress log. They are stored so that the learning state of a user
+     * can be read and queried without loading the whole progress log. They are updated whenever progress is logged.
+     */
+
+    /**
+     * Whether the content has been completed successfully at least once.
+     */
+    @Column(name = "is_learned", nullable = false, columnDefinition = "boolean not null default false")
+    private boolean learned;
+
+    /**
+     * The timestamp of the last successful completion of the content, null if the content is not learned.
+     */
+    @Column(nullable = true)
+    private OffsetDateTime lastLearnDate;
+
+    /**
+     * The last learn date plus the learning interval, null if either of them is null.
+     */
+    @Column(nullable = true)
+    private OffsetDateTime nextLearnDate;
+
+    /**
+     * The number of entries in the progress log. This is null for progress data created before the derived fields
+     * were introduced, which means that none of the derived fields have been calculated yet.
+     */
+    @Column(nullable = true)
+    private Integer attemptCount;
+
     public static final class UserProgressPk implements Serializable {
         private UUID userId;
         private UUID contentId;
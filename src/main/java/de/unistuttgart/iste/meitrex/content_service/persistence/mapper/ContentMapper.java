@@ -10,6 +10,7 @@ import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.UUID;
 
 @Component
@@ -48,9 +49,10 @@ public class ContentMapper {
     }
 
     public MediaContent mediaContentEntityToDto(final ContentEntity contentEntity) {
-        final MediaContent result = modelMapper.map(contentEntity, MediaContent.class);
-        result.getMetadata().setTagNames(new ArrayList<>(contentEntity.getMetadata().getTags()));
-        return result;
+        return MediaContent.builder()
+                .setId(contentEntity.getId())
+                .setMetadata(metadataEntityToDto(contentEntity.getMetadata()))
+                .build();
     }
 
     public AssessmentEntity assessmentDtoToEntity(final CreateAssessmentInput input) {
@@ -69,7 +71,45 @@ public class ContentMapper {
         return result;
     }
 
+    /**
+     * Maps an assessment by copying its fields directly. Entities which are not loaded as {@link AssessmentEntity},
+     * e.g. uninitialized proxies of {@link ContentEntity}, are mapped with ModelMapper instead.
+     */
     public Assessment assessmentEntityToDto(final ContentEntity contentEntity) {
+        if (!(contentEntity instanceof final AssessmentEntity assessmentEntity)) {
+            return assessmentEntityToDtoWithModelMapper(contentEntity);
+        }
+
+        final ContentMetadata metadata = metadataEntityToDto(assessmentEntity.getMetadata());
+        final AssessmentMetadata assessmentMetadata =
+                assessmentMetadataEntityToDto(assessmentEntity.getAssessmentMetadata());
+        final List<Item> items = itemEntitiesToDtos(assessmentEntity.getItems());
+
+        return switch (metadata.getType()) {
+            case FLASHCARDS -> FlashcardSetAssessment.builder()
+                    .setId(assessmentEntity.getId())
+                    .setMetadata(metadata)
+                    .setAssessmentMetadata(assessmentMetadata)
+                    .setItems(items)
+                    .build();
+            case QUIZ -> QuizAssessment.builder()
+                    .setId(assessmentEntity.getId())
+                    .setMetadata(metadata)
+                    .setAssessmentMetadata(assessmentMetadata)
+                    .setItems(items)
+                    .build();
+            case ASSIGNMENT -> AssignmentAssessment.builder()
+                    .setId(assessmentEntity.getId())
+                    .setMetadata(metadata)
+                    .setAssessmentMetadata(assessmentMetadata)
+                    .setItems(items)
+                    .build();
+            // put other assessment types here
+            default -> throw new IllegalStateException("Unsupported content type for assessment: " + metadata.getType());
+        };
+    }
+
+    private Assessment assessmentEntityToDtoWithModelMapper(final ContentEntity contentEntity) {
         final Assessment result;
         if (contentEntity.getMetadata().getType() == ContentType.FLASHCARDS) {
             result = modelMapper.map(contentEntity, FlashcardSetAssessment.class);
@@ -86,4 +126,38 @@ public class ContentMapper {
         return result;
     }
 
+    private static ContentMetadata metadataEntityToDto(final ContentMetadataEmbeddable metadata) {
+        return ContentMetadata.builder()
+                .setName(metadata.getName())
+                .setType(metadata.getType())
+                .setSuggestedDate(metadata.getSuggestedDate())
+                .setRewardPoints(metadata.getRewardPoints())
+                .setChapterId(metadata.getChapterId())
+                .setCourseId(metadata.getCourseId())
+                .setTagNames(new ArrayList<>(metadata.getTags()))
+                .build();
+    }
+
+    private static List<Item> itemEntitiesToDtos(final List<ItemEntity> itemEntities) {
+        if (itemEntities == null) {
+            return null;
+        }
+        final List<Item> items = new ArrayList<>(itemEntities.size());
+        for (final ItemEntity itemEntity : itemEntities) {
+            items.add(ItemMapper.itemEntityToDto(itemEntity));
+        }
+        return items;
+    }
+
+    private static AssessmentMetadata assessmentMetadataEntityToDto(final AssessmentMetadataEmbeddable metadata) {
+        if (metadata == null) {
+            return null;
+        }
+        return AssessmentMetadata.builder()
+                .setSkillPoints(metadata.getSkillPoints())
+                .setSkillTypes(metadata.getSkillTypes() == null ? null : new ArrayList<>(metadata.getSkillTypes()))
+                .setInitialLearningInterval(metadata.getInitialLearningInterval())
+                .build();
+    }
+
 }
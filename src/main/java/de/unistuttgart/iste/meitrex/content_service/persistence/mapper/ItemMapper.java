@@ -1,23 +1,57 @@
 package de.unistuttgart.iste.meitrex.content_service.persistence.mapper;
 
 import de.unistuttgart.iste.meitrex.content_service.persistence.entity.ItemEntity;
+import de.unistuttgart.iste.meitrex.content_service.persistence.entity.SkillEntity;
 import de.unistuttgart.iste.meitrex.generated.dto.Item;
+import de.unistuttgart.iste.meitrex.generated.dto.Skill;
 import jakarta.transaction.Transactional;
-import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maps items and their skills by copying their fields directly. Items are mapped for every assessment, so this
+ * avoids the reflective mapping of ModelMapper.
+ */
 @Service
-@RequiredArgsConstructor
 @Transactional
 public class ItemMapper {
 
-    private final ModelMapper modelMapper;
-
     public Item entityToDto(final ItemEntity itemEntity) {
+        return itemEntityToDto(itemEntity);
+    }
+
+    static Item itemEntityToDto(final ItemEntity itemEntity) {
         if (itemEntity == null) {
             return null;
         }
-        return modelMapper.map(itemEntity, Item.class);
+        return Item.builder()
+                .setId(itemEntity.getId())
+                .setAssociatedSkills(skillEntitiesToDtos(itemEntity.getAssociatedSkills()))
+                .setAssociatedBloomLevels(itemEntity.getAssociatedBloomLevels() == null
+                        ? null
+                        : new ArrayList<>(itemEntity.getAssociatedBloomLevels()))
+                .build();
+    }
+
+    private static List<Skill> skillEntitiesToDtos(final List<SkillEntity> skillEntities) {
+        if (skillEntities == null) {
+            return null;
+        }
+        final List<Skill> skills = new ArrayList<>(skillEntities.size());
+        for (final SkillEntity skillEntity : skillEntities) {
+            skills.add(skillEntityToDto(skillEntity));
+        }
+        return skills;
+    }
+
+    static Skill skillEntityToDto(final SkillEntity skillEntity) {
+        return Skill.builder()
+                .setId(skillEntity.getId())
+                .setSkillName(skillEntity.getSkillName())
+                .setSkillCategory(skillEntity.getSkillCategory())
+                .setIsCustomSkill(skillEntity.getIsCustomSkill())
+                .build();
     }
-}
\ No newline at end of file
+}
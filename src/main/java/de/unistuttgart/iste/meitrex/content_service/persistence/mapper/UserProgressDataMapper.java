@@ -3,6 +3,7 @@ package de.unistuttgart.iste.meitrex.content_service.persistence.mapper;
 import de.unistuttgart.iste.meitrex.common.event.ContentProgressedEvent;
 import de.unistuttgart.iste.meitrex.content_service.persistence.entity.ProgressLogItemEmbeddable;
 import de.unistuttgart.iste.meitrex.content_service.persistence.entity.UserProgressDataEntity;
+import de.unistuttgart.iste.meitrex.generated.dto.ProgressLogItem;
 import de.unistuttgart.iste.meitrex.generated.dto.UserProgressData;
 import lombok.RequiredArgsConstructor;
 import org.modelmapper.ModelMapper;
@@ -18,8 +19,30 @@ public class UserProgressDataMapper {
     private final ModelMapper modelMapper;
 
     public UserProgressData entityToDto(final UserProgressDataEntity userProgressDataEntity) {
-        final UserProgressData result = modelMapper.map(userProgressDataEntity, UserProgressData.class);
+        // the fields are copied directly, because progress data is mapped for every content of a query result
+        final UserProgressData result = UserProgressData.builder()
+                .setUserId(userProgressDataEntity.getUserId())
+                .setContentId(userProgressDataEntity.getContentId())
+                .setLearningInterval(userProgressDataEntity.getLearningInterval())
+                .build();
 
+        if (userProgressDataEntity.getAttemptCount() == null) {
+            // the learning state has not been stored for this entity yet, so it has to be derived from the log
+            setLearningStateFromProgressLog(userProgressDataEntity, result);
+            return result;
+        }
+
+        result.setLastLearnDate(userProgressDataEntity.getLastLearnDate());
+        result.setNextLearnDate(userProgressDataEntity.getNextLearnDate());
+
+        result.setIsLearned(userProgressDataEntity.isLearned());
+        result.setIsDueForReview(isDueForReview(Optional.ofNullable(userProgressDataEntity.getNextLearnDate())));
+
+        return result;
+    }
+
+    private static void setLearningStateFromProgressLog(final UserProgressDataEntity userProgressDataEntity,
+                                                        final UserProgressData result) {
         final Optional<OffsetDateTime> optionalLastLearnDate = getLastLearnDate(userProgressDataEntity);
         final Optional<OffsetDateTime> optionalNextLearnDate = getNextLearnDate(userProgressDataEntity, optionalLastLearnDate);
 
@@ -28,8 +51,17 @@ public class UserProgressDataMapper {
 
         result.setIsLearned(isLearned(userProgressDataEntity));
         result.setIsDueForReview(isDueForReview(optionalNextLearnDate));
+    }
 
-        return result;
+    public ProgressLogItem logItemToDto(final ProgressLogItemEmbeddable progressLogItemEmbeddable) {
+        return ProgressLogItem.builder()
+                .setTimestamp(progressLogItemEmbeddable.getTimestamp())
+                .setSuccess(progressLogItemEmbeddable.isSuccess())
+                .setCorrectness(progressLogItemEmbeddable.getCorrectness())
+                .setHintsUsed(progressLogItemEmbeddable.getHintsUsed())
+                .setTimeToComplete(progressLogItemEmbeddable.getTimeToComplete())
+                .setCursor(String.valueOf(progressLogItemEmbeddable.getEntryNo()))
+                .build();
     }
 
     public ProgressLogItemEmbeddable eventToEmbeddable(final ContentProgressedEvent contentProgressedEvent) {
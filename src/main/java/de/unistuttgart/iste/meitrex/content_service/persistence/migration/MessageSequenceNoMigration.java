@@ -0,0 +1,66 @@
+package de.unistuttgart.iste.meitrex.content_service.persistence.migration;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the database sequence from which the sequence numbers of published events are allocated.
+ * <p>
+ * Sequence numbers used to be generated by inserting a row into the message_sequence_no_entity table for every
+ * event. If that table still exists, the new sequence starts after the highest number handed out by it, so that
+ * sequence numbers keep increasing, and the table and its sequence are dropped.
+ * <p>
+ * This runs when the bean is created, before any sequence number can be allocated.
+ */
+@Component
+@RequiredArgsConstructor
+public class MessageSequenceNoMigration {
+
+    public static final String SEQUENCE_NAME = "message_sequence_no_seq";
+
+    /**
+     * How many sequence numbers each instance of the service reserves at once.
+     */
+    public static final int ALLOCATION_SIZE = 1000;
+
+    /**
+     * Hibernate generated the IDs of the old table with a pooled optimizer, so up to this many numbers after the
+     * current value of the old sequence may already have been handed out.
+     */
+    private static final int OLD_ALLOCATION_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void createSequence() {
+        // the advisory lock prevents several instances which start at the same time from migrating concurrently
+        jdbcTemplate.execute("""
+                do $$
+                declare
+                    start_value bigint := 1;
+                begin
+                    perform pg_advisory_xact_lock(hashtext('%1$s'));
+
+                    if to_regclass('%1$s') is not null then
+                        return;
+                    end if;
+
+                    if to_regclass('message_sequence_no_entity') is not null then
+                        select greatest(start_value, coalesce(max(sequence_no), 0) + 1) into start_value
+                        from message_sequence_no_entity;
+                        drop table message_sequence_no_entity;
+                    end if;
+
+                    if to_regclass('message_sequence_no_entity_seq') is not null then
+                        select greatest(start_value, last_value + %3$d + 1) into start_value
+                        from message_sequence_no_entity_seq;
+                        drop sequence message_sequence_no_entity_seq;
+                    end if;
+
+                    execute format('create sequence %1$s increment by %2$d start with %%s', start_value);
+                end $$
+                """.formatted(SEQUENCE_NAME, ALLOCATION_SIZE, OLD_ALLOCATION_SIZE));
+    }
+}
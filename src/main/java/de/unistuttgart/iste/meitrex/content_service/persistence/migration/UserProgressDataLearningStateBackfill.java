@@ -0,0 +1,42 @@
+package de.unistuttgart.iste.meitrex.content_service.persistence.migration;
+
+import de.unistuttgart.iste.meitrex.content_service.persistence.repository.UserProgressDataRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * One-time migration which calculates the stored learning state (learned, last and next learn date, attempt count)
+ * of user progress data created before these columns were introduced. Rows which already have a learning state are
+ * not touched, so running this on every startup is cheap once all rows have been migrated.
+ * <p>
+ * Until a row has been migrated, its learning state is derived from the progress log when it is read.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserProgressDataLearningStateBackfill {
+
+    private final UserProgressDataRepository userProgressDataRepository;
+
+    @Value("${content-service.migration.learning-state-batch-size:1000}")
+    private int batchSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillLearningState() {
+        long migratedRows = 0;
+        int updatedRows;
+        // update in batches so that no single transaction locks the whole table
+        do {
+            updatedRows = userProgressDataRepository.backfillLearningState(batchSize);
+            migratedRows += updatedRows;
+        } while (updatedRows > 0);
+
+        if (migratedRows > 0) {
+            log.info("Calculated the learning state of {} user progress data entries", migratedRows);
+        }
+    }
+}
@@ -6,11 +6,16 @@ import de.unistuttgart.iste.meitrex.content_service.persistence.entity.ContentEn
 import de.unistuttgart.iste.meitrex.content_service.persistence.entity.ItemEntity;
 import de.unistuttgart.iste.meitrex.content_service.persistence.entity.SkillEntity;
 import de.unistuttgart.iste.meitrex.generated.dto.SkillType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -20,11 +25,43 @@ import java.util.UUID;
 public interface ContentRepository extends MeitrexRepository<ContentEntity, UUID> {
 
     @Query("select content from Content content where content.metadata.chapterId in (:chapterIds)")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "content-queries")
+    })
     List<ContentEntity> findByChapterIdIn(@Param("chapterIds") List<UUID> chapterIds);
 
+    /**
+     * Returns the contents of the given chapters which are neither a required nor an optional content of any stage.
+     * The contents in stages are excluded in the database with anti-joins over the join tables between stages and
+     * contents, so only the contents without stage are loaded.
+     *
+     * @param chapterIds the chapter ids
+     * @return the contents of the chapters which are not part of any stage
+     */
+    @Query("""
+            select content from Content content
+            where content.metadata.chapterId in (:chapterIds)
+            and not exists (select 1 from Stage stage join stage.requiredContents requiredContent
+                            where requiredContent.id = content.id)
+            and not exists (select 1 from Stage stage join stage.optionalContents optionalContent
+                            where optionalContent.id = content.id)
+            """)
+    List<ContentEntity> findWithoutStageByChapterIdIn(@Param("chapterIds") List<UUID> chapterIds);
+
     @Query("select content from Content content where content.metadata.courseId in (:courseIds)")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "content-queries")
+    })
     List<ContentEntity> findByCourseIdIn(@Param("courseIds") List<UUID> courseIds);
 
+    @Query("select count(content) from Content content where content.metadata.chapterId = :chapterId")
+    long countByChapterId(@Param("chapterId") UUID chapterId);
+
+    @Query("select count(content) from Content content where content.metadata.courseId = :courseId")
+    long countByCourseId(@Param("courseId") UUID courseId);
+
     /**
      * Fetches all skill types for content in a chapter.
      *
@@ -40,5 +77,32 @@ public interface ContentRepository extends MeitrexRepository<ContentEntity, UUID
 
     @Query("select assessment.items from Assessment assessment where assessment.metadata.courseId = :courseId")
     List<ItemEntity> findItemsByCourseId(@Param("courseId") UUID courseId);
+
+    /**
+     * Returns the course of each of the given chapters which contains at least one content.
+     */
+    @Query("""
+            select distinct content.metadata.chapterId as chapterId, content.metadata.courseId as courseId
+            from Content content where content.metadata.chapterId in (:chapterIds)
+            """)
+    List<ChapterCourseLink> findChapterCourseLinks(@Param("chapterIds") Collection<UUID> chapterIds);
+
+    /**
+     * Returns the course of the assessment which contains the item with the given ID, if there is one.
+     */
+    @Query("""
+            select assessment.metadata.courseId from Assessment assessment join assessment.items item
+            where item.id = :itemId
+            """)
+    Optional<UUID> findCourseIdByItemId(@Param("itemId") UUID itemId);
+
+    /**
+     * Projection of the course a chapter belongs to.
+     */
+    interface ChapterCourseLink {
+        UUID getChapterId();
+
+        UUID getCourseId();
+    }
 }
 
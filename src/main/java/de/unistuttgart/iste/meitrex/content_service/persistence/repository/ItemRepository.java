@@ -3,14 +3,24 @@ package de.unistuttgart.iste.meitrex.content_service.persistence.repository;
 
 import de.unistuttgart.iste.meitrex.common.persistence.MeitrexRepository;
 import de.unistuttgart.iste.meitrex.content_service.persistence.entity.ItemEntity;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface ItemRepository extends MeitrexRepository<ItemEntity, UUID> {
     List<ItemEntity> findByAssociatedSkills_Id(UUID skillId);
-}
\ No newline at end of file
+
+    /**
+     * Finds the items with the given IDs together with their associated skills in a single query.
+     */
+    @EntityGraph(attributePaths = "associatedSkills")
+    @Query("select item from Item item where item.id in (:ids)")
+    List<ItemEntity> findWithSkillsByIdIn(@Param("ids") Collection<UUID> ids);
+}
@@ -1,12 +0,0 @@
-package de.unistuttgart.iste.meitrex.content_service.persistence.repository;
-
-import de.unistuttgart.iste.meitrex.common.persistence.MeitrexRepository;
-import de.unistuttgart.iste.meitrex.content_service.persistence.entity.AssessmentEntity;
-import de.unistuttgart.iste.meitrex.content_service.persistence.entity.MessageSequenceNoEntity;
-import org.springframework.data.jpa.repository.JpaRepository;
-
-import java.util.UUID;
-
-public interface MessageSequenceNoEntityRepository extends JpaRepository<MessageSequenceNoEntity, Long> {
-
-}
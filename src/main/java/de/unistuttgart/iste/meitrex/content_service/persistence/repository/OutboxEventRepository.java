@@ -0,0 +1,44 @@
+package de.unistuttgart.iste.meitrex.content_service.persistence.repository;
+
+import de.unistuttgart.iste.meitrex.content_service.persistence.entity.OutboxEventEntity;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Repository for {@link OutboxEventEntity}
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEventEntity, Long> {
+
+    /**
+     * Finds the oldest events which are due to be published. Events of aggregates for which an earlier event is
+     * still waiting for a retry or is being published are skipped, so that the events of each aggregate are
+     * published in the order of their IDs.
+     */
+    @Query("""
+            select event from OutboxEvent event
+            where event.nextAttemptAt <= :now
+            and not exists (
+                select 1 from OutboxEvent earlier
+                where earlier.aggregateId = event.aggregateId
+                and earlier.id < event.id
+                and earlier.nextAttemptAt > :now)
+            order by event.id
+            """)
+    List<OutboxEventEntity> findDueEvents(@Param("now") OffsetDateTime now, Limit limit);
+
+    /**
+     * Tries to acquire the given transaction-scoped advisory lock, so that only one instance of the service
+     * publishes the events at a time.
+     *
+     * @return true if the lock has been acquired, false if it is held by another transaction
+     */
+    @Query(nativeQuery = true, value = "select pg_try_advisory_xact_lock(:key)")
+    boolean tryAcquireTransactionLock(@Param("key") long key);
+}
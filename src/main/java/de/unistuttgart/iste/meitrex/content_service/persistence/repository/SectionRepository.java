@@ -1,11 +1,13 @@
 package de.unistuttgart.iste.meitrex.content_service.persistence.repository;
 
 import de.unistuttgart.iste.meitrex.content_service.persistence.entity.SectionEntity;
+import de.unistuttgart.iste.meitrex.content_service.persistence.repository.ContentRepository.ChapterCourseLink;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -23,6 +25,27 @@ public interface SectionRepository extends JpaRepository<SectionEntity, UUID> {
     @Query("SELECT s FROM Section s WHERE :stageId IN (SELECT stage.id FROM s.stages stage)")
     Optional<SectionEntity> findSectionEntityByContainedStageId(@Param("stageId") UUID stageId);
 
+    /**
+     * Returns the sections which contain a stage with one of the given contents as required or optional content.
+     */
+    @Query("""
+            select distinct section from Section section
+            join section.stages stage
+            left join stage.requiredContents requiredContent
+            left join stage.optionalContents optionalContent
+            where requiredContent.id in (:contentIds) or optionalContent.id in (:contentIds)
+            """)
+    List<SectionEntity> findByContainedContentIds(@Param("contentIds") Collection<UUID> contentIds);
+
     @Query("select section from Section section where section.courseId in (:courseIds)")
     List<SectionEntity> findByCourseIdIn(@Param("courseIds") List<UUID> courseIds);
+
+    /**
+     * Returns the course of each of the given chapters which contains at least one section.
+     */
+    @Query("""
+            select distinct section.chapterId as chapterId, section.courseId as courseId
+            from Section section where section.chapterId in (:chapterIds)
+            """)
+    List<ChapterCourseLink> findChapterCourseLinks(@Param("chapterIds") Collection<UUID> chapterIds);
 }
@@ -1,12 +1,12 @@
 package de.unistuttgart.iste.meitrex.content_service.persistence.repository;
 
-import de.unistuttgart.iste.meitrex.content_service.persistence.entity.ContentEntity;
 import de.unistuttgart.iste.meitrex.content_service.persistence.entity.StageEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -16,10 +16,36 @@ import java.util.UUID;
 @Repository
 public interface StageRepository extends JpaRepository<StageEntity, UUID> {
     /**
-     * Returns the stages in which contents with the given IDs are required contents.
+     * Returns those of the given content IDs which are required contents of any stage. Only the join table is
+     * queried, which is answered from its index.
      */
-    @Query("SELECT DISTINCT s FROM Stage s JOIN s.requiredContents rc WHERE rc.id IN :contentIds")
-    List<StageEntity> findByRequiredContentIds(@Param("contentIds") List<UUID> contentIds);
+    @Query(nativeQuery = true, value = """
+            select distinct required_contents_id from stage_required_contents
+            where required_contents_id in (:contentIds)
+            """)
+    List<UUID> findRequiredContentIdsIn(@Param("contentIds") Collection<UUID> contentIds);
 
-    List<StageEntity> findAllByRequiredContentsContainingOrOptionalContentsContaining(ContentEntity requiredContentEntity, ContentEntity optionalContentEntity);
+    /**
+     * Returns the stages which contain the given contents, as required or optional content. Only the join tables are
+     * queried, using their indexes on the content ID.
+     */
+    @Query(nativeQuery = true, value = """
+            select required_contents_id as "contentId", stage_id as "stageId", true as "required"
+            from stage_required_contents where required_contents_id in (:contentIds)
+            union all
+            select optional_contents_id as "contentId", stage_id as "stageId", false as "required"
+            from stage_optional_contents where optional_contents_id in (:contentIds)
+            """)
+    List<ContentStageLink> findStageLinksByContentIds(@Param("contentIds") Collection<UUID> contentIds);
+
+    /**
+     * Projection of a row of the join tables between stages and their contents.
+     */
+    interface ContentStageLink {
+        UUID getContentId();
+
+        UUID getStageId();
+
+        boolean isRequired();
+    }
 }
@@ -0,0 +1,64 @@
+package de.unistuttgart.iste.meitrex.content_service.persistence.repository;
+
+import de.unistuttgart.iste.meitrex.content_service.persistence.entity.UserCompletionCounterEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository for {@link UserCompletionCounterEntity}
+ */
+@Repository
+public interface UserCompletionCounterRepository
+        extends JpaRepository<UserCompletionCounterEntity, UserCompletionCounterEntity.UserCompletionCounterPk> {
+
+    /**
+     * Increments the counter of the given user and scope by one.
+     *
+     * @return the number of updated rows, which is 0 if no counter exists yet
+     */
+    @Modifying
+    @Query("""
+            update UserCompletionCounter counter
+            set counter.completedContents = counter.completedContents + 1
+            where counter.userId = :userId and counter.scopeId = :scopeId
+            """)
+    int incrementCompletedContents(@Param("userId") UUID userId, @Param("scopeId") UUID scopeId);
+
+    /**
+     * Creates the counter of the given user and scope with the given initial value. If the counter has been created
+     * concurrently in the meantime, e.g. by another thread or another instance of the service, it is incremented by
+     * one instead, so that concurrent first increments do not fail with a duplicate key.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_completion_counter"))
+    @Query(nativeQuery = true, value = """
+            insert into user_completion_counter (user_id, scope_id, scope, completed_contents)
+            values (:userId, :scopeId, :scope, :initialValue)
+            on conflict (user_id, scope_id)
+            do update set completed_contents = user_completion_counter.completed_contents + 1
+            """)
+    void insertOrIncrementCompletedContents(@Param("userId") UUID userId,
+                                            @Param("scopeId") UUID scopeId,
+                                            @Param("scope") String scope,
+                                            @Param("initialValue") int initialValue);
+
+    @Query("""
+            select counter.completedContents from UserCompletionCounter counter
+            where counter.userId = :userId and counter.scopeId = :scopeId
+            """)
+    Optional<Integer> findCompletedContents(@Param("userId") UUID userId, @Param("scopeId") UUID scopeId);
+
+    @Modifying
+    @Query("delete from UserCompletionCounter counter where counter.scopeId in (:scopeIds)")
+    void deleteByScopeIdIn(@Param("scopeIds") Collection<UUID> scopeIds);
+}
@@ -1,16 +1,216 @@
 package de.unistuttgart.iste.meitrex.content_service.persistence.repository;
 
+import de.unistuttgart.iste.meitrex.content_service.persistence.entity.ProgressLogItemEmbeddable;
 import de.unistuttgart.iste.meitrex.content_service.persistence.entity.UserProgressDataEntity;
+import jakarta.persistence.QueryHint;
+import jakarta.transaction.Transactional;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface UserProgressDataRepository extends JpaRepository<UserProgressDataEntity, UUID> {
 
+    /**
+     * SQL condition on the progress data aliased as {@code progress} which is true if the content is learned.
+     * Progress data whose learning state has not been calculated yet by the backfill, i.e. whose attempt count is
+     * null, counts as learned if its progress log contains a successful attempt.
+     */
+    String IS_LEARNED_CONDITION = """
+            (progress.is_learned or (progress.attempt_count is null and exists (
+                select 1 from user_progress_data_progress_log log
+                where log.user_progress_data_user_id = progress.user_id
+                and log.user_progress_data_content_id = progress.content_id
+                and log.success)))
+            """;
+
     Optional<UserProgressDataEntity> findByUserIdAndContentId(UUID userId, UUID contentId);
 
+    /**
+     * Finds the progress data of the given user for all of the given contents which have progress data.
+     * The progress logs of all returned entities are fetched together in one additional query on first access.
+     */
+    List<UserProgressDataEntity> findByUserIdAndContentIdIn(UUID userId, Collection<UUID> contentIds);
+
+    /**
+     * Creates progress data without any progress for the given user and contents in a single statement.
+     * The initial learning interval is taken from the content, which is only set for assessments.
+     * Contents which do not exist are ignored, as is progress data which already exists, e.g. because it has been
+     * created concurrently by another thread or another instance of the service.
+     * <p>
+     * The changed table is declared as query space of this and the other native statements, otherwise hibernate
+     * would have to clear the whole second-level cache after each of them.
+     *
+     * @return the number of created rows
+     */
+    @Modifying
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_progress_data"))
+    @Query(nativeQuery = true, value = """
+            insert into user_progress_data (user_id, content_id, learning_interval, is_learned, attempt_count)
+            select :userId, content.id, content.initial_learning_interval, false, 0 from content
+            where content.id in (:contentIds)
+            on conflict (user_id, content_id) do nothing
+            """)
+    int insertInitialUserProgressData(@Param("userId") UUID userId, @Param("contentIds") Collection<UUID> contentIds);
+
     void deleteByContentId(UUID id);
+
+    /**
+     * Finds the newest entries of the progress log of the given user and content, newest first. Entries with the
+     * same timestamp are ordered by their entry number.
+     */
+    @Query("""
+            select logItem from UserProgressData progress
+            join progress.progressLog logItem
+            where progress.userId = :userId and progress.contentId = :contentId
+            order by logItem.timestamp desc, logItem.entryNo desc
+            """)
+    List<ProgressLogItemEmbeddable> findProgressLog(@Param("userId") UUID userId,
+                                                    @Param("contentId") UUID contentId,
+                                                    Limit limit);
+
+    /**
+     * Like {@link #findProgressLog(UUID, UUID, Limit)}, but only returns the entries which come after the entry with
+     * the given entry number in that order, i.e. older entries and entries with the same timestamp but a lower entry
+     * number. Returns nothing if the log has no entry with the given number.
+     */
+    @Query("""
+            select logItem from UserProgressData progress
+            join progress.progressLog logItem
+            join progress.progressLog cursorItem
+            where progress.userId = :userId and progress.contentId = :contentId
+            and cursorItem.entryNo = :afterEntryNo
+            and (logItem.timestamp < cursorItem.timestamp
+                 or (logItem.timestamp = cursorItem.timestamp and logItem.entryNo < cursorItem.entryNo))
+            order by logItem.timestamp desc, logItem.entryNo desc
+            """)
+    List<ProgressLogItemEmbeddable> findProgressLogAfter(@Param("userId") UUID userId,
+                                                         @Param("contentId") UUID contentId,
+                                                         @Param("afterEntryNo") long afterEntryNo,
+                                                         Limit limit);
+
+    /**
+     * Appends an entry to the progress log of the given user and content without loading the existing entries.
+     */
+    @Modifying
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_progress_data_progress_log"))
+    @Query(nativeQuery = true, value = """
+            insert into user_progress_data_progress_log
+                (user_progress_data_user_id, user_progress_data_content_id,
+                 timestamp, success, correctness, hints_used, time_to_complete)
+            values (:userId, :contentId,
+                    :#{#logItem.timestamp}, :#{#logItem.success}, :#{#logItem.correctness},
+                    :#{#logItem.hintsUsed}, :#{#logItem.timeToComplete})
+            """)
+    void insertProgressLogItem(@Param("userId") UUID userId,
+                               @Param("contentId") UUID contentId,
+                               @Param("logItem") ProgressLogItemEmbeddable logItem);
+
+    /**
+     * Counts how many of the given contents the user has learned, i.e. completed successfully at least once.
+     * <p>
+     * Like in {@link #countProgressByChapterIds}, progress data whose learning state has not been calculated yet
+     * counts as learned if its progress log contains a successful attempt. The counts are used to initialize the
+     * completion counters, which would otherwise stay too low if they were initialized before the backfill.
+     */
+    @Query(nativeQuery = true, value = """
+            select count(*) from user_progress_data progress
+            where progress.user_id = :userId and progress.content_id in (:contentIds)
+            and """ + IS_LEARNED_CONDITION)
+    long countLearnedContents(@Param("userId") UUID userId, @Param("contentIds") Collection<UUID> contentIds);
+
+    /**
+     * Counts how many contents of the given chapter the user has learned, see {@link #countLearnedContents}.
+     */
+    @Query(nativeQuery = true, value = """
+            select count(*) from user_progress_data progress
+            join content on content.id = progress.content_id
+            where progress.user_id = :userId and content.chapter_id = :chapterId
+            and """ + IS_LEARNED_CONDITION)
+    long countLearnedContentsOfChapter(@Param("userId") UUID userId, @Param("chapterId") UUID chapterId);
+
+    /**
+     * Counts how many contents of the given course the user has learned, see {@link #countLearnedContents}.
+     */
+    @Query(nativeQuery = true, value = """
+            select count(*) from user_progress_data progress
+            join content on content.id = progress.content_id
+            where progress.user_id = :userId and content.course_id = :courseId
+            and """ + IS_LEARNED_CONDITION)
+    long countLearnedContentsOfCourse(@Param("userId") UUID userId, @Param("courseId") UUID courseId);
+
+    /**
+     * Counts for each of the given chapters how many contents it has and how many of them the user has learned,
+     * in a single query. Chapters without any contents are not part of the result.
+     * <p>
+     * Progress data whose learning state has not been calculated yet counts as learned if its progress log contains
+     * a successful attempt, so the result is the same before and after the learning state backfill.
+     */
+    @Query(nativeQuery = true, value = """
+            select content.chapter_id as "chapterId",
+                   count(content.id) as "totalContents",
+                   count(progress.content_id) filter (where """ + IS_LEARNED_CONDITION + """) as "completedContents"
+            from content
+            left join user_progress_data progress
+                on progress.content_id = content.id and progress.user_id = :userId
+            where content.chapter_id in (:chapterIds)
+            group by content.chapter_id
+            """)
+    List<ChapterProgressCount> countProgressByChapterIds(@Param("userId") UUID userId,
+                                                         @Param("chapterIds") Collection<UUID> chapterIds);
+
+    /**
+     * Calculates the learning state columns from the progress log for up to the given number of rows which were
+     * created before these columns existed, i.e. whose attempt count is still null.
+     *
+     * @return the number of updated rows, 0 if there are no rows left to update
+     */
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_progress_data"))
+    @Query(nativeQuery = true, value = """
+            with learning_state as (
+                select progress.user_id, progress.content_id,
+                       count(log.user_progress_data_user_id) as attempt_count,
+                       max(log.timestamp) filter (where log.success) as last_learn_date
+                from (select user_id, content_id from user_progress_data
+                      where attempt_count is null
+                      limit :batchSize) progress
+                left join user_progress_data_progress_log log
+                    on log.user_progress_data_user_id = progress.user_id
+                    and log.user_progress_data_content_id = progress.content_id
+                group by progress.user_id, progress.content_id
+            )
+            update user_progress_data progress
+            set attempt_count = learning_state.attempt_count,
+                is_learned = learning_state.last_learn_date is not null,
+                last_learn_date = learning_state.last_learn_date,
+                next_learn_date = learning_state.last_learn_date + make_interval(days => progress.learning_interval)
+            from learning_state
+            where progress.user_id = learning_state.user_id and progress.content_id = learning_state.content_id
+            """)
+    int backfillLearningState(@Param("batchSize") int batchSize);
+
+    /**
+     * Number of contents and learned contents of a chapter, see {@link #countProgressByChapterIds}.
+     */
+    interface ChapterProgressCount {
+        UUID getChapterId();
+
+        long getTotalContents();
+
+        long getCompletedContents();
+    }
 }
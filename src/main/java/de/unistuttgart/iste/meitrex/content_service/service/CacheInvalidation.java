@@ -0,0 +1,37 @@
+package de.unistuttgart.iste.meitrex.content_service.service;
+
+import lombok.Builder;
+import lombok.Singular;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Describes which entries of the in-memory caches of the service are outdated after a change, so that the other
+ * instances of the service can drop them, see {@link CacheInvalidationBus}.
+ *
+ * @param courseIds         the courses whose catalogs are outdated, see {@link CourseCatalogCache}
+ * @param chapterIds        the chapters whose suggestion indexes are outdated, see {@link SuggestionIndexCache}
+ * @param userChapters      the suggestion indexes of single users which are outdated, e.g. after the progress of
+ *                          the user changed
+ * @param contentIds        the contents which changed or were added to or removed from a stage
+ * @param itemIds           the items which changed
+ * @param skillIds          the skills which changed
+ * @param allContentStages  whether the stages of all contents are outdated, e.g. because a whole section has been
+ *                          deleted, see {@link ContentStageIndex#invalidateAll()}
+ */
+@Builder
+public record CacheInvalidation(@Singular List<UUID> courseIds,
+                                @Singular List<UUID> chapterIds,
+                                @Singular List<UserChapter> userChapters,
+                                @Singular List<UUID> contentIds,
+                                @Singular List<UUID> itemIds,
+                                @Singular List<UUID> skillIds,
+                                boolean allContentStages) {
+
+    /**
+     * Identifies the suggestion index of a user for a chapter.
+     */
+    public record UserChapter(UUID userId, UUID chapterId) {
+    }
+}
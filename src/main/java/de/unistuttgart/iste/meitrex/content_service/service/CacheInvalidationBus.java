@@ -0,0 +1,125 @@
+package de.unistuttgart.iste.meitrex.content_service.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Keeps the in-memory caches of all instances of the service up to date.
+ * <p>
+ * Every change which makes cache entries outdated is broadcast, which drops the entries on this instance right away
+ * and announces the change to the other instances. The messages are stored in the {@link EventOutbox} within the
+ * transaction of the change and published by the {@link OutboxRelay}, so they are only published if the change is
+ * committed and are retried if publishing fails. The other instances therefore drop their entries within the poll
+ * interval of the relay plus the delivery time of the {@link CacheInvalidationTransport}, which is recorded as the
+ * {@value #DELAY_METRIC_NAME} metric.
+ * <p>
+ * Messages of this instance are ignored when they are received, because the entries have already been dropped when
+ * the change was broadcast.
+ */
+@Component
+public class CacheInvalidationBus {
+
+    static final String DELAY_METRIC_NAME = "cache.invalidation.delay";
+
+    /**
+     * Identifies this instance of the service.
+     */
+    private final UUID instanceId = UUID.randomUUID();
+
+    private final EventOutbox eventOutbox;
+    private final CacheInvalidationTransport transport;
+    private final CourseCatalogCache courseCatalogCache;
+    private final SuggestionIndexCache suggestionIndexCache;
+    private final ContentStageIndex contentStageIndex;
+    private final ItemAssociationCache itemAssociationCache;
+    private final EntityCacheEviction entityCacheEviction;
+    private final Timer delayTimer;
+
+    public CacheInvalidationBus(final EventOutbox eventOutbox,
+                                final CacheInvalidationTransport transport,
+                                final CourseCatalogCache courseCatalogCache,
+                                final SuggestionIndexCache suggestionIndexCache,
+                                final ContentStageIndex contentStageIndex,
+                                final ItemAssociationCache itemAssociationCache,
+                                final EntityCacheEviction entityCacheEviction,
+                                final MeterRegistry meterRegistry) {
+        this.eventOutbox = eventOutbox;
+        this.transport = transport;
+        this.courseCatalogCache = courseCatalogCache;
+        this.suggestionIndexCache = suggestionIndexCache;
+        this.contentStageIndex = contentStageIndex;
+        this.itemAssociationCache = itemAssociationCache;
+        this.entityCacheEviction = entityCacheEviction;
+        this.delayTimer = Timer.builder(DELAY_METRIC_NAME)
+                .description("Time from a change until another instance dropped the outdated cache entries")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void subscribe() {
+        transport.subscribe(this::receive);
+    }
+
+    /**
+     * Drops the given cache entries on this instance and announces the invalidation to the other instances once the
+     * current transaction is committed.
+     *
+     * @param invalidation the cache entries which are outdated
+     */
+    public void broadcast(final CacheInvalidation invalidation) {
+        apply(invalidation);
+        eventOutbox.notifyCacheInvalidation(new Message(instanceId, OffsetDateTime.now(), invalidation));
+    }
+
+    /**
+     * Drops the cache entries described by a message of another instance.
+     *
+     * @param message the received message
+     */
+    void receive(final Message message) {
+        if (instanceId.equals(message.instanceId())) {
+            return;
+        }
+
+        apply(message.invalidation());
+
+        delayTimer.record(Duration.between(message.createdAt(), OffsetDateTime.now()));
+    }
+
+    private void apply(final CacheInvalidation invalidation) {
+        courseCatalogCache.invalidate(invalidation.courseIds());
+        suggestionIndexCache.invalidateChapters(invalidation.chapterIds());
+        invalidation.userChapters().forEach(userChapter ->
+                suggestionIndexCache.invalidate(userChapter.userId(), userChapter.chapterId()));
+        if (invalidation.allContentStages()) {
+            contentStageIndex.invalidateAll();
+        } else {
+            contentStageIndex.invalidate(invalidation.contentIds());
+        }
+        // every eviction of contents also clears the cached queries for contents, so it is skipped if possible
+        if (!invalidation.contentIds().isEmpty()) {
+            entityCacheEviction.evictContents(invalidation.contentIds());
+        }
+        if (!invalidation.itemIds().isEmpty()) {
+            itemAssociationCache.invalidate(invalidation.itemIds());
+            entityCacheEviction.evictItems(invalidation.itemIds());
+        }
+        entityCacheEviction.evictSkills(invalidation.skillIds());
+    }
+
+    /**
+     * Message sent between the instances.
+     *
+     * @param instanceId   the ID of the instance which made the change
+     * @param createdAt    when the change was made
+     * @param invalidation the cache entries which are outdated
+     */
+    public record Message(UUID instanceId, OffsetDateTime createdAt, CacheInvalidation invalidation) {
+    }
+}
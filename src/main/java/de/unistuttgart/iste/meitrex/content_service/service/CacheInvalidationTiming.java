@@ -0,0 +1,35 @@
+package de.unistuttgart.iste.meitrex.content_service.service;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Decides when the in-memory caches of the service drop outdated entries.
+ * <p>
+ * A change within a transaction invalidates the entries right away and again when the transaction completes.
+ * Between the two invalidations, other threads can still load the entries from the state before the commit, and
+ * threads taking part in the transaction can load them from the uncommitted state. The second invalidation drops
+ * both. It also runs if the transaction is rolled back, because the entries might then contain changes which were
+ * never committed.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class CacheInvalidationTiming {
+
+    /**
+     * Runs the given invalidation now and, if a transaction is active, again when it completes.
+     */
+    static void runNowAndAfterCompletion(final Runnable invalidation) {
+        invalidation.run();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(final int status) {
+                    invalidation.run();
+                }
+            });
+        }
+    }
+}
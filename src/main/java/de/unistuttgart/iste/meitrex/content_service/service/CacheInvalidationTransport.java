@@ -0,0 +1,26 @@
+package de.unistuttgart.iste.meitrex.content_service.service;
+
+import java.util.function.Consumer;
+
+/**
+ * Delivers the messages of the {@link CacheInvalidationBus} to all instances of the service, including the one which
+ * published them.
+ * <p>
+ * Which implementation is used is configured with {@code content-service.cache-invalidation.transport}:
+ * {@code dapr} for the {@link DaprCacheInvalidationTransport} or {@code local} (the default) for the
+ * {@link LocalCacheInvalidationTransport}.
+ */
+public interface CacheInvalidationTransport {
+
+    /**
+     * Publishes the given message to all instances.
+     *
+     * @throws RuntimeException if the message could not be published, so that it can be retried
+     */
+    void publish(CacheInvalidationBus.Message message);
+
+    /**
+     * Registers a consumer which is called with every message received by this instance.
+     */
+    void subscribe(Consumer<CacheInvalidationBus.Message> consumer);
+}
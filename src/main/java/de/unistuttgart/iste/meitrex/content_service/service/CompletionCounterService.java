@@ -0,0 +1,115 @@
+package de.unistuttgart.iste.meitrex.content_service.service;
+
+import de.unistuttgart.iste.meitrex.content_service.persistence.entity.UserCompletionCounterEntity.CompletionScope;
+import de.unistuttgart.iste.meitrex.content_service.persistence.repository.ContentRepository;
+import de.unistuttgart.iste.meitrex.content_service.persistence.repository.UserCompletionCounterRepository;
+import de.unistuttgart.iste.meitrex.content_service.persistence.repository.UserProgressDataRepository;
+import de.unistuttgart.iste.meitrex.generated.dto.Content;
+import de.unistuttgart.iste.meitrex.generated.dto.Stage;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps track of how many contents of each stage, chapter and course a user has learned, so that completion of
+ * these scopes can be detected without recalculating the progress of every content in them.
+ * <p>
+ * A content counts as learned once the user has completed it successfully at least once. As this can never be
+ * undone, the counters only ever increase, except when they are invalidated because the contents of a scope changed.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class CompletionCounterService {
+
+    private final UserCompletionCounterRepository userCompletionCounterRepository;
+    private final UserProgressDataRepository userProgressDataRepository;
+    private final ContentRepository contentRepository;
+
+    /**
+     * Registers that the user has learned the given content for the first time and updates the counters of the
+     * stage, chapter and course of the content accordingly.
+     * <p>
+     * Must be called after the progress of the user has been saved, because counters which do not exist yet are
+     * initialized from the saved progress data.
+     *
+     * @param userId  the ID of the user who learned the content
+     * @param content the content which was learned
+     * @param stage   the stage the content is part of, if any
+     * @return which of the scopes of the content have been completed by learning the content
+     */
+    public CompletedScopes registerLearnedContent(final UUID userId, final Content content, final Optional<Stage> stage) {
+        final UUID chapterId = content.getMetadata().getChapterId();
+        final UUID courseId = content.getMetadata().getCourseId();
+
+        boolean stageCompleted = false;
+        // only required contents count towards the completion of a stage
+        if (stage.isPresent() && isRequiredContentOfStage(content.getId(), stage.get())) {
+            final List<UUID> requiredContentIds = stage.get().getRequiredContents().stream()
+                    .map(Content::getId)
+                    .toList();
+
+            final long completedContents = incrementCounter(userId, stage.get().getId(), CompletionScope.STAGE,
+                    () -> userProgressDataRepository.countLearnedContents(userId, requiredContentIds));
+            stageCompleted = completedContents >= requiredContentIds.size();
+        }
+
+        final long completedContentsOfChapter = incrementCounter(userId, chapterId, CompletionScope.CHAPTER,
+                () -> userProgressDataRepository.countLearnedContentsOfChapter(userId, chapterId));
+        final boolean chapterCompleted = completedContentsOfChapter >= contentRepository.countByChapterId(chapterId);
+
+        final long completedContentsOfCourse = incrementCounter(userId, courseId, CompletionScope.COURSE,
+                () -> userProgressDataRepository.countLearnedContentsOfCourse(userId, courseId));
+        final boolean courseCompleted = completedContentsOfCourse >= contentRepository.countByCourseId(courseId);
+
+        return new CompletedScopes(stageCompleted, chapterCompleted, courseCompleted);
+    }
+
+    /**
+     * Deletes the counters of all users for the given stages, chapters or courses. This has to be called whenever
+     * the contents of a scope change. The counters will be recalculated when they are needed the next time.
+     *
+     * @param scopeIds the IDs of the stages, chapters or courses whose counters should be deleted
+     */
+    public void invalidateCounters(final Collection<UUID> scopeIds) {
+        if (scopeIds.isEmpty()) {
+            return;
+        }
+        userCompletionCounterRepository.deleteByScopeIdIn(scopeIds);
+    }
+
+    /**
+     * Increments the counter of the given scope. If no counter exists yet, it is initialized using the given
+     * supplier instead, which already includes the newly learned content. If another transaction creates the
+     * counter at the same time, the counter is incremented on top of the value it was created with.
+     *
+     * @return the number of learned contents in the scope after the increment
+     */
+    private long incrementCounter(final UUID userId,
+                                  final UUID scopeId,
+                                  final CompletionScope scope,
+                                  final LongSupplier initialValueSupplier) {
+        if (userCompletionCounterRepository.incrementCompletedContents(userId, scopeId) > 0) {
+            return userCompletionCounterRepository.findCompletedContents(userId, scopeId).orElseThrow();
+        }
+
+        final long initialValue = initialValueSupplier.getAsLong();
+        userCompletionCounterRepository.insertOrIncrementCompletedContents(userId, scopeId, scope.name(),
+                (int) initialValue);
+        return userCompletionCounterRepository.findCompletedContents(userId, scopeId).orElseThrow();
+    }
+
+    private static boolean isRequiredContentOfStage(final UUID contentId, final Stage stage) {
+        return stage.getRequiredContents().stream()
+                .anyMatch(requiredContent -> requiredContent.getId().equals(contentId));
+    }
+
+    /**
+     * Describes which scopes have been completed by learning a content.
+     */
+    public record CompletedScopes(boolean stageCompleted, boolean chapterCompleted, boolean courseCompleted) {
+    }
+}
@@ -0,0 +1,207 @@
+package de.unistuttgart.iste.meitrex.content_service.service;
+
+import de.unistuttgart.iste.meitrex.common.event.ContentProgressedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Processes content-progressed events in batches on a fixed number of workers, so that the progress of many events
+ * is logged in a single transaction instead of one transaction per event.
+ * <p>
+ * Events are distributed over the workers by the ID of the user, so all events of a user are processed by the same
+ * worker in the order they were received. Each worker takes up to {@code maxBatchSize} events from its queue at once
+ * and logs them with {@link UserProgressDataService#logUserProgress(List)}. If that fails, the events of the batch
+ * are logged one by one, so that a single failing event does not fail the other events of its batch.
+ * <p>
+ * The future returned for an event only completes once its progress has been committed, so events must only be
+ * acknowledged to the sender after that. Events which are still queued when the service stops are therefore
+ * redelivered instead of being lost.
+ * <p>
+ * The queues are bounded. If the queue of a worker is full, the event is rejected and the caller has to signal
+ * the sender to retry later.
+ */
+@Service
+@Slf4j
+public class ContentProgressedEventProcessor {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final UserProgressDataService userProgressDataService;
+    private final int maxBatchSize;
+
+    private final List<BlockingQueue<QueuedEvent>> queues;
+    private final List<Thread> workers;
+    private volatile boolean running = true;
+
+    private final Counter acceptedCounter;
+    private final Counter rejectedCounter;
+    private final Counter failedCounter;
+    private final Timer lagTimer;
+
+    public ContentProgressedEventProcessor(
+            final UserProgressDataService userProgressDataService,
+            final MeterRegistry meterRegistry,
+            @Value("${content-service.progress-ingestion.worker-count:4}") final int workerCount,
+            @Value("${content-service.progress-ingestion.queue-capacity:1000}") final int queueCapacity,
+            @Value("${content-service.progress-ingestion.max-batch-size:50}") final int maxBatchSize) {
+        this.userProgressDataService = userProgressDataService;
+        this.maxBatchSize = maxBatchSize;
+
+        // the capacity is shared between the workers, so the total number of queued events stays bounded
+        final int capacityPerWorker = Math.max(1, queueCapacity / workerCount);
+        queues = new ArrayList<>(workerCount);
+        workers = new ArrayList<>(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            final BlockingQueue<QueuedEvent> queue = new ArrayBlockingQueue<>(capacityPerWorker);
+            queues.add(queue);
+            workers.add(Thread.ofPlatform()
+                    .name("content-progressed-worker-" + i)
+                    .unstarted(() -> processQueue(queue)));
+        }
+
+        Gauge.builder("content_service.progress_ingestion.queue.size", this, ContentProgressedEventProcessor::getQueueSize)
+                .description("Number of content-progressed events waiting to be processed")
+                .register(meterRegistry);
+        acceptedCounter = Counter.builder("content_service.progress_ingestion.events.accepted")
+                .register(meterRegistry);
+        rejectedCounter = Counter.builder("content_service.progress_ingestion.events.rejected")
+                .description("Number of content-progressed events rejected because the queue was full")
+                .register(meterRegistry);
+        failedCounter = Counter.builder("content_service.progress_ingestion.events.failed")
+                .register(meterRegistry);
+        lagTimer = Timer.builder("content_service.progress_ingestion.lag")
+                .description("Time between queueing a content-progressed event and starting to process it")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void startWorkers() {
+        workers.forEach(Thread::start);
+    }
+
+    /**
+     * Stops accepting events and waits until the workers have processed the events which are already queued.
+     * Events which could not be processed in time are failed, so that they are redelivered.
+     */
+    @PreDestroy
+    void stopWorkers() throws InterruptedException {
+        running = false;
+        final Instant deadline = Instant.now().plus(SHUTDOWN_TIMEOUT);
+        for (final Thread worker : workers) {
+            final Duration remaining = Duration.between(Instant.now(), deadline);
+            if (remaining.isNegative() || !worker.join(remaining)) {
+                log.warn("Worker {} did not finish processing the queued content-progressed events in time",
+                        worker.getName());
+                worker.interrupt();
+            }
+        }
+
+        final List<QueuedEvent> unprocessed = new ArrayList<>();
+        queues.forEach(queue -> queue.drainTo(unprocessed));
+        unprocessed.forEach(queuedEvent -> queuedEvent.result()
+                .completeExceptionally(new RejectedExecutionException("Content-progressed event processor stopped")));
+    }
+
+    /**
+     * Queues the given event for processing.
+     *
+     * @param event the event to process
+     * @return a future which completes once the progress of the event has been committed. It completes exceptionally
+     * with the exception thrown while processing the event, or with a {@link RejectedExecutionException} if the
+     * queue is full or the processor is shutting down.
+     */
+    public CompletableFuture<Void> submit(final ContentProgressedEvent event) {
+        final CompletableFuture<Void> result = new CompletableFuture<>();
+        if (!running) {
+            rejectedCounter.increment();
+            result.completeExceptionally(new RejectedExecutionException("Content-progressed event processor stopped"));
+            return result;
+        }
+
+        final BlockingQueue<QueuedEvent> queue = queues.get(Math.floorMod(event.getUserId().hashCode(), queues.size()));
+        if (!queue.offer(new QueuedEvent(event, Instant.now(), result))) {
+            rejectedCounter.increment();
+            result.completeExceptionally(new RejectedExecutionException("Content-progressed event queue is full"));
+            return result;
+        }
+
+        acceptedCounter.increment();
+        return result;
+    }
+
+    /**
+     * @return the number of events which have been queued but not yet taken by a worker
+     */
+    public int getQueueSize() {
+        return queues.stream().mapToInt(Collection::size).sum();
+    }
+
+    private void processQueue(final BlockingQueue<QueuedEvent> queue) {
+        final List<QueuedEvent> batch = new ArrayList<>(maxBatchSize);
+        try {
+            while (running || !queue.isEmpty()) {
+                final QueuedEvent first = queue.poll(POLL_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+
+                processBatch(batch);
+                batch.clear();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void processBatch(final List<QueuedEvent> batch) {
+        final Instant now = Instant.now();
+        final List<ContentProgressedEvent> events = new ArrayList<>(batch.size());
+        for (final QueuedEvent queuedEvent : batch) {
+            lagTimer.record(Duration.between(queuedEvent.queuedAt(), now));
+            events.add(queuedEvent.event());
+        }
+
+        try {
+            userProgressDataService.logUserProgress(events);
+        } catch (final Exception e) {
+            // the whole batch has been rolled back, so find out which of the events failed by logging them one by one
+            log.warn("Error while processing a batch of {} content-progressed events, processing them one by one",
+                    batch.size(), e);
+            batch.forEach(this::processEvent);
+            return;
+        }
+        batch.forEach(queuedEvent -> queuedEvent.result().complete(null));
+    }
+
+    private void processEvent(final QueuedEvent queuedEvent) {
+        try {
+            userProgressDataService.logUserProgress(queuedEvent.event());
+            queuedEvent.result().complete(null);
+        } catch (final Exception e) {
+            // a failing event must not stop the worker, otherwise all later events of its users would be stuck
+            failedCounter.increment();
+            log.error("Error while processing content-progressed event {}", queuedEvent.event(), e);
+            queuedEvent.result().completeExceptionally(e);
+        }
+    }
+
+    private record QueuedEvent(ContentProgressedEvent event, Instant queuedAt, CompletableFuture<Void> result) {
+    }
+}
@@ -1,7 +1,6 @@
 package de.unistuttgart.iste.meitrex.content_service.service;
 
 
-import de.unistuttgart.iste.meitrex.common.dapr.TopicPublisher;
 import de.unistuttgart.iste.meitrex.common.event.ChapterChangeEvent;
 import de.unistuttgart.iste.meitrex.common.event.CrudOperation;
 import de.unistuttgart.iste.meitrex.common.event.skilllevels.SkillEntityChangedEvent;
@@ -19,8 +18,6 @@ import org.jetbrains.annotations.NotNull;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static de.unistuttgart.iste.meitrex.common.util.MeitrexCollectionUtils.groupIntoSubLists;
@@ -32,7 +29,6 @@ import static de.unistuttgart.iste.meitrex.common.util.MeitrexCollectionUtils.gr
 public class ContentService {
 
     private final ContentRepository contentRepository;
-    private final SectionRepository sectionRepository;
     private final UserProgressDataRepository userProgressDataRepository;
     private final StageService stageService;
     private final ContentMapper contentMapper;
@@ -43,7 +39,10 @@ public class ContentService {
     private final SkillRepository skillRepository;
 
     private final AssessmentRepository assessmentRepository;
-    private final TopicPublisher topicPublisher;
+    private final EventOutbox eventOutbox;
+    private final CompletionCounterService completionCounterService;
+    private final CourseCatalogCache courseCatalogCache;
+    private final CacheInvalidationBus cacheInvalidationBus;
 
     /**
      * Deletes Content by ID
@@ -56,7 +55,7 @@ public class ContentService {
 
         final UUID removedId = deleteContentAndRemoveDependencies(deletedEntity);
 
-        topicPublisher.notifyContentChanges(List.of(removedId), CrudOperation.DELETE);
+        eventOutbox.notifyContentChanges(List.of(removedId), CrudOperation.DELETE);
         return uuid;
     }
 
@@ -113,10 +112,11 @@ public class ContentService {
      * @return a list of lists of contents. The order of the lists will match the order of the given course ids.
      */
     public List<List<Content>> getContentsByCourseIds(final List<UUID> courseIds) {
-        final List<ContentEntity> matchingContents = contentRepository.findByCourseIdIn(courseIds);
-        final List<Content> contentDtos = matchingContents.stream().map(contentMapper::entityToDto).toList();
+        final Map<UUID, CourseCatalog> catalogs = courseCatalogCache.getCatalogs(courseIds);
 
-        return groupIntoSubLists(contentDtos, courseIds, content -> content.getMetadata().getCourseId());
+        return courseIds.stream()
+                .map(courseId -> catalogs.get(courseId).getContents())
+                .toList();
     }
 
     /**
@@ -127,12 +127,11 @@ public class ContentService {
      * @return a list of lists of contents. The order of the lists will match the order of the given chapter ids.
      */
     public List<List<Content>> getContentsByChapterIds(final List<UUID> chapterIds) {
-        final List<Content> allMatchingContents = contentRepository.findByChapterIdIn(chapterIds)
-                .stream()
-                .map(contentMapper::entityToDto)
-                .toList();
+        final Map<UUID, CourseCatalog> catalogs = courseCatalogCache.getCatalogsOfChapters(chapterIds);
 
-        return groupIntoSubLists(allMatchingContents, chapterIds, content -> content.getMetadata().getChapterId());
+        return chapterIds.stream()
+                .map(chapterId -> getContentsOfChapter(catalogs, chapterId))
+                .toList();
     }
 
     /**
@@ -142,10 +141,14 @@ public class ContentService {
      * @return a list of lists of contents. The order of the lists will match the order of the given chapter ids.
      */
     public List<Content> getContentsByChapterId(final UUID chapterId) {
-        return contentRepository.findByChapterIdIn(List.of(chapterId))
-                .stream()
-                .map(contentMapper::entityToDto)
-                .toList();
+        return getContentsOfChapter(courseCatalogCache.getCatalogsOfChapters(List.of(chapterId)), chapterId);
+    }
+
+    private static List<Content> getContentsOfChapter(final Map<UUID, CourseCatalog> catalogsByChapterId,
+                                                      final UUID chapterId) {
+        final CourseCatalog catalog = catalogsByChapterId.get(chapterId);
+        // the course of a chapter without contents and sections is not known
+        return catalog == null ? List.of() : catalog.getContentsOfChapter(chapterId);
     }
 
     /**
@@ -162,6 +165,11 @@ public class ContentService {
         newTags.add(tagName);
         content.getMetadata().setTags(newTags);
         content = contentRepository.save(content);
+        cacheInvalidationBus.broadcast(CacheInvalidation.builder()
+                .courseId(content.getMetadata().getCourseId())
+                .chapterId(content.getMetadata().getChapterId())
+                .contentId(content.getId())
+                .build());
         return contentMapper.entityToDto(content);
     }
 
@@ -179,6 +187,11 @@ public class ContentService {
         newTags.remove(tagName);
         content.getMetadata().setTags(newTags);
         content = contentRepository.save(content);
+        cacheInvalidationBus.broadcast(CacheInvalidation.builder()
+                .courseId(content.getMetadata().getCourseId())
+                .chapterId(content.getMetadata().getChapterId())
+                .contentId(content.getId())
+                .build());
 
         return contentMapper.entityToDto(content);
     }
@@ -245,10 +258,17 @@ public class ContentService {
                 oldContentEntity.getMetadata().getType());
         AssessmentEntity updatedAssessment = (AssessmentEntity) updatedContentEntity;
         List<ItemEntity> items = new ArrayList<>();
+        AssessmentEntity oldAssessment = (AssessmentEntity) oldContentEntity;
         if(updatedAssessment.getItems() == null){
-            AssessmentEntity oldAssessment = (AssessmentEntity) oldContentEntity;
             updatedAssessment.setItems(oldAssessment.getItems());
         }
+        // the skills and bloom levels of the old and new items may have changed
+        final List<UUID> changedItemIds = Stream.of(oldAssessment.getItems(), updatedAssessment.getItems())
+                .flatMap(List::stream)
+                .map(ItemEntity::getId)
+                .filter(Objects::nonNull)
+                .toList();
+        cacheInvalidationBus.broadcast(CacheInvalidation.builder().itemIds(changedItemIds).build());
         for (ItemEntity item : updatedAssessment.getItems()) {
             List<SkillEntity> skills = new ArrayList<>();
             for (SkillEntity skill : item.getAssociatedSkills()) {
@@ -260,7 +280,7 @@ public class ContentService {
                     );
                 } else {
                     skills.add(skillRepository.save(skill));
-                    topicPublisher.notifySkillEntityChanged(SkillEntityChangedEvent.builder()
+                    eventOutbox.notifySkillEntityChanged(SkillEntityChangedEvent.builder()
                             .skillId(skill.getId())
                             .skillName(skill.getSkillName())
                             .skillCategory(skill.getSkillCategory())
@@ -286,8 +306,13 @@ public class ContentService {
     private <T extends ContentEntity> T createContent(T contentEntity, final UUID courseId) {
         contentEntity.getMetadata().setCourseId(courseId);
         contentEntity = contentRepository.save(contentEntity);
+        // the cached contents of the chapter and course do not contain the new content
+        cacheInvalidationBus.broadcast(CacheInvalidation.builder()
+                .courseId(courseId)
+                .contentId(contentEntity.getId())
+                .build());
 
-        topicPublisher.notifyContentChanges(List.of(contentEntity.getId()), CrudOperation.CREATE);
+        eventOutbox.notifyContentChanges(List.of(contentEntity.getId()), CrudOperation.CREATE);
 
         return contentEntity;
     }
@@ -303,10 +328,20 @@ public class ContentService {
     private <T extends ContentEntity> T updateContent(final T oldContentEntity, T updatedContentEntity) {
         updatedContentEntity.getMetadata().setCourseId(oldContentEntity.getMetadata().getCourseId());
         updatedContentEntity = contentRepository.save(updatedContentEntity);
+        // the suggestions of the chapter contain the metadata of the content, e.g. its suggested date
+        cacheInvalidationBus.broadcast(CacheInvalidation.builder()
+                .courseId(updatedContentEntity.getMetadata().getCourseId())
+                .chapterId(oldContentEntity.getMetadata().getChapterId())
+                .chapterId(updatedContentEntity.getMetadata().getChapterId())
+                .contentId(updatedContentEntity.getId())
+                .build());
         // if the content is assigned to a different chapter course Links need to be potentially updated and therefore
         // an Update request is sent to the resource services
         if (!oldContentEntity.getMetadata().getChapterId().equals(updatedContentEntity.getMetadata().getChapterId())) {
-            topicPublisher.notifyContentChanges(List.of(updatedContentEntity.getId()), CrudOperation.UPDATE);
+            eventOutbox.notifyContentChanges(List.of(updatedContentEntity.getId()), CrudOperation.UPDATE);
+            completionCounterService.invalidateCounters(List.of(
+                    oldContentEntity.getMetadata().getChapterId(),
+                    updatedContentEntity.getMetadata().getChapterId()));
         }
 
         return updatedContentEntity;
@@ -341,7 +376,7 @@ public class ContentService {
 
         if (!contentIds.isEmpty()) {
             // inform dependant services that content entities were deleted
-            topicPublisher.notifyContentChanges(contentIds, CrudOperation.DELETE);
+            eventOutbox.notifyContentChanges(contentIds, CrudOperation.DELETE);
         }
     }
 
@@ -361,6 +396,14 @@ public class ContentService {
             deleteRelatedSkillsIfNecessary(contentEntity);
         }
         contentRepository.delete(contentEntity);
+        completionCounterService.invalidateCounters(List.of(
+                contentEntity.getMetadata().getChapterId(),
+                contentEntity.getMetadata().getCourseId()));
+        cacheInvalidationBus.broadcast(CacheInvalidation.builder()
+                .courseId(contentEntity.getMetadata().getCourseId())
+                .chapterId(contentEntity.getMetadata().getChapterId())
+                .contentId(contentEntity.getId())
+                .build());
 
         return contentEntity.getId();
     }
@@ -398,29 +441,7 @@ public class ContentService {
      * @return ordered list of content that matches the order of the chapterID argument
      */
     public List<List<Content>> getContentWithNoSection(final List<UUID> chapterIds) {
-
-        // get a list containing all sections for the given chapters, but not divided by chapter yet
-        final List<SectionEntity> sectionEntities = sectionRepository.findByChapterIdInOrderByPosition(chapterIds);
-        final List<ContentEntity> contentEntities = contentRepository.findByChapterIdIn(chapterIds);
-
-        // collect optional and required content in form of a stream for further processing
-        final List<StageEntity> availableStages = sectionEntities.stream()
-                .map(SectionEntity::getStages)
-                .flatMap(Collection::stream).toList();
-
-        final Stream<Set<ContentEntity>> requiredContentStream = availableStages.stream()
-                .map(StageEntity::getRequiredContents);
-
-        final Stream<Set<ContentEntity>> optionalContentStream = availableStages.stream()
-                .map(StageEntity::getOptionalContents);
-
-        // collect content from both required and optional sets in stages
-        final Set<ContentEntity> contentEntitiesInSections = Stream.concat(requiredContentStream, optionalContentStream)
-                .flatMap(Collection::stream)
-                .collect(Collectors.toSet());
-
-        final List<Content> contentsWithNoSection = contentEntities.stream()
-                .filter(Predicate.not(contentEntitiesInSections::contains))
+        final List<Content> contentsWithNoSection = contentRepository.findWithoutStageByChapterIdIn(chapterIds).stream()
                 .map(contentMapper::entityToDto)
                 .toList();
 
@@ -456,7 +477,7 @@ public class ContentService {
         }
         skillRepository.findById(skillId).ifPresent(skill -> {
             skillRepository.delete(skill);
-            topicPublisher.notifySkillEntityChanged(SkillEntityChangedEvent.builder()
+            eventOutbox.notifySkillEntityChanged(SkillEntityChangedEvent.builder()
                     .skillId(skillId)
                     .skillName(skill.getSkillName())
                     .skillCategory(skill.getSkillCategory())
@@ -506,6 +527,19 @@ public class ContentService {
         return skillLists;
     }
 
+    /**
+     * Drops all cached data of the item with the given ID on all instances, e.g. after its skills or bloom levels
+     * changed.
+     *
+     * @param itemId id of the changed item
+     */
+    public void invalidateCachedItem(final UUID itemId) {
+        cacheInvalidationBus.broadcast(CacheInvalidation.builder()
+                .itemId(itemId)
+                .courseIds(contentRepository.findCourseIdByItemId(itemId).stream().toList())
+                .build());
+    }
+
     /**
      * deletes a given item
      *
@@ -520,6 +554,7 @@ public class ContentService {
             }
             removeItemFromAssessment(itemId);
             itemRepository.delete(item);
+            cacheInvalidationBus.broadcast(CacheInvalidation.builder().itemId(itemId).build());
             System.out.println("Item with id " + itemId + " deleted.");
         }
     }
@@ -529,7 +564,8 @@ public class ContentService {
         if (itemsForSkill.size() == 1 && itemsForSkill.get(0).getId() == itemId) {
             skillRepository.findById(skillId).ifPresent(skill -> {
                 skillRepository.delete(skill);
-                topicPublisher.notifySkillEntityChanged(SkillEntityChangedEvent.builder()
+                cacheInvalidationBus.broadcast(CacheInvalidation.builder().skillId(skillId).build());
+                eventOutbox.notifySkillEntityChanged(SkillEntityChangedEvent.builder()
                         .skillId(skillId)
                         .skillName(skill.getSkillName())
                         .skillCategory(skill.getSkillCategory())
@@ -553,6 +589,10 @@ public class ContentService {
     
         // Speichere die Änderungen an der AssessmentEntity
         assessmentRepository.save(assessmentEntity);
+        cacheInvalidationBus.broadcast(CacheInvalidation.builder()
+                .courseId(assessmentEntity.getMetadata().getCourseId())
+                .contentId(assessmentEntity.getId())
+                .build());
     }
 
 }
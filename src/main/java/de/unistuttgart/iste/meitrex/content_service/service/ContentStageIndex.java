@@ -0,0 +1,136 @@
+package de.unistuttgart.iste.meitrex.content_service.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.unistuttgart.iste.meitrex.content_service.persistence.repository.StageRepository;
+import de.unistuttgart.iste.meitrex.content_service.persistence.repository.StageRepository.ContentStageLink;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+
+import static de.unistuttgart.iste.meitrex.content_service.service.CacheInvalidationTiming.runNowAndAfterCompletion;
+
+/**
+ * In-memory index from contents to the stage they are part of, so that the stage of a content can be found without
+ * loading any stages. Contents which are not part of a stage are cached as well.
+ * <p>
+ * Missing entries are loaded from the join tables between stages and contents, see
+ * {@link StageRepository#findStageLinksByContentIds(Collection)}. Entries have to be invalidated whenever the contents
+ * of a stage change or a stage is deleted. Entries loaded while an invalidation happened are not cached, because they
+ * might have been loaded in their old state. Entries expire after a fixed time in case an invalidation was missed,
+ * e.g. because the message of another instance was lost.
+ */
+@Component
+public class ContentStageIndex {
+
+    private final StageRepository stageRepository;
+    private final Cache<UUID, Optional<StageLink>> cache;
+    /**
+     * Incremented on every invalidation, guarded by the lock of this index.
+     */
+    private long invalidationCount;
+
+    public ContentStageIndex(final StageRepository stageRepository,
+                             @Value("${content-service.content-stage-index.ttl:30m}") final Duration ttl,
+                             @Value("${content-service.content-stage-index.max-size:100000}") final long maxSize) {
+        this.stageRepository = stageRepository;
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    /**
+     * @return the stage the content with the given ID is part of, or an empty optional if the content is not part of
+     * any stage
+     * @throws IllegalStateException if the content is part of more than one stage
+     */
+    public Optional<StageLink> findStageLink(final UUID contentId) {
+        return getStageLinks(List.of(contentId)).get(contentId);
+    }
+
+    /**
+     * Returns the stages the given contents are part of. All contents which are not cached are loaded with a single
+     * query.
+     *
+     * @param contentIds the IDs of the contents
+     * @return for each content, the stage it is part of or an empty optional if it is not part of any stage
+     * @throws IllegalStateException if a content is part of more than one stage
+     */
+    public Map<UUID, Optional<StageLink>> getStageLinks(final Collection<UUID> contentIds) {
+        final long invalidationCountBeforeLoading;
+        synchronized (this) {
+            invalidationCountBeforeLoading = invalidationCount;
+        }
+
+        final Map<UUID, Optional<StageLink>> result = new HashMap<>(cache.getAllPresent(contentIds));
+        final Set<UUID> missingContentIds = new HashSet<>(contentIds);
+        missingContentIds.removeAll(result.keySet());
+        if (missingContentIds.isEmpty()) {
+            return result;
+        }
+
+        // load outside of the lock, so that other threads are not blocked by the query
+        final Map<UUID, Optional<StageLink>> loaded = loadStageLinks(missingContentIds);
+
+        synchronized (this) {
+            // contents which changed while they were loaded might have been loaded in their old state
+            if (invalidationCount == invalidationCountBeforeLoading) {
+                cache.putAll(loaded);
+            }
+        }
+        result.putAll(loaded);
+        return result;
+    }
+
+    private Map<UUID, Optional<StageLink>> loadStageLinks(final Set<UUID> contentIds) {
+        final Map<UUID, Optional<StageLink>> result = HashMap.newHashMap(contentIds.size());
+        for (final UUID contentId : contentIds) {
+            result.put(contentId, Optional.empty());
+        }
+
+        for (final ContentStageLink link : stageRepository.findStageLinksByContentIds(Set.copyOf(contentIds))) {
+            final Optional<StageLink> previous =
+                    result.put(link.getContentId(), Optional.of(new StageLink(link.getStageId(), link.isRequired())));
+            if (previous != null && previous.isPresent()) {
+                throw new IllegalStateException("Content " + link.getContentId()
+                                                + " is part of more than one stage. This should not be possible!");
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Removes the given contents from the index, so that their stage is loaded again on next access, see
+     * {@link CacheInvalidationTiming}.
+     *
+     * @param contentIds the IDs of the contents which have been added to or removed from a stage
+     */
+    public void invalidate(final Collection<UUID> contentIds) {
+        final List<UUID> contentIdsCopy = List.copyOf(contentIds);
+        runNowAndAfterCompletion(() -> removeFromIndex(() -> cache.invalidateAll(contentIdsCopy)));
+    }
+
+    /**
+     * Removes all contents from the index, e.g. after whole sections with all their stages have been deleted.
+     */
+    public void invalidateAll() {
+        runNowAndAfterCompletion(() -> removeFromIndex(cache::invalidateAll));
+    }
+
+    private synchronized void removeFromIndex(final Runnable removal) {
+        removal.run();
+        invalidationCount++;
+    }
+
+    /**
+     * The stage a content is part of.
+     *
+     * @param stageId  the ID of the stage
+     * @param required whether the content is a required content of the stage
+     */
+    public record StageLink(UUID stageId, boolean required) {
+    }
+}
@@ -0,0 +1,206 @@
+package de.unistuttgart.iste.meitrex.content_service.service;
+
+import de.unistuttgart.iste.meitrex.generated.dto.Content;
+import de.unistuttgart.iste.meitrex.generated.dto.Section;
+import de.unistuttgart.iste.meitrex.generated.dto.Stage;
+
+import java.util.*;
+
+/**
+ * Immutable snapshot of the structure of one course: its contents by chapter, its sections with their stages in
+ * order and, for every content, the stage it is part of and whether it is required there.
+ * <p>
+ * Contents, chapters, stages and sections are numbered in the order in which they were loaded, and all relations
+ * between them are stored as arrays of these numbers. A lookup by ID needs a single hash map access, everything else
+ * is an array access. A catalog is never changed after it has been built. When the course changes, the catalog is
+ * replaced as a whole, see {@link CourseCatalogCache}, so readers always see a consistent state of the course.
+ * <p>
+ * The DTOs of a catalog are shared by all readers and must not be modified.
+ */
+public final class CourseCatalog {
+
+    private static final int NO_STAGE = -1;
+
+    private final UUID courseId;
+
+    private final Content[] contents;
+    private final Map<UUID, Integer> contentIndexById;
+    /**
+     * For every content, the index of its chapter.
+     */
+    private final int[] chapterOfContent;
+    /**
+     * For every content, the index of the stage it is part of or {@link #NO_STAGE}.
+     */
+    private final int[] stageOfContent;
+    /**
+     * Contains the indexes of the contents which are required contents of their stage.
+     */
+    private final BitSet requiredContents;
+
+    private final UUID[] chapterIds;
+    private final Map<UUID, Integer> chapterIndexById;
+    private final int[][] contentsOfChapter;
+    private final int[][] sectionsOfChapter;
+
+    private final Section[] sections;
+    private final Stage[] stages;
+
+    private CourseCatalog(final UUID courseId, final List<Content> contentList, final List<Section> sectionList) {
+        this.courseId = courseId;
+        this.contents = contentList.toArray(Content[]::new);
+        this.sections = sectionList.toArray(Section[]::new);
+
+        contentIndexById = HashMap.newHashMap(contents.length);
+        final Map<UUID, Integer> chapterIndexes = new LinkedHashMap<>();
+        chapterOfContent = new int[contents.length];
+        for (int i = 0; i < contents.length; i++) {
+            contentIndexById.put(contents[i].getId(), i);
+            chapterOfContent[i] = chapterIndexes.computeIfAbsent(contents[i].getMetadata().getChapterId(),
+                    chapterId -> chapterIndexes.size());
+        }
+
+        final int[] chapterOfSection = new int[sections.length];
+        final List<Stage> stageList = new ArrayList<>();
+        stageOfContent = new int[contents.length];
+        Arrays.fill(stageOfContent, NO_STAGE);
+        requiredContents = new BitSet(contents.length);
+        for (int i = 0; i < sections.length; i++) {
+            chapterOfSection[i] = chapterIndexes.computeIfAbsent(sections[i].getChapterId(),
+                    chapterId -> chapterIndexes.size());
+
+            for (final Stage stage : sections[i].getStages()) {
+                final int stageIndex = stageList.size();
+                stageList.add(stage);
+                linkContents(stage.getRequiredContents(), stageIndex, true);
+                linkContents(stage.getOptionalContents(), stageIndex, false);
+            }
+        }
+        stages = stageList.toArray(Stage[]::new);
+
+        chapterIds = chapterIndexes.keySet().toArray(UUID[]::new);
+        chapterIndexById = chapterIndexes;
+        contentsOfChapter = groupByChapter(chapterOfContent, chapterIds.length);
+        sectionsOfChapter = groupByChapter(chapterOfSection, chapterIds.length);
+    }
+
+    /**
+     * Builds the catalog of a course.
+     *
+     * @param courseId the ID of the course
+     * @param contents all contents of the course
+     * @param sections all sections of the course, ordered by their position within their chapter and with their
+     *                 stages ordered by position
+     */
+    public static CourseCatalog of(final UUID courseId, final List<Content> contents, final List<Section> sections) {
+        return new CourseCatalog(courseId, contents, sections);
+    }
+
+    private void linkContents(final List<Content> stageContents, final int stageIndex, final boolean required) {
+        for (final Content content : stageContents) {
+            final Integer contentIndex = contentIndexById.get(content.getId());
+            // stages can only contain contents of their own chapter, so every content is part of the catalog
+            if (contentIndex != null) {
+                stageOfContent[contentIndex] = stageIndex;
+                requiredContents.set(contentIndex, required);
+            }
+        }
+    }
+
+    /**
+     * Groups the indexes 0 to n - 1 by the chapter given for each of them, keeping their order.
+     */
+    private static int[][] groupByChapter(final int[] chapterOfElement, final int chapterCount) {
+        final int[] sizes = new int[chapterCount];
+        for (final int chapterIndex : chapterOfElement) {
+            sizes[chapterIndex]++;
+        }
+
+        final int[][] result = new int[chapterCount][];
+        for (int i = 0; i < chapterCount; i++) {
+            result[i] = new int[sizes[i]];
+        }
+        final int[] filled = new int[chapterCount];
+        for (int element = 0; element < chapterOfElement.length; element++) {
+            final int chapterIndex = chapterOfElement[element];
+            result[chapterIndex][filled[chapterIndex]++] = element;
+        }
+        return result;
+    }
+
+    public UUID getCourseId() {
+        return courseId;
+    }
+
+    /**
+     * @return the IDs of all chapters of the course which contain contents or sections
+     */
+    public List<UUID> getChapterIds() {
+        return Collections.unmodifiableList(Arrays.asList(chapterIds));
+    }
+
+    /**
+     * @return all contents of the course
+     */
+    public List<Content> getContents() {
+        return Collections.unmodifiableList(Arrays.asList(contents));
+    }
+
+    /**
+     * @return the contents of the given chapter, or an empty list if the chapter is not part of this course
+     */
+    public List<Content> getContentsOfChapter(final UUID chapterId) {
+        final Integer chapterIndex = chapterIndexById.get(chapterId);
+        if (chapterIndex == null) {
+            return List.of();
+        }
+        return select(contents, contentsOfChapter[chapterIndex]);
+    }
+
+    /**
+     * @return all sections of the course, ordered by their position within their chapter
+     */
+    public List<Section> getSections() {
+        return Collections.unmodifiableList(Arrays.asList(sections));
+    }
+
+    /**
+     * @return the sections of the given chapter ordered by position, or an empty list if the chapter is not part of
+     * this course
+     */
+    public List<Section> getSectionsOfChapter(final UUID chapterId) {
+        final Integer chapterIndex = chapterIndexById.get(chapterId);
+        if (chapterIndex == null) {
+            return List.of();
+        }
+        return select(sections, sectionsOfChapter[chapterIndex]);
+    }
+
+    /**
+     * @return the stage the content with the given ID is part of, or an empty optional if the content is not part of
+     * any stage or not part of this course
+     */
+    public Optional<Stage> findStageOfContent(final UUID contentId) {
+        final Integer contentIndex = contentIndexById.get(contentId);
+        if (contentIndex == null || stageOfContent[contentIndex] == NO_STAGE) {
+            return Optional.empty();
+        }
+        return Optional.of(stages[stageOfContent[contentIndex]]);
+    }
+
+    /**
+     * @return whether the content with the given ID is a required content of a stage of this course
+     */
+    public boolean isRequired(final UUID contentId) {
+        final Integer contentIndex = contentIndexById.get(contentId);
+        return contentIndex != null && requiredContents.get(contentIndex);
+    }
+
+    private static <T> List<T> select(final T[] elements, final int[] indexes) {
+        final List<T> result = new ArrayList<>(indexes.length);
+        for (final int index : indexes) {
+            result.add(elements[index]);
+        }
+        return Collections.unmodifiableList(result);
+    }
+}
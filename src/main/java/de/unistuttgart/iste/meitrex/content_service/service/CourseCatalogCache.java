@@ -0,0 +1,198 @@
+package de.unistuttgart.iste.meitrex.content_service.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import de.unistuttgart.iste.meitrex.content_service.persistence.entity.ContentEntity;
+import de.unistuttgart.iste.meitrex.content_service.persistence.entity.SectionEntity;
+import de.unistuttgart.iste.meitrex.content_service.persistence.entity.StageEntity;
+import de.unistuttgart.iste.meitrex.content_service.persistence.mapper.ContentMapper;
+import de.unistuttgart.iste.meitrex.content_service.persistence.repository.ContentRepository;
+import de.unistuttgart.iste.meitrex.content_service.persistence.repository.SectionRepository;
+import de.unistuttgart.iste.meitrex.generated.dto.Content;
+import de.unistuttgart.iste.meitrex.generated.dto.Section;
+import de.unistuttgart.iste.meitrex.generated.dto.Stage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static de.unistuttgart.iste.meitrex.content_service.service.CacheInvalidationTiming.runNowAndAfterCompletion;
+
+/**
+ * Holds the {@link CourseCatalog} of every course which has been accessed recently. The catalog of a course is
+ * loaded on first access with one query for its contents and one for its sections.
+ * <p>
+ * Catalogs have to be invalidated on every change of the contents, sections or stages of a course. The catalog is
+ * then dropped as a whole and loaded again on next access, so readers either see the old or the new state of the
+ * course, but never a mix of both.
+ * <p>
+ * Hits and misses are recorded as the {@code cache.gets} metric with the cache name {@value #CACHE_NAME}.
+ */
+@Component
+public class CourseCatalogCache {
+
+    static final String CACHE_NAME = "course_catalog";
+
+    private final ContentRepository contentRepository;
+    private final SectionRepository sectionRepository;
+    private final ContentMapper contentMapper;
+    private final Cache<UUID, CourseCatalog> catalogs;
+    /**
+     * The course of every chapter of the cached catalogs. The entries of the chapters of a catalog are dropped
+     * together with the catalog, because the chapters might have been deleted. Only the chapters of the dropped
+     * catalog are removed, so this does not depend on the number of cached chapters.
+     */
+    private final Cache<UUID, UUID> courseIdByChapterId;
+
+    public CourseCatalogCache(final ContentRepository contentRepository,
+                              final SectionRepository sectionRepository,
+                              final ContentMapper contentMapper,
+                              final MeterRegistry meterRegistry,
+                              @Value("${content-service.course-catalog.ttl:10m}") final Duration ttl,
+                              @Value("${content-service.course-catalog.max-size:1000}") final long maxSize,
+                              @Value("${content-service.course-catalog.max-chapters:100000}") final long maxChapters) {
+        this.contentRepository = contentRepository;
+        this.sectionRepository = sectionRepository;
+        this.contentMapper = contentMapper;
+        this.courseIdByChapterId = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxChapters)
+                .build();
+        // the catalogs are invalidated on every change, the lifetime only bounds how long a missed invalidation can
+        // cause outdated catalogs to be served
+        this.catalogs = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .evictionListener((final UUID courseId, final CourseCatalog catalog, final RemovalCause cause) ->
+                        dropChapters(catalog))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, catalogs, CACHE_NAME);
+    }
+
+    /**
+     * @return the catalog of the course with the given ID. The catalog of a course without contents and sections is
+     * empty.
+     */
+    @Transactional
+    public CourseCatalog getCatalog(final UUID courseId) {
+        return getCatalogs(List.of(courseId)).get(courseId);
+    }
+
+    /**
+     * Returns the catalogs of the given courses.
+     * Each catalog which is not cached is loaded atomically, so an invalidation of the course while its catalog is
+     * loaded waits for the load and drops the loaded catalog afterwards.
+     *
+     * @param courseIds the IDs of the courses
+     * @return the catalogs by course ID
+     */
+    @Transactional
+    public Map<UUID, CourseCatalog> getCatalogs(final Collection<UUID> courseIds) {
+        final Map<UUID, CourseCatalog> result = HashMap.newHashMap(courseIds.size());
+        for (final UUID courseId : courseIds) {
+            result.put(courseId, catalogs.get(courseId, this::loadCatalog));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the catalogs of the courses the given chapters belong to. The course of a chapter is only known once
+     * the chapter contains a content or a section, so chapters without any are not part of the result.
+     *
+     * @param chapterIds the IDs of the chapters
+     * @return the catalogs by chapter ID
+     */
+    @Transactional
+    public Map<UUID, CourseCatalog> getCatalogsOfChapters(final Collection<UUID> chapterIds) {
+        final Map<UUID, UUID> courseIds = new HashMap<>(courseIdByChapterId.getAllPresent(chapterIds));
+
+        final Set<UUID> missingChapterIds = new HashSet<>(chapterIds);
+        missingChapterIds.removeAll(courseIds.keySet());
+        if (!missingChapterIds.isEmpty()) {
+            Stream.concat(contentRepository.findChapterCourseLinks(missingChapterIds).stream(),
+                            sectionRepository.findChapterCourseLinks(missingChapterIds).stream())
+                    .forEach(link -> courseIds.put(link.getChapterId(), link.getCourseId()));
+        }
+
+        final Map<UUID, CourseCatalog> catalogsByCourseId = getCatalogs(Set.copyOf(courseIds.values()));
+        final Map<UUID, CourseCatalog> result = HashMap.newHashMap(courseIds.size());
+        courseIds.forEach((chapterId, courseId) -> result.put(chapterId, catalogsByCourseId.get(courseId)));
+        return result;
+    }
+
+    /**
+     * Drops the catalogs of the given courses, so that they are loaded again on next access, see
+     * {@link CacheInvalidationTiming}.
+     *
+     * @param courseIds the IDs of the courses which changed
+     */
+    public void invalidate(final Collection<UUID> courseIds) {
+        if (courseIds.isEmpty()) {
+            return;
+        }
+        final Set<UUID> courseIdsCopy = Set.copyOf(courseIds);
+        runNowAndAfterCompletion(() -> courseIdsCopy.forEach(
+                courseId -> dropChapters(catalogs.asMap().remove(courseId))));
+    }
+
+    private void dropChapters(@Nullable final CourseCatalog catalog) {
+        if (catalog != null) {
+            courseIdByChapterId.invalidateAll(catalog.getChapterIds());
+        }
+    }
+
+    private CourseCatalog loadCatalog(final UUID courseId) {
+        final List<Content> contents = new ArrayList<>();
+        final Map<UUID, Content> contentsById = new HashMap<>();
+        for (final ContentEntity entity : contentRepository.findByCourseIdIn(List.of(courseId))) {
+            final Content content = contentMapper.entityToDto(entity);
+            contents.add(content);
+            contentsById.put(content.getId(), content);
+        }
+
+        final List<Section> sections = sectionRepository.findByCourseIdIn(List.of(courseId)).stream()
+                .sorted(Comparator.comparingInt(SectionEntity::getPosition))
+                .map(entity -> toSection(entity, contentsById))
+                .toList();
+
+        final CourseCatalog catalog = CourseCatalog.of(courseId, contents, sections);
+        catalog.getChapterIds().forEach(chapterId -> courseIdByChapterId.put(chapterId, courseId));
+        return catalog;
+    }
+
+    /**
+     * Maps a section like {@link de.unistuttgart.iste.meitrex.content_service.persistence.mapper.SectionMapper}, but
+     * uses the already mapped contents of the course, so that every content is mapped only once.
+     */
+    private Section toSection(final SectionEntity entity, final Map<UUID, Content> contentsById) {
+        return Section.builder()
+                .setId(entity.getId())
+                .setChapterId(entity.getChapterId())
+                .setCourseId(entity.getCourseId())
+                .setName(entity.getName())
+                .setStages(entity.getStages().stream()
+                        .sorted(Comparator.comparingInt(StageEntity::getPosition))
+                        .map(stage -> Stage.builder()
+                                .setId(stage.getId())
+                                .setPosition(stage.getPosition())
+                                .setOptionalContents(toContents(stage.getOptionalContents(), contentsById))
+                                .setRequiredContents(toContents(stage.getRequiredContents(), contentsById))
+                                .build())
+                        .toList())
+                .build();
+    }
+
+    private List<Content> toContents(final Collection<ContentEntity> entities, final Map<UUID, Content> contentsById) {
+        return entities.stream()
+                .map(entity -> contentsById.computeIfAbsent(entity.getId(), id -> contentMapper.entityToDto(entity)))
+                .toList();
+    }
+}
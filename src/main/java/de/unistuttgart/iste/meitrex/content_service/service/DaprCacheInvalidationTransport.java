@@ -0,0 +1,49 @@
+package de.unistuttgart.iste.meitrex.content_service.service;
+
+import io.dapr.client.DaprClient;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Delivers the messages of the {@link CacheInvalidationBus} to all instances of the service via dapr pub/sub.
+ * <p>
+ * The pub/sub component {@value #PUBSUB_NAME} must give every instance its own consumer group, so that every
+ * instance receives every message, see {@code components/cache-invalidation-pubsub.yaml}. The {@code meitrex}
+ * component cannot be used, because there the instances of the service share one consumer group and each message
+ * is only received by one of them. The messages are received by the
+ * {@link de.unistuttgart.iste.meitrex.content_service.controller.SubscriptionController} and passed to
+ * {@link #deliver(CacheInvalidationBus.Message)}.
+ */
+@Component
+@ConditionalOnProperty(name = "content-service.cache-invalidation.transport", havingValue = "dapr")
+@RequiredArgsConstructor
+public class DaprCacheInvalidationTransport implements CacheInvalidationTransport {
+
+    public static final String PUBSUB_NAME = "content-service-cache-invalidation";
+    public static final String TOPIC = "content-service-cache-invalidation";
+
+    private final DaprClient daprClient;
+    private final List<Consumer<CacheInvalidationBus.Message>> consumers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(final CacheInvalidationBus.Message message) {
+        daprClient.publishEvent(PUBSUB_NAME, TOPIC, message).block();
+    }
+
+    @Override
+    public void subscribe(final Consumer<CacheInvalidationBus.Message> consumer) {
+        consumers.add(consumer);
+    }
+
+    /**
+     * Passes a message received from the pub/sub component to the consumers of this instance.
+     */
+    public void deliver(final CacheInvalidationBus.Message message) {
+        consumers.forEach(consumer -> consumer.accept(message));
+    }
+}
@@ -0,0 +1,87 @@
+package de.unistuttgart.iste.meitrex.content_service.service;
+
+import de.unistuttgart.iste.meitrex.content_service.persistence.entity.AssessmentEntity;
+import de.unistuttgart.iste.meitrex.content_service.persistence.entity.ContentEntity;
+import de.unistuttgart.iste.meitrex.content_service.persistence.entity.ItemEntity;
+import de.unistuttgart.iste.meitrex.content_service.persistence.entity.SkillEntity;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import static de.unistuttgart.iste.meitrex.content_service.service.CacheInvalidationTiming.runNowAndAfterCompletion;
+
+/**
+ * Evicts contents, items and skills from the hibernate second-level cache.
+ * <p>
+ * Hibernate keeps the cache up to date for changes made through the entity manager. Entries are evicted explicitly
+ * for changes which hibernate does not see, e.g. changes announced by events of other services, and after every
+ * change of contents, so that no outdated content survives until its entry expires.
+ * If the second-level cache is disabled, eviction does nothing.
+ */
+@Component
+public class EntityCacheEviction {
+
+    /**
+     * Region of the cached queries for the contents of chapters and courses, see
+     * {@link de.unistuttgart.iste.meitrex.content_service.persistence.repository.ContentRepository}.
+     */
+    public static final String CONTENT_QUERY_REGION = "content-queries";
+
+    private static final String TAGS_ROLE = ContentEntity.class.getName() + ".metadata.tags";
+    private static final String ITEMS_ROLE = AssessmentEntity.class.getName() + ".items";
+    private static final String SKILLS_ROLE = ItemEntity.class.getName() + ".associatedSkills";
+
+    private final Cache cache;
+
+    public EntityCacheEviction(final EntityManagerFactory entityManagerFactory) {
+        this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+
+    /**
+     * Evicts the given contents with their tags and items and all cached queries for contents, see
+     * {@link CacheInvalidationTiming}.
+     *
+     * @param contentIds the IDs of the contents which changed
+     */
+    public void evictContents(final Collection<UUID> contentIds) {
+        final List<UUID> contentIdsCopy = List.copyOf(contentIds);
+        runNowAndAfterCompletion(() -> {
+            for (final UUID contentId : contentIdsCopy) {
+                cache.evictEntityData(ContentEntity.class, contentId);
+                cache.evictCollectionData(TAGS_ROLE, contentId);
+                cache.evictCollectionData(ITEMS_ROLE, contentId);
+            }
+            cache.evictQueryRegion(CONTENT_QUERY_REGION);
+        });
+    }
+
+    /**
+     * Evicts the given items with their skills, see {@link #evictContents(Collection)}.
+     *
+     * @param itemIds the IDs of the items which changed
+     */
+    public void evictItems(final Collection<UUID> itemIds) {
+        final List<UUID> itemIdsCopy = List.copyOf(itemIds);
+        runNowAndAfterCompletion(() -> {
+            for (final UUID itemId : itemIdsCopy) {
+                cache.evictEntityData(ItemEntity.class, itemId);
+                cache.evictCollectionData(SKILLS_ROLE, itemId);
+            }
+        });
+    }
+
+    /**
+     * Evicts the given skills, see {@link #evictContents(Collection)}.
+     *
+     * @param skillIds the IDs of the skills which changed
+     */
+    public void evictSkills(final Collection<UUID> skillIds) {
+        final List<UUID> skillIdsCopy = List.copyOf(skillIds);
+        runNowAndAfterCompletion(() -> skillIdsCopy.forEach(skillId -> cache.evictEntityData(SkillEntity.class, skillId)));
+    }
+}
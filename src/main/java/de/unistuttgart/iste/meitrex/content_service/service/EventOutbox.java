@@ -0,0 +1,91 @@
+package de.unistuttgart.iste.meitrex.content_service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.unistuttgart.iste.meitrex.common.event.*;
+import de.unistuttgart.iste.meitrex.common.event.skilllevels.SkillEntityChangedEvent;
+import de.unistuttgart.iste.meitrex.content_service.persistence.entity.OutboxEventEntity;
+import de.unistuttgart.iste.meitrex.content_service.persistence.entity.OutboxEventEntity.EventType;
+import de.unistuttgart.iste.meitrex.content_service.persistence.repository.OutboxEventRepository;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Stores events in the outbox table instead of publishing them directly, so that they are only published if the
+ * transaction of the change they describe is committed, and are not lost if the service stops before publishing.
+ * The events are published by the {@link OutboxRelay}.
+ * <p>
+ * The methods mirror the ones of the {@link de.unistuttgart.iste.meitrex.common.dapr.TopicPublisher}.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class EventOutbox {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Events about several contents are ordered together with the other events of the first of these contents.
+     */
+    public void notifyContentChanges(final List<UUID> contentIds, final CrudOperation operation) {
+        save(EventType.CONTENT_CHANGED, contentIds.getFirst(), new ContentChanges(contentIds, operation));
+    }
+
+    public void notifySkillEntityChanged(final SkillEntityChangedEvent event) {
+        save(EventType.SKILL_ENTITY_CHANGED, event.getSkillId(), event);
+    }
+
+    public void notifyUserProgressUpdated(final UserProgressUpdatedEvent event) {
+        save(EventType.USER_PROGRESS_UPDATED, event.getUserId(), event);
+    }
+
+    public void notifyStageCompleted(final StageCompletedEvent event) {
+        save(EventType.STAGE_COMPLETED, event.getUserId(), event);
+    }
+
+    public void notifyChapterCompleted(final ChapterCompletedEvent event) {
+        save(EventType.CHAPTER_COMPLETED, event.getUserId(), event);
+    }
+
+    public void notifyCourseCompleted(final CourseCompletedEvent event) {
+        save(EventType.COURSE_COMPLETED, event.getUserId(), event);
+    }
+
+    /**
+     * Invalidations do not depend on each other, so they are not ordered with other events.
+     */
+    public void notifyCacheInvalidation(final CacheInvalidationBus.Message message) {
+        save(EventType.CACHE_INVALIDATION, UUID.randomUUID(), message);
+    }
+
+    private void save(final EventType eventType, final UUID aggregateId, final Object event) {
+        final OffsetDateTime now = OffsetDateTime.now();
+        outboxEventRepository.save(OutboxEventEntity.builder()
+                .aggregateId(aggregateId)
+                .eventType(eventType)
+                .payload(serialize(event))
+                .createdAt(now)
+                .nextAttemptAt(now)
+                .build());
+    }
+
+    private String serialize(final Object event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (final JsonProcessingException e) {
+            throw new IllegalArgumentException("Could not serialize event " + event, e);
+        }
+    }
+
+    /**
+     * Arguments of {@link #notifyContentChanges(List, CrudOperation)}.
+     */
+    record ContentChanges(List<UUID> contentIds, CrudOperation operation) {
+    }
+}
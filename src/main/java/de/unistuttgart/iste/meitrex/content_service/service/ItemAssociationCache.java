@@ -0,0 +1,109 @@
+package de.unistuttgart.iste.meitrex.content_service.service;
+
+import de.unistuttgart.iste.meitrex.content_service.persistence.entity.ItemEntity;
+import de.unistuttgart.iste.meitrex.content_service.persistence.entity.SkillEntity;
+import de.unistuttgart.iste.meitrex.content_service.persistence.repository.ItemRepository;
+import de.unistuttgart.iste.meitrex.generated.dto.BloomLevel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+import static de.unistuttgart.iste.meitrex.content_service.service.CacheInvalidationTiming.runNowAndAfterCompletion;
+
+/**
+ * Bounded least-recently-used cache of the skills and bloom levels associated with items, which are needed for
+ * every response of a content-progressed event. Items which are not cached are loaded together in one query.
+ * <p>
+ * Entries have to be invalidated whenever the skills or bloom levels of an item change.
+ */
+@Component
+public class ItemAssociationCache {
+
+    private final ItemRepository itemRepository;
+    private final Map<UUID, ItemAssociations> cache;
+    /**
+     * Incremented on every invalidation, guarded by the lock of the cache.
+     */
+    private long invalidationCount;
+
+    public ItemAssociationCache(final ItemRepository itemRepository,
+                                @Value("${content-service.item-cache.max-size:10000}") final int maxSize) {
+        this.itemRepository = itemRepository;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<UUID, ItemAssociations> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the associations of the items with the given IDs. Items which do not exist are not part of the result.
+     *
+     * @param itemIds the IDs of the items
+     * @return the associations of the items by item ID
+     */
+    public Map<UUID, ItemAssociations> getItemAssociations(final Collection<UUID> itemIds) {
+        final Map<UUID, ItemAssociations> result = HashMap.newHashMap(itemIds.size());
+        final Set<UUID> missingItemIds = new HashSet<>();
+        final long invalidationCountBeforeLoading;
+
+        synchronized (cache) {
+            invalidationCountBeforeLoading = invalidationCount;
+            for (final UUID itemId : itemIds) {
+                final ItemAssociations associations = cache.get(itemId);
+                if (associations == null) {
+                    missingItemIds.add(itemId);
+                } else {
+                    result.put(itemId, associations);
+                }
+            }
+        }
+
+        if (missingItemIds.isEmpty()) {
+            return result;
+        }
+
+        // load outside of the lock, so that other threads are not blocked by the query
+        final Map<UUID, ItemAssociations> loaded = HashMap.newHashMap(missingItemIds.size());
+        for (final ItemEntity item : itemRepository.findWithSkillsByIdIn(missingItemIds)) {
+            loaded.put(item.getId(), new ItemAssociations(
+                    item.getAssociatedSkills().stream().map(SkillEntity::getId).toList(),
+                    List.copyOf(item.getAssociatedBloomLevels())));
+        }
+
+        synchronized (cache) {
+            // items which changed while they were loaded might have been loaded in their old state
+            if (invalidationCount == invalidationCountBeforeLoading) {
+                cache.putAll(loaded);
+            }
+        }
+        result.putAll(loaded);
+        return result;
+    }
+
+    /**
+     * Removes the given items from the cache, so that they are loaded again on next access, see
+     * {@link CacheInvalidationTiming}.
+     *
+     * @param itemIds the IDs of the items which changed
+     */
+    public void invalidate(final Collection<UUID> itemIds) {
+        final List<UUID> itemIdsCopy = List.copyOf(itemIds);
+        runNowAndAfterCompletion(() -> removeFromCache(itemIdsCopy));
+    }
+
+    private void removeFromCache(final Collection<UUID> itemIds) {
+        synchronized (cache) {
+            itemIds.forEach(cache::remove);
+            invalidationCount++;
+        }
+    }
+
+    /**
+     * The IDs of the skills and the bloom levels associated with an item.
+     */
+    public record ItemAssociations(List<UUID> skillIds, List<BloomLevel> bloomLevels) {
+    }
+}
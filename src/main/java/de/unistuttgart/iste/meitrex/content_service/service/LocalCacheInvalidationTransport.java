@@ -0,0 +1,31 @@
+package de.unistuttgart.iste.meitrex.content_service.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Delivers the messages of the {@link CacheInvalidationBus} to the consumers within the same JVM, synchronously
+ * while publishing. Used when only a single instance of the service is running, e.g. in tests, where several buses
+ * can subscribe to the same transport to simulate multiple instances.
+ */
+@Component
+@ConditionalOnProperty(name = "content-service.cache-invalidation.transport", havingValue = "local",
+        matchIfMissing = true)
+public class LocalCacheInvalidationTransport implements CacheInvalidationTransport {
+
+    private final List<Consumer<CacheInvalidationBus.Message>> consumers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(final CacheInvalidationBus.Message message) {
+        consumers.forEach(consumer -> consumer.accept(message));
+    }
+
+    @Override
+    public void subscribe(final Consumer<CacheInvalidationBus.Message> consumer) {
+        consumers.add(consumer);
+    }
+}
@@ -0,0 +1,46 @@
+package de.unistuttgart.iste.meitrex.content_service.service;
+
+import de.unistuttgart.iste.meitrex.content_service.persistence.migration.MessageSequenceNoMigration;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Allocates the sequence numbers of published events.
+ * <p>
+ * Numbers are taken from a database sequence in blocks of {@link MessageSequenceNoMigration#ALLOCATION_SIZE}, so
+ * the database is only accessed once per block. The numbers are unique across all instances of the service and
+ * increase monotonically within each instance, but numbers allocated by different instances may interleave.
+ */
+@Component
+@RequiredArgsConstructor
+@DependsOn("messageSequenceNoMigration")
+public class MessageSequenceNoAllocator {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private long nextSequenceNo;
+    private long endOfBlock;
+
+    /**
+     * @return the next sequence number
+     */
+    public synchronized long next() {
+        if (nextSequenceNo >= endOfBlock) {
+            allocateBlock();
+        }
+        return nextSequenceNo++;
+    }
+
+    private void allocateBlock() {
+        // the sequence is incremented by the block size, so each value is the start of a block reserved for us
+        final Long startOfBlock = jdbcTemplate.queryForObject(
+                "select nextval('" + MessageSequenceNoMigration.SEQUENCE_NAME + "')", Long.class);
+        if (startOfBlock == null) {
+            throw new IllegalStateException("Could not allocate message sequence numbers");
+        }
+        nextSequenceNo = startOfBlock;
+        endOfBlock = startOfBlock + MessageSequenceNoMigration.ALLOCATION_SIZE;
+    }
+}
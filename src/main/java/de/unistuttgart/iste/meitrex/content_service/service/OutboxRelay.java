@@ -0,0 +1,156 @@
+package de.unistuttgart.iste.meitrex.content_service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.unistuttgart.iste.meitrex.common.dapr.TopicPublisher;
+import de.unistuttgart.iste.meitrex.common.event.*;
+import de.unistuttgart.iste.meitrex.common.event.skilllevels.SkillEntityChangedEvent;
+import de.unistuttgart.iste.meitrex.content_service.persistence.entity.OutboxEventEntity;
+import de.unistuttgart.iste.meitrex.content_service.persistence.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Publishes the events stored by the {@link EventOutbox} to dapr in batches.
+ * <p>
+ * A batch is claimed in a short transaction, published without holding a transaction open and deleted in a second
+ * transaction. While a batch is claimed, other runs skip its events and all later events of the same aggregates.
+ * If the service stops before the deletion is committed, the claim expires and the events are published again, so
+ * an event may be published more than once.
+ * <p>
+ * Events which could not be published are retried with an exponential backoff. Until then, later events of the same
+ * aggregate are held back. The events of an aggregate are published in the order of their IDs, which is the order
+ * in which they were written, not the order in which their transactions were committed. If two transactions write
+ * events for the same aggregate concurrently, and the one which wrote first commits last, the event of the other
+ * transaction can be published first. The order is therefore only guaranteed for events of transactions which do
+ * not overlap, e.g. the events written within one transaction.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxRelay {
+
+    /**
+     * Key of the advisory lock which makes sure that only one instance of the service claims events at a time.
+     */
+    private static final long RELAY_LOCK_KEY = 0x6f7574626f78L;
+    private static final Duration INITIAL_RETRY_DELAY = Duration.ofSeconds(1);
+    private static final Duration MAX_RETRY_DELAY = Duration.ofMinutes(10);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final TopicPublisher topicPublisher;
+    private final ObjectMapper objectMapper;
+    private final CacheInvalidationTransport cacheInvalidationTransport;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${content-service.outbox.batch-size:100}")
+    private int batchSize;
+
+    /**
+     * How long a claimed batch is skipped by other runs. Has to be longer than publishing a batch takes, otherwise
+     * its events are published again.
+     */
+    @Value("${content-service.outbox.claim-duration:60s}")
+    private Duration claimDuration;
+
+    /**
+     * Publishes all events which are due.
+     *
+     * @return the number of published events
+     */
+    @Scheduled(fixedDelayString = "${content-service.outbox.poll-interval:1000}")
+    public int relayEvents() {
+        final OffsetDateTime now = OffsetDateTime.now();
+        final List<OutboxEventEntity> events = transactionTemplate.execute(status -> claimDueEvents(now));
+        if (events == null || events.isEmpty()) {
+            return 0;
+        }
+
+        final List<OutboxEventEntity> publishedEvents = new ArrayList<>();
+        final List<OutboxEventEntity> remainingEvents = new ArrayList<>();
+        final Set<UUID> blockedAggregateIds = new HashSet<>();
+        for (final OutboxEventEntity event : events) {
+            // an earlier event of this aggregate failed, so this one has to wait for it
+            if (blockedAggregateIds.contains(event.getAggregateId())) {
+                event.setNextAttemptAt(now);
+                remainingEvents.add(event);
+                continue;
+            }
+
+            try {
+                publish(event);
+                publishedEvents.add(event);
+            } catch (final Exception e) {
+                log.error("Could not publish outbox event {} of type {}, attempt {}",
+                        event.getId(), event.getEventType(), event.getAttempts() + 1, e);
+                scheduleRetry(event, now, e);
+                blockedAggregateIds.add(event.getAggregateId());
+                remainingEvents.add(event);
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            outboxEventRepository.deleteAllInBatch(publishedEvents);
+            outboxEventRepository.saveAll(remainingEvents);
+        });
+
+        return publishedEvents.size();
+    }
+
+    private List<OutboxEventEntity> claimDueEvents(final OffsetDateTime now) {
+        if (!outboxEventRepository.tryAcquireTransactionLock(RELAY_LOCK_KEY)) {
+            return List.of();
+        }
+
+        final List<OutboxEventEntity> events = outboxEventRepository.findDueEvents(now, Limit.of(batchSize));
+        events.forEach(event -> event.setNextAttemptAt(now.plus(claimDuration)));
+        return events;
+    }
+
+    private void publish(final OutboxEventEntity event) throws JsonProcessingException {
+        switch (event.getEventType()) {
+            case CONTENT_CHANGED -> {
+                final EventOutbox.ContentChanges contentChanges = deserialize(event, EventOutbox.ContentChanges.class);
+                topicPublisher.notifyContentChanges(contentChanges.contentIds(), contentChanges.operation());
+            }
+            case SKILL_ENTITY_CHANGED ->
+                    topicPublisher.notifySkillEntityChanged(deserialize(event, SkillEntityChangedEvent.class));
+            case USER_PROGRESS_UPDATED ->
+                    topicPublisher.notifyUserProgressUpdated(deserialize(event, UserProgressUpdatedEvent.class));
+            case STAGE_COMPLETED -> topicPublisher.notifyStageCompleted(deserialize(event, StageCompletedEvent.class));
+            case CHAPTER_COMPLETED ->
+                    topicPublisher.notifyChapterCompleted(deserialize(event, ChapterCompletedEvent.class));
+            case COURSE_COMPLETED ->
+                    topicPublisher.notifyCourseCompleted(deserialize(event, CourseCompletedEvent.class));
+            case CACHE_INVALIDATION ->
+                    cacheInvalidationTransport.publish(deserialize(event, CacheInvalidationBus.Message.class));
+        }
+    }
+
+    private <T> T deserialize(final OutboxEventEntity event, final Class<T> eventClass) throws JsonProcessingException {
+        return objectMapper.readValue(event.getPayload(), eventClass);
+    }
+
+    private static void scheduleRetry(final OutboxEventEntity event, final OffsetDateTime now, final Exception error) {
+        final int attempts = event.getAttempts() + 1;
+        // double the delay with every attempt, the shift is capped to avoid an overflow
+        final Duration delay = INITIAL_RETRY_DELAY.multipliedBy(1L << Math.min(attempts - 1, 20));
+
+        event.setAttempts(attempts);
+        event.setNextAttemptAt(now.plus(delay.compareTo(MAX_RETRY_DELAY) < 0 ? delay : MAX_RETRY_DELAY));
+        event.setLastError(error.getMessage());
+    }
+}
@@ -9,19 +9,21 @@ import de.unistuttgart.iste.meitrex.content_service.persistence.repository.Secti
 import de.unistuttgart.iste.meitrex.generated.dto.CreateSectionInput;
 import de.unistuttgart.iste.meitrex.generated.dto.Section;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
 
-import static de.unistuttgart.iste.meitrex.common.util.MeitrexCollectionUtils.groupIntoSubLists;
-
 @Service
 @RequiredArgsConstructor
+@Transactional
 public class SectionService {
 
     private final SectionMapper sectionMapper;
     private final SectionRepository sectionRepository;
+    private final CourseCatalogCache courseCatalogCache;
+    private final CacheInvalidationBus cacheInvalidationBus;
 
     /**
      * creates a new Section for a given chapterId and name
@@ -41,6 +43,7 @@ public class SectionService {
                 .build();
 
         sectionEntity = sectionRepository.save(sectionEntity);
+        cacheInvalidationBus.broadcast(CacheInvalidation.builder().courseId(courseId).build());
 
         return sectionMapper.entityToDto(sectionEntity);
     }
@@ -59,6 +62,7 @@ public class SectionService {
         SectionEntity sectionEntity = sectionRepository.getReferenceById(sectionId);
         sectionEntity.setName(name);
         sectionEntity = sectionRepository.save(sectionEntity);
+        cacheInvalidationBus.broadcast(CacheInvalidation.builder().courseId(sectionEntity.getCourseId()).build());
         return sectionMapper.entityToDto(sectionEntity);
     }
 
@@ -71,7 +75,16 @@ public class SectionService {
     public UUID deleteSection(final UUID sectionId) {
         requireSectionExisting(sectionId);
 
+        final SectionEntity sectionEntity = sectionRepository.getReferenceById(sectionId);
+        final UUID chapterId = sectionEntity.getChapterId();
+        final UUID courseId = sectionEntity.getCourseId();
         sectionRepository.deleteById(sectionId);
+        // the stages of the section are deleted with it
+        cacheInvalidationBus.broadcast(CacheInvalidation.builder()
+                .courseId(courseId)
+                .chapterId(chapterId)
+                .allContentStages(true)
+                .build());
 
         return sectionId;
     }
@@ -93,6 +106,12 @@ public class SectionService {
         }
         sections = sectionRepository.findByChapterIdInOrderByPosition(chapterIds);
         sectionRepository.deleteAll(sections);
+        final List<UUID> courseIds = sections.stream().map(SectionEntity::getCourseId).distinct().toList();
+        cacheInvalidationBus.broadcast(CacheInvalidation.builder()
+                .courseIds(courseIds)
+                .chapterIds(chapterIds)
+                .allContentStages(true)
+                .build());
     }
 
     /**
@@ -117,6 +136,10 @@ public class SectionService {
 
         // persist changes
         sectionRepository.save(sectionEntity);
+        cacheInvalidationBus.broadcast(CacheInvalidation.builder()
+                .courseId(sectionEntity.getCourseId())
+                .chapterId(sectionEntity.getChapterId())
+                .build());
 
         return sectionMapper.entityToDto(sectionEntity);
     }
@@ -140,23 +163,41 @@ public class SectionService {
     }
 
     /**
-     * Gets all sections for multiple chapters.
+     * Gets all sections for multiple chapters, taken from the catalogs of their courses.
      *
      * @param chapterIds The ids of the chapters to get the sections for.
      * @return A list of lists of sections. The outer list contains sublists which each contain the sections
-     * for one chapter.
+     * for one chapter, ordered by position.
      */
     public List<List<Section>> getSectionsByChapterIds(List<UUID> chapterIds) {
-        // get a list containing all sections for the given chapters, but not divided by chapter yet
-        List<SectionEntity> entities = sectionRepository.findByChapterIdInOrderByPosition(chapterIds);
-        List<Section> sections = entities.stream().map(sectionMapper::entityToDto).toList();
+        final Map<UUID, CourseCatalog> catalogs = courseCatalogCache.getCatalogsOfChapters(chapterIds);
+
+        return chapterIds.stream()
+                .map(chapterId -> {
+                    final CourseCatalog catalog = catalogs.get(chapterId);
+                    // the course of a chapter without contents and sections is not known
+                    return catalog == null ? List.<Section>of() : catalog.getSectionsOfChapter(chapterId);
+                })
+                .toList();
+    }
+
+    /**
+     * Gets all sections of multiple courses, taken from the catalogs of the courses.
+     *
+     * @param courseIds The ids of the courses to get the sections for.
+     * @return The sections of all given courses.
+     */
+    public List<Section> getSectionsByCourseIds(List<UUID> courseIds) {
+        final Map<UUID, CourseCatalog> catalogs = courseCatalogCache.getCatalogs(courseIds);
 
-        return groupIntoSubLists(sections, chapterIds, Section::getChapterId);
+        return courseIds.stream()
+                .distinct()
+                .flatMap(courseId -> catalogs.get(courseId).getSections().stream())
+                .toList();
     }
 
     public List<Section> getSectionsByCourseId(UUID courseId) {
-        List<SectionEntity> sectionEntities = sectionRepository.findByCourseIdIn(List.of(courseId));
-        return sectionEntities.stream().map(sectionMapper::entityToDto).toList();
+        return courseCatalogCache.getCatalog(courseId).getSections();
     }
 
     /**
@@ -181,6 +222,21 @@ public class SectionService {
         return sectionEntity.map(sectionMapper::entityToDto);
     }
 
+    /**
+     * Gets the sections which contain any of the given contents in one of their stages.
+     *
+     * @param contentIds IDs of the contents
+     * @return the sections containing the contents, each section at most once
+     */
+    public List<Section> getSectionsContainingContents(final Collection<UUID> contentIds) {
+        if (contentIds.isEmpty()) {
+            return List.of();
+        }
+        return sectionRepository.findByContainedContentIds(contentIds).stream()
+                .map(sectionMapper::entityToDto)
+                .toList();
+    }
+
     /**
      * Checks if a Section exists.
      *
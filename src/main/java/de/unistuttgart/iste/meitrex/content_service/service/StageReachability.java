@@ -0,0 +1,113 @@
+package de.unistuttgart.iste.meitrex.content_service.service;
+
+import de.unistuttgart.iste.meitrex.generated.dto.Content;
+import de.unistuttgart.iste.meitrex.generated.dto.Section;
+import de.unistuttgart.iste.meitrex.generated.dto.Stage;
+
+import java.util.*;
+
+/**
+ * The stages of a set of sections which a user can currently work on.
+ * <p>
+ * The first stage of a section can always be worked on. Every other stage can be worked on if the user has learned
+ * all required contents of the previous stage. The progress of the user on the required contents of all stages is
+ * loaded with a single call, and the reachability of all stages is then resolved in one pass over the sections.
+ */
+final class StageReachability {
+
+    private final List<Stage> reachableStages = new ArrayList<>();
+    private final Map<UUID, List<Stage>> reachableStagesByChapterId = new LinkedHashMap<>();
+    private final Set<UUID> reachableStageIds = new HashSet<>();
+    private final List<Stage> stagesUpToFirstIncompleteStage = new ArrayList<>();
+
+    private StageReachability() {
+    }
+
+    /**
+     * Resolves which stages of the given sections the user of the given progress snapshot can work on.
+     *
+     * @param sections the sections, with their stages ordered by position
+     * @param progress the progress of the user
+     */
+    static StageReachability resolve(final Collection<Section> sections, final UserProgressSnapshot progress) {
+        progress.preload(sections.stream()
+                .flatMap(section -> section.getStages().stream())
+                .flatMap(stage -> stage.getRequiredContents().stream())
+                .toList());
+
+        final StageReachability reachability = new StageReachability();
+        for (final Section section : sections) {
+            final List<Stage> reachableStagesOfChapter = reachability.reachableStagesByChapterId
+                    .computeIfAbsent(section.getChapterId(), chapterId -> new ArrayList<>());
+
+            boolean previousStageCompleted = true;
+            boolean allPreviousStagesCompleted = true;
+            for (final Stage stage : section.getStages()) {
+                if (previousStageCompleted) {
+                    reachability.reachableStages.add(stage);
+                    reachability.reachableStageIds.add(stage.getId());
+                    reachableStagesOfChapter.add(stage);
+                }
+                if (allPreviousStagesCompleted) {
+                    reachability.stagesUpToFirstIncompleteStage.add(stage);
+                }
+                previousStageCompleted = isCompleted(stage, progress);
+                allPreviousStagesCompleted &= previousStageCompleted;
+            }
+        }
+        return reachability;
+    }
+
+    /**
+     * @return whether the user can work on the stage with the given ID
+     */
+    boolean isReachable(final UUID stageId) {
+        return reachableStageIds.contains(stageId);
+    }
+
+    /**
+     * @return the stages the user can work on, in the order of their sections and positions
+     */
+    List<Stage> getReachableStages() {
+        return Collections.unmodifiableList(reachableStages);
+    }
+
+    /**
+     * @return the stages of each section up to and including the first stage the user has not completed, in the
+     * order of their sections and positions. Unlike {@link #getReachableStages()}, no stage after an incomplete
+     * stage is included, even if the stage directly before it is completed.
+     */
+    List<Stage> getStagesUpToFirstIncompleteStage() {
+        return Collections.unmodifiableList(stagesUpToFirstIncompleteStage);
+    }
+
+    /**
+     * @return the stages of the given chapter the user can work on, in the order of their sections and positions
+     */
+    List<Stage> getReachableStagesOfChapter(final UUID chapterId) {
+        return reachableStagesByChapterId.getOrDefault(chapterId, List.of());
+    }
+
+    /**
+     * @return the required contents of all stages the user can work on
+     */
+    List<Content> getRequiredContents() {
+        return reachableStages.stream().flatMap(stage -> stage.getRequiredContents().stream()).toList();
+    }
+
+    /**
+     * @return the optional contents of all stages the user can work on
+     */
+    List<Content> getOptionalContents() {
+        return reachableStages.stream().flatMap(stage -> stage.getOptionalContents().stream()).toList();
+    }
+
+    /**
+     * @return whether the given stage is completed by the user. Completion means that all required contents
+     * are learned.
+     */
+    private static boolean isCompleted(final Stage stage, final UserProgressSnapshot progress) {
+        return stage.getRequiredContents().stream()
+                .allMatch(content -> progress.get(content).getIsLearned());
+    }
+}
@@ -3,21 +3,29 @@ package de.unistuttgart.iste.meitrex.content_service.service;
 import de.unistuttgart.iste.meitrex.content_service.persistence.entity.*;
 import de.unistuttgart.iste.meitrex.content_service.persistence.mapper.StageMapper;
 import de.unistuttgart.iste.meitrex.content_service.persistence.repository.*;
+import de.unistuttgart.iste.meitrex.content_service.persistence.repository.StageRepository.ContentStageLink;
 import de.unistuttgart.iste.meitrex.generated.dto.*;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Transactional
 public class StageService {
 
     private final StageRepository stageRepository;
     private final SectionRepository sectionRepository;
     private final ContentRepository contentRepository;
     private final StageMapper stageMapper;
+    private final CompletionCounterService completionCounterService;
+    private final ContentStageIndex contentStageIndex;
+    private final CourseCatalogCache courseCatalogCache;
+    private final CacheInvalidationBus cacheInvalidationBus;
 
     /**
      * creates a new Stage for an existing Section
@@ -40,7 +48,10 @@ public class StageService {
                         input.getOptionalContents()))
                 .build();
 
-        return stageMapper.entityToDto(stageRepository.save(stageEntity));
+        final StageEntity savedStageEntity = stageRepository.save(stageEntity);
+        broadcastStageChange(sectionEntity, getContentIds(stageEntity));
+
+        return stageMapper.entityToDto(savedStageEntity);
     }
 
     /**
@@ -52,6 +63,7 @@ public class StageService {
     public Stage updateStage(final UpdateStageInput input) {
         final StageEntity stageEntity = requireStageExisting(input.getId());
         final SectionEntity sectionEntity = requireSectionExisting(stageEntity.getSectionId());
+        final Set<UUID> previousContentIds = getContentIds(stageEntity);
 
         // set updated Content
         stageEntity.setRequiredContents(
@@ -68,13 +80,21 @@ public class StageService {
                         input.getOptionalContents()
                 ));
 
-        return stageMapper.entityToDto(stageRepository.save(stageEntity));
+        final StageEntity savedStageEntity = stageRepository.save(stageEntity);
+        // the required contents of the stage might have changed, so the completion counters are outdated
+        completionCounterService.invalidateCounters(List.of(stageEntity.getId()));
+        previousContentIds.addAll(getContentIds(stageEntity));
+        broadcastStageChange(sectionEntity, previousContentIds);
+
+        return stageMapper.entityToDto(savedStageEntity);
     }
 
     /**
      * validates that received content is located in the same chapter as the Section / Stage and that it is not already
      * part of a different stage.
      * Otherwise, the content is removed from the result set.
+     * Which of the contents are part of a different stage is determined with a single query over the contents of the
+     * input, so the cost does not depend on the size of the chapter.
      *
      * @param stageId ID of the stage which the content belongs to. If the stage ID is not known yet, a dummy UUID
      *                can be passed instead.
@@ -86,25 +106,24 @@ public class StageService {
                                                              final UUID chapterId,
                                                              final List<UUID> contentIds) {
         final Set<ContentEntity> resultSet = new HashSet<>();
+        if (contentIds.isEmpty()) {
+            return resultSet;
+        }
 
-        final List<ContentEntity> contentEntities = contentRepository.findAllById(contentIds);
-
-        for (final ContentEntity contentEntity : contentEntities) {
-            // only add content that is located in the same chapter as the Work-Path / Stage
-            if (contentEntity.getMetadata().getChapterId().equals(chapterId)) {
-                resultSet.add(contentEntity);
+        // the content is already part of a different stage if it is linked to a stage with an ID that is not the
+        // same as the stage ID we are currently working on
+        final Set<UUID> contentIdsOfOtherStages = new HashSet<>();
+        for (final ContentStageLink link : stageRepository.findStageLinksByContentIds(contentIds)) {
+            if (!link.getStageId().equals(stageId)) {
+                contentIdsOfOtherStages.add(link.getContentId());
             }
         }
 
-        for(SectionEntity section : sectionRepository.findByChapterIdInOrderByPosition(List.of(chapterId))) {
-            for(StageEntity stage : section.getStages()) {
-                // the content is already part of a different stage if we find a stage with an ID that is not the same
-                // as the stage ID we are currently working on and the content is part of the required or
-                // optional contents
-                resultSet.removeIf(c ->
-                        !stage.getId().equals(stageId) &&
-                                (stage.getRequiredContents().contains(c)
-                                || stage.getOptionalContents().contains(c)));
+        for (final ContentEntity contentEntity : contentRepository.findAllById(contentIds)) {
+            // only add content that is located in the same chapter as the Work-Path / Stage
+            if (contentEntity.getMetadata().getChapterId().equals(chapterId)
+                && !contentIdsOfOtherStages.contains(contentEntity.getId())) {
+                resultSet.add(contentEntity);
             }
         }
 
@@ -135,6 +154,8 @@ public class StageService {
         // perform deletion
         stageRepository.delete(deletedStageEntity);
         sectionRepository.save(sectionEntity);
+        completionCounterService.invalidateCounters(List.of(deletedStageEntity.getId()));
+        broadcastStageChange(sectionEntity, getContentIds(deletedStageEntity));
 
         return deletedStageEntity.getId();
     }
@@ -145,56 +166,88 @@ public class StageService {
      * @param contentEntity a content Entity that is up for deletion
      */
     public void deleteContentLinksFromStages(final ContentEntity contentEntity) {
-        final List<StageEntity> stageEntities = stageRepository.findAllByRequiredContentsContainingOrOptionalContentsContaining(contentEntity, contentEntity);
+        final List<StageEntity> stageEntities = contentStageIndex.findStageLink(contentEntity.getId())
+                .map(link -> stageRepository.findAllById(List.of(link.stageId())))
+                .orElse(List.of());
 
         for (final StageEntity stageEntity : stageEntities) {
             stageEntity.getRequiredContents().remove(contentEntity);
             stageEntity.getOptionalContents().remove(contentEntity);
         }
         stageRepository.saveAll(stageEntities);
+        completionCounterService.invalidateCounters(stageEntities.stream().map(StageEntity::getId).toList());
+        cacheInvalidationBus.broadcast(CacheInvalidation.builder()
+                .courseId(contentEntity.getMetadata().getCourseId())
+                .contentId(contentEntity.getId())
+                .build());
     }
 
     /**
-     * Finds the stage the content with the specified ID is part of. Returns empty optional if content is not part
-     * of any stage or content with specified ID does not exist.
-     * @param contentId The ID of the content.
+     * Finds the stage the given content is part of. The stage is taken from the catalog of the course of the content.
+     * @param content The content.
      * @return Returns an Optional containing the Stage the content belongs to, or an empty optional if the content
-     * does not belong to any stage or if no content with the given ID exists.
+     * does not belong to any stage.
      */
-    public Optional<Stage> findStageOfContent(UUID contentId) {
-        Optional<ContentEntity> content = contentRepository.findById(contentId);
-
-        if(content.isEmpty())
-            return Optional.empty();
-
-        List<StageEntity> stages = stageRepository
-                .findAllByRequiredContentsContainingOrOptionalContentsContaining(content.get(), content.get());
-
-        if(stages.isEmpty())
-            return Optional.empty();
-
-        // content can only be part of one stage max
-        if(stages.size() > 1)
-            throw new RuntimeException("Content is part of more than one stage. This should not be possible!");
+    public Optional<Stage> findStageOfContent(Content content) {
+        return courseCatalogCache.getCatalog(content.getMetadata().getCourseId()).findStageOfContent(content.getId());
+    }
 
-        return Optional.of(stageMapper.entityToDto(stages.getFirst()));
+    /**
+     * For the given contents, this method checks with the catalogs of their courses if the contents are required
+     * contents in any stage.
+     * @param contents the contents to check
+     * @return the IDs of the contents that are required contents in any stage
+     */
+    public Set<UUID> filterRequiredContents(Collection<? extends Content> contents) {
+        if (contents.isEmpty()) {
+            return Set.of();
+        }
+        final Map<UUID, CourseCatalog> catalogs = courseCatalogCache.getCatalogs(contents.stream()
+                .map(content -> content.getMetadata().getCourseId())
+                .collect(Collectors.toSet()));
+
+        final Set<UUID> result = new HashSet<>();
+        for (final Content content : contents) {
+            if (catalogs.get(content.getMetadata().getCourseId()).isRequired(content.getId())) {
+                result.add(content.getId());
+            }
+        }
+        return result;
     }
 
     /**
      * For the given list of content IDs, this method checks if the contents are required contents in any stage. If the
-     * content is required, its ID is added to the result list. Otherwise, i.e. if it is an optional content or not
-     * part of any stage, it is not added to the result list.
+     * content is required, its ID is added to the result. Otherwise, i.e. if it is an optional content or not
+     * part of any stage, it is not added to the result.
      * @param contentIds the list of content IDs to check
-     * @return a list of content IDs that are required contents in any stage
+     * @return the content IDs that are required contents in any stage
      */
-    public List<UUID> getRequiredContentsIds(List<UUID> contentIds) {
-        List<StageEntity> stages = stageRepository.findByRequiredContentIds(contentIds);
-
-        return contentIds.stream()
-                .filter(c -> stages.stream()
-                        .anyMatch(stage -> stage.getRequiredContents().stream()
-                                .anyMatch(content -> content.getId().equals(c))))
-                .toList();
+    public Set<UUID> getRequiredContentsIds(List<UUID> contentIds) {
+        if (contentIds.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(stageRepository.findRequiredContentIdsIn(contentIds));
+    }
+
+    /**
+     * Drops the cached data about the given section and contents on all instances of the service after a change of
+     * one of the stages of the section.
+     *
+     * @param contentIds the IDs of the contents which have been added to or removed from the stage
+     */
+    private void broadcastStageChange(final SectionEntity sectionEntity, final Collection<UUID> contentIds) {
+        cacheInvalidationBus.broadcast(CacheInvalidation.builder()
+                .courseId(sectionEntity.getCourseId())
+                .chapterId(sectionEntity.getChapterId())
+                .contentIds(contentIds)
+                .build());
+    }
+
+    private static Set<UUID> getContentIds(final StageEntity stageEntity) {
+        final Set<UUID> contentIds = new HashSet<>();
+        stageEntity.getRequiredContents().forEach(content -> contentIds.add(content.getId()));
+        stageEntity.getOptionalContents().forEach(content -> contentIds.add(content.getId()));
+        return contentIds;
     }
 
     /**
@@ -0,0 +1,83 @@
+package de.unistuttgart.iste.meitrex.content_service.service;
+
+import de.unistuttgart.iste.meitrex.generated.dto.Content;
+import de.unistuttgart.iste.meitrex.generated.dto.UserProgressData;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.*;
+
+/**
+ * A content which may be suggested to a user, together with the keys it is ranked by. The keys are calculated once
+ * when the candidate is created instead of in every comparison.
+ *
+ * @param content       the content
+ * @param progress      the progress of the user on the content
+ * @param daysUntilDue  days until the suggested date of a new content or the next learn date of a learned content,
+ *                      negative if the content is overdue and {@link Long#MAX_VALUE} if there is no such date
+ * @param isNew         whether the user has not learned the content yet
+ * @param rewardPoints  the reward points of the content
+ * @param position      the position of the content in the list of candidates, used to keep the order of candidates
+ *                      which are otherwise equal
+ */
+record SuggestionCandidate(Content content,
+                           UserProgressData progress,
+                           long daysUntilDue,
+                           boolean isNew,
+                           int rewardPoints,
+                           int position) {
+
+    /**
+     * Ranks candidates by days until due, then new contents before repetitions, then by reward points with more
+     * reward points first.
+     */
+    static final Comparator<SuggestionCandidate> RANKING = Comparator
+            .comparingLong(SuggestionCandidate::daysUntilDue)
+            .thenComparing(SuggestionCandidate::isNew, Comparator.reverseOrder())
+            .thenComparing(SuggestionCandidate::rewardPoints, Comparator.reverseOrder())
+            .thenComparingInt(SuggestionCandidate::position);
+
+    static SuggestionCandidate of(final Content content,
+                                  final UserProgressData progress,
+                                  final OffsetDateTime now,
+                                  final int position) {
+        final boolean isNew = !progress.getIsLearned();
+        final OffsetDateTime relevantLearnDate = isNew
+                ? content.getMetadata().getSuggestedDate()
+                : progress.getNextLearnDate();
+        final long daysUntilDue = relevantLearnDate == null
+                ? Long.MAX_VALUE
+                : Duration.between(now, relevantLearnDate).toDays();
+
+        return new SuggestionCandidate(content, progress, daysUntilDue, isNew,
+                content.getMetadata().getRewardPoints(), position);
+    }
+
+    /**
+     * Selects the best {@code k} candidates according to {@link #RANKING} without sorting all candidates, using a
+     * bounded heap which always contains the best candidates seen so far.
+     *
+     * @return the best candidates, best first
+     */
+    static List<SuggestionCandidate> selectBest(final Collection<SuggestionCandidate> candidates, final int k) {
+        if (k <= 0 || candidates.isEmpty()) {
+            return List.of();
+        }
+
+        // the head of the heap is the worst of the best candidates, which is replaced if a better one is found
+        final PriorityQueue<SuggestionCandidate> heap = new PriorityQueue<>(Math.min(k, candidates.size()) + 1,
+                RANKING.reversed());
+        for (final SuggestionCandidate candidate : candidates) {
+            if (heap.size() < k) {
+                heap.add(candidate);
+            } else if (RANKING.compare(candidate, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(candidate);
+            }
+        }
+
+        final List<SuggestionCandidate> best = new ArrayList<>(heap);
+        best.sort(RANKING);
+        return best;
+    }
+}
@@ -0,0 +1,171 @@
+package de.unistuttgart.iste.meitrex.content_service.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import de.unistuttgart.iste.meitrex.generated.dto.Content;
+import de.unistuttgart.iste.meitrex.generated.dto.UserProgressData;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import static de.unistuttgart.iste.meitrex.content_service.service.CacheInvalidationTiming.runNowAndAfterCompletion;
+
+/**
+ * Cache of the contents which are currently available to a user in a chapter, together with the progress of the
+ * user on them. This is everything needed to create suggestions, so a suggestion query for cached chapters does not
+ * need to access the database.
+ * <p>
+ * Entries expire after a fixed time, because whether a content is due for review depends on the current time.
+ * Entries have to be invalidated whenever the progress of the user in the chapter, the stages of the chapter or
+ * the contents of the chapter change. Only the affected entries are removed, they are rebuilt on next access.
+ * Indexes built while an invalidation happened are not cached, because they might have been built from the old
+ * state.
+ * <p>
+ * Hits and misses are recorded as the {@code cache.gets} metric with the cache name {@value #CACHE_NAME}.
+ */
+@Component
+public class SuggestionIndexCache {
+
+    static final String CACHE_NAME = "suggestion_index";
+
+    private final Cache<Key, ChapterSuggestionIndex> cache;
+    /**
+     * The keys of the cached indexes of every chapter, so that the indexes of a chapter can be removed without
+     * scanning the whole cache. The set of a chapter is only changed within {@link Map#compute}, keys of evicted
+     * indexes are removed by the eviction listener.
+     */
+    private final Map<UUID, Set<Key>> keysByChapterId = new ConcurrentHashMap<>();
+    /**
+     * Incremented on every invalidation, guarded by the lock of this cache.
+     */
+    private long invalidationCount;
+
+    public SuggestionIndexCache(final MeterRegistry meterRegistry,
+                                @Value("${content-service.suggestion-cache.ttl:5m}") final Duration ttl,
+                                @Value("${content-service.suggestion-cache.max-size:10000}") final long maxSize) {
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .evictionListener((final Key key, final ChapterSuggestionIndex index, final RemovalCause cause) ->
+                        removeFromChapterKeys(key))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Returns the suggestion indexes of the given user for the given chapters. The indexes of all chapters which
+     * are not cached are built together with a single call of the given loader.
+     *
+     * @param userId     the ID of the user
+     * @param chapterIds the IDs of the chapters
+     * @param loader     builds the indexes of the given chapters, must return an index for every chapter
+     * @return the indexes of the chapters, in the order of the given chapter IDs
+     */
+    public List<ChapterSuggestionIndex> getIndexes(final UUID userId,
+                                                   final List<UUID> chapterIds,
+                                                   final Function<List<UUID>, Map<UUID, ChapterSuggestionIndex>> loader) {
+        final List<Key> keys = chapterIds.stream().map(chapterId -> new Key(userId, chapterId)).toList();
+        final long invalidationCountBeforeLoading;
+        synchronized (this) {
+            invalidationCountBeforeLoading = invalidationCount;
+        }
+
+        final Map<Key, ChapterSuggestionIndex> indexes = new HashMap<>(cache.getAllPresent(keys));
+        final List<UUID> missingChapterIds = keys.stream()
+                .filter(key -> !indexes.containsKey(key))
+                .map(Key::chapterId)
+                .distinct()
+                .toList();
+        if (missingChapterIds.isEmpty()) {
+            return keys.stream().map(indexes::get).toList();
+        }
+
+        // build outside of the lock, so that other threads are not blocked by the queries of the loader
+        final Map<Key, ChapterSuggestionIndex> loaded = HashMap.newHashMap(missingChapterIds.size());
+        loader.apply(missingChapterIds).forEach((chapterId, index) -> loaded.put(new Key(userId, chapterId), index));
+
+        synchronized (this) {
+            // indexes of chapters which changed while they were built might have been built from the old state
+            if (invalidationCount == invalidationCountBeforeLoading) {
+                // the keys are registered first, so that the eviction listener can remove them again
+                loaded.keySet().forEach(this::addToChapterKeys);
+                cache.putAll(loaded);
+            }
+        }
+        indexes.putAll(loaded);
+        return keys.stream().map(indexes::get).toList();
+    }
+
+    /**
+     * Removes the index of the given user for the given chapter, e.g. after the progress of the user changed.
+     */
+    public void invalidate(final UUID userId, final UUID chapterId) {
+        final Key key = new Key(userId, chapterId);
+        runNowAndAfterCompletion(() -> removeFromCache(() -> {
+            removeFromChapterKeys(key);
+            cache.invalidate(key);
+        }));
+    }
+
+    /**
+     * Removes the indexes of all users for the given chapters, e.g. after stages or contents of the chapters changed.
+     */
+    public void invalidateChapters(final Collection<UUID> chapterIds) {
+        if (chapterIds.isEmpty()) {
+            return;
+        }
+        final Set<UUID> chapterIdSet = Set.copyOf(chapterIds);
+        runNowAndAfterCompletion(() -> removeFromCache(() -> {
+            for (final UUID chapterId : chapterIdSet) {
+                final Set<Key> keys = keysByChapterId.remove(chapterId);
+                if (keys != null) {
+                    cache.invalidateAll(keys);
+                }
+            }
+        }));
+    }
+
+    private synchronized void removeFromCache(final Runnable removal) {
+        removal.run();
+        invalidationCount++;
+    }
+
+    private void addToChapterKeys(final Key key) {
+        keysByChapterId.compute(key.chapterId(), (chapterId, keys) -> {
+            final Set<Key> result = keys == null ? new HashSet<>() : keys;
+            result.add(key);
+            return result;
+        });
+    }
+
+    private void removeFromChapterKeys(final Key key) {
+        keysByChapterId.computeIfPresent(key.chapterId(), (chapterId, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    private record Key(UUID userId, UUID chapterId) {
+    }
+
+    /**
+     * The contents of a chapter which are currently available to a user, i.e. the contents of all stages the user
+     * has reached, and the progress of the user on them.
+     *
+     * @param requiredContents    the available required contents, in the order of their sections and stages
+     * @param optionalContents    the available optional contents, in the order of their sections and stages
+     * @param progressByContentId the progress of the user on all available contents
+     */
+    public record ChapterSuggestionIndex(List<Content> requiredContents,
+                                         List<Content> optionalContents,
+                                         Map<UUID, UserProgressData> progressByContentId) {
+    }
+}
@@ -1,21 +1,15 @@
 package de.unistuttgart.iste.meitrex.content_service.service;
 
+import de.unistuttgart.iste.meitrex.content_service.service.SuggestionIndexCache.ChapterSuggestionIndex;
 import de.unistuttgart.iste.meitrex.generated.dto.*;
 import lombok.RequiredArgsConstructor;
-import org.apache.commons.lang3.tuple.Pair;
-import org.jetbrains.annotations.NotNull;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.util.*;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import static java.time.OffsetDateTime.now;
-import static java.util.Comparator.comparing;
-import static java.util.Comparator.reverseOrder;
 import static org.apache.commons.lang3.ObjectUtils.isEmpty;
 
 /**
@@ -27,8 +21,7 @@ public class SuggestionService {
 
     private final SectionService sectionService;
     private final UserProgressDataService userProgressDataService;
-
-    private final Map<Pair<UUID, UUID>, UserProgressData> userProgressDataCache = new HashMap<>();
+    private final SuggestionIndexCache suggestionIndexCache;
 
     /**
      * Creates {@link Suggestion}s for the given chapter IDs and user ID. The suggestions are created based on the
@@ -59,16 +52,98 @@ public class SuggestionService {
                                               final UUID userId,
                                               final int amount,
                                               final List<SkillType> skillTypes) {
-        userProgressDataCache.clear();
+        final UserProgressSnapshot progress = new UserProgressSnapshot(userId, userProgressDataService);
+        progress.preload(Stream.concat(requiredContents.stream(), optionalContents.stream()).toList());
+
+        return createSuggestions(requiredContents, optionalContents, progress, amount, skillTypes);
+    }
 
-        return Stream.concat(
-                        filterAndSort(requiredContents.stream(), userId, skillTypes),
-                        filterAndSort(optionalContents.stream(), userId, skillTypes))
-                .limit(amount)
-                .map(content -> createSuggestion(content, getUserProgressData(userId, content.getId())))
+    /**
+     * Creates {@link Suggestion}s from the given suggestion indexes, as described in
+     * {@link SuggestionService#createSuggestions(List, List, UUID, int, List)}. The progress of the user is taken from
+     * the indexes, so no progress data needs to be loaded.
+     *
+     * @param indexes    the suggestion indexes of the chapters to create suggestions for, see
+     *                   {@link #getSuggestionIndexesOfChaptersForUser(List, UUID)}
+     * @param userId     the ID of the user for which suggestions should be created.
+     * @param amount     the amount of suggestions to create.
+     * @param skillTypes the skill types of the suggestions to create, see
+     *                   {@link SuggestionService#createSuggestions(List, List, UUID, int, List)}
+     * @return the created suggestions.
+     */
+    public List<Suggestion> createSuggestions(final List<ChapterSuggestionIndex> indexes,
+                                              final UUID userId,
+                                              final int amount,
+                                              final List<SkillType> skillTypes) {
+        final UserProgressSnapshot progress = new UserProgressSnapshot(userId, userProgressDataService);
+        indexes.forEach(index -> progress.putAll(index.progressByContentId()));
+
+        return createSuggestions(
+                indexes.stream().flatMap(index -> index.requiredContents().stream()).toList(),
+                indexes.stream().flatMap(index -> index.optionalContents().stream()).toList(),
+                progress,
+                amount,
+                skillTypes);
+    }
+
+    private static List<Suggestion> createSuggestions(final List<Content> requiredContents,
+                                                      final List<Content> optionalContents,
+                                                      final UserProgressSnapshot progress,
+                                                      final int amount,
+                                                      final List<SkillType> skillTypes) {
+        // use the same point in time for all contents, so that their ranking is consistent
+        final OffsetDateTime now = OffsetDateTime.now();
+
+        final List<SuggestionCandidate> requiredCandidates =
+                filterAndSort(requiredContents, progress, skillTypes, now, amount);
+        final List<SuggestionCandidate> optionalCandidates =
+                filterAndSort(optionalContents, progress, skillTypes, now, amount - requiredCandidates.size());
+
+        return Stream.concat(requiredCandidates.stream(), optionalCandidates.stream())
+                .map(SuggestionService::createSuggestion)
                 .toList();
     }
 
+    /**
+     * Returns the contents which are currently available to the given user in the given chapters together with the
+     * progress of the user on them. The indexes are cached, see {@link SuggestionIndexCache}.
+     *
+     * @param chapterIds the chapters to get the suggestion indexes for
+     * @param userId     the user to get the suggestion indexes for
+     * @return the suggestion indexes, in the order of the given chapter IDs
+     */
+    public List<ChapterSuggestionIndex> getSuggestionIndexesOfChaptersForUser(final List<UUID> chapterIds,
+                                                                             final UUID userId) {
+        return suggestionIndexCache.getIndexes(userId, chapterIds,
+                missingChapterIds -> buildSuggestionIndexes(missingChapterIds, userId));
+    }
+
+    private Map<UUID, ChapterSuggestionIndex> buildSuggestionIndexes(final List<UUID> chapterIds, final UUID userId) {
+        final UserProgressSnapshot progress = new UserProgressSnapshot(userId, userProgressDataService);
+        final StageReachability reachability = getStageReachabilityOfChapters(chapterIds, progress);
+
+        // the optional contents of the reachable stages are the only contents whose progress is still missing
+        progress.preload(reachability.getOptionalContents());
+
+        final Map<UUID, ChapterSuggestionIndex> indexes = HashMap.newHashMap(chapterIds.size());
+        for (final UUID chapterId : chapterIds) {
+            final List<Stage> availableStages = reachability.getReachableStagesOfChapter(chapterId);
+            final List<Content> requiredContents = availableStages.stream()
+                    .flatMap(stage -> stage.getRequiredContents().stream())
+                    .toList();
+            final List<Content> optionalContents = availableStages.stream()
+                    .flatMap(stage -> stage.getOptionalContents().stream())
+                    .toList();
+
+            final Map<UUID, UserProgressData> progressByContentId = new HashMap<>();
+            Stream.concat(requiredContents.stream(), optionalContents.stream())
+                    .forEach(content -> progressByContentId.put(content.getId(), progress.get(content)));
+
+            indexes.put(chapterId, new ChapterSuggestionIndex(requiredContents, optionalContents, progressByContentId));
+        }
+        return indexes;
+    }
+
     /**
      * Method which for a given user fetches the required contents which are currently available to the user to work
      * on in the given chapters.
@@ -79,13 +154,9 @@ public class SuggestionService {
      */
     public List<Content> getAvailableRequiredContentsOfChaptersForUser(final List<UUID> chapterIds,
                                                                        final UUID userId) {
-        final List<Stage> availableStages = sectionService.getSectionsByChapterIds(chapterIds)
-                .stream()
-                .flatMap(Collection::stream)
-                .flatMap(section -> getAvailableStagesOfSection(section, userId).stream())
-                .toList();
+        final UserProgressSnapshot progress = new UserProgressSnapshot(userId, userProgressDataService);
 
-        return availableStages.stream().flatMap(stage -> stage.getRequiredContents().stream()).toList();
+        return getStageReachabilityOfChapters(chapterIds, progress).getRequiredContents();
     }
 
     /**
@@ -97,111 +168,56 @@ public class SuggestionService {
      */
     public List<Content> getAvailableOptionalContentsOfChaptersForUser(final List<UUID> chapterIds,
                                                                        final UUID userId) {
-        final List<Stage> availableStages = sectionService.getSectionsByChapterIds(chapterIds)
-                .stream()
-                .flatMap(Collection::stream)
-                .flatMap(section -> getAvailableStagesOfSection(section, userId).stream())
-                .toList();
+        final UserProgressSnapshot progress = new UserProgressSnapshot(userId, userProgressDataService);
 
-        return availableStages.stream().flatMap(stage -> stage.getOptionalContents().stream()).toList();
+        return getStageReachabilityOfChapters(chapterIds, progress).getOptionalContents();
     }
 
-    /**
-     * Filters the given contents by the given skill types and sorts them according to the prioritization described
-     * in {@link SuggestionService#createSuggestions(List, List, UUID, int, List)}
-     */
-    private Stream<Content> filterAndSort(final Stream<Content> contents, final UUID userId, final List<SkillType> skillTypes) {
-        return contents
-                .filter(content -> isNewOrDueForReview(content, userId))
-                .filter(content -> hasCorrectSkillType(content, skillTypes))
-                // sort by due date for new contents and next learn date for repetitions
-                .sorted(byNextLearnDateOrRepetitionDate(userId)
-                        // then sort if content is new or a repetition, with new contents first
-                        .thenComparing(newContentFirst(userId))
-                        // then sort by reward points, with more reward points first
-                        .thenComparing(byRewardPoints(), reverseOrder()));
-    }
-
-    @NotNull
-    private static Function<Content, Integer> byRewardPoints() {
-        return content -> content.getMetadata().getRewardPoints();
-    }
-
-    @NotNull
-    private Function<Content, Boolean> newContentFirst(final UUID userId) {
-        return content -> getUserProgressData(userId, content.getId()).getIsLearned();
-    }
+    private StageReachability getStageReachabilityOfChapters(final List<UUID> chapterIds,
+                                                             final UserProgressSnapshot progress) {
+        final List<Section> sections = sectionService.getSectionsByChapterIds(chapterIds)
+                .stream()
+                .flatMap(Collection::stream)
+                .toList();
 
-    private Comparator<Content> byNextLearnDateOrRepetitionDate(final UUID userId) {
-        return comparing((Content content) -> Duration.between(now(), getRelevantLearnDate(content, userId)).toDays());
+        return StageReachability.resolve(sections, progress);
     }
 
     /**
-     * @return the date when the user should learn the given content next, which is either the suggested date or the
-     * next learn date, depending on whether the user has already learned the content.
+     * Filters the given contents by the given skill types and selects the first {@code amount} of them according to
+     * the prioritization described in {@link SuggestionService#createSuggestions(List, List, UUID, int, List)}.
+     * The contents are not sorted completely, as only the first few of them are needed.
      */
-    private OffsetDateTime getRelevantLearnDate(final Content content, final UUID userId) {
-        final UserProgressData userProgressData = getUserProgressData(userId, content.getId());
-
-        if (userProgressData.getIsLearned()) {
-            return userProgressData.getNextLearnDate();
-        }
-
-        return content.getMetadata().getSuggestedDate();
-    }
-
-    private boolean isNewOrDueForReview(final Content content, final UUID userId) {
-        final UserProgressData userProgressData = getUserProgressData(userId, content.getId());
-        return !userProgressData.getIsLearned() || userProgressData.getIsDueForReview();
-    }
-
-    private Suggestion createSuggestion(final Content content, final UserProgressData userProgressData) {
-        final SuggestionType type = userProgressData.getIsLearned()
-                ? SuggestionType.REPETITION
-                : SuggestionType.NEW_CONTENT;
-
-        return new Suggestion(content, type);
-    }
-
-    private List<Stage> getAvailableStagesOfSection(final Section section, final UUID userId) {
-        if (section.getStages().isEmpty()) {
+    private static List<SuggestionCandidate> filterAndSort(final List<Content> contents,
+                                                           final UserProgressSnapshot progress,
+                                                           final List<SkillType> skillTypes,
+                                                           final OffsetDateTime now,
+                                                           final int amount) {
+        if (amount <= 0) {
             return List.of();
         }
 
-        final List<Stage> reachableStages = new ArrayList<>(section.getStages().size());
-        reachableStages.add(section.getStages().get(0));
-
-        for (int i = 0; i < section.getStages().size() - 1; i++) {
-            if (isCompleted(section.getStages().get(i), userId)) {
-                // current stage is completed, so the next stage is reachable
-                reachableStages.add(section.getStages().get(i + 1));
+        final List<SuggestionCandidate> candidates = new ArrayList<>(contents.size());
+        for (final Content content : contents) {
+            if (isNewOrDueForReview(content, progress) && hasCorrectSkillType(content, skillTypes)) {
+                candidates.add(SuggestionCandidate.of(content, progress.get(content), now, candidates.size()));
             }
         }
 
-        return reachableStages;
+        return SuggestionCandidate.selectBest(candidates, amount);
     }
 
-    /**
-     * @return the user progress data for the given user and content. The result is cached.
-     */
-    private UserProgressData getUserProgressData(final UUID userId, final UUID contentId) {
-        final Pair<UUID, UUID> key = Pair.of(userId, contentId);
-        if (userProgressDataCache.containsKey(key)) {
-            return userProgressDataCache.get(key);
-        }
-
-        final UserProgressData userProgressData = userProgressDataService.getUserProgressData(userId, contentId);
-        userProgressDataCache.put(key, userProgressData);
-        return userProgressData;
+    private static boolean isNewOrDueForReview(final Content content, final UserProgressSnapshot progress) {
+        final UserProgressData userProgressData = progress.get(content);
+        return !userProgressData.getIsLearned() || userProgressData.getIsDueForReview();
     }
 
-    /**
-     * @return whether the given stage is completed by the given user. Completion means that all required contents
-     * are learned.
-     */
-    private boolean isCompleted(final Stage stage, final UUID userId) {
-        return stage.getRequiredContents().stream()
-                .allMatch(contentEntity -> getUserProgressData(userId, contentEntity.getId()).getIsLearned());
+    private static Suggestion createSuggestion(final SuggestionCandidate candidate) {
+        final SuggestionType type = candidate.isNew()
+                ? SuggestionType.NEW_CONTENT
+                : SuggestionType.REPETITION;
+
+        return new Suggestion(candidate.content(), type);
     }
 
     /**
@@ -209,7 +225,7 @@ public class SuggestionService {
      * method always returns true. Otherwise, this method returns true if the content is an assessment and its skill
      * type is contained in the list of skill types.
      */
-    private boolean hasCorrectSkillType(final Content content, final List<SkillType> skillTypes) {
+    private static boolean hasCorrectSkillType(final Content content, final List<SkillType> skillTypes) {
         if (isEmpty(skillTypes)) {
             return true;
         }
@@ -0,0 +1,12 @@
+package de.unistuttgart.iste.meitrex.content_service.service;
+
+import java.util.UUID;
+
+/**
+ * Identifies a content in the context of a user, e.g. to load the progress of many users on many contents at once.
+ *
+ * @param userId    the ID of the user
+ * @param contentId the ID of the content
+ */
+public record UserContentKey(UUID userId, UUID contentId) {
+}
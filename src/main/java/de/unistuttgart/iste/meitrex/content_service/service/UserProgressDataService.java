@@ -1,20 +1,24 @@
 package de.unistuttgart.iste.meitrex.content_service.service;
 
-import de.unistuttgart.iste.meitrex.common.dapr.TopicPublisher;
 import de.unistuttgart.iste.meitrex.common.event.*;
 import de.unistuttgart.iste.meitrex.content_service.persistence.entity.*;
-import de.unistuttgart.iste.meitrex.content_service.persistence.mapper.ContentMapper;
-import de.unistuttgart.iste.meitrex.content_service.persistence.mapper.StageMapper;
 import de.unistuttgart.iste.meitrex.content_service.persistence.mapper.UserProgressDataMapper;
 import de.unistuttgart.iste.meitrex.content_service.persistence.repository.*;
-import de.unistuttgart.iste.meitrex.content_service.utility.value_changed_detector.ObjectValueChangedDetector;
+import de.unistuttgart.iste.meitrex.content_service.persistence.repository.UserProgressDataRepository.ChapterProgressCount;
 import de.unistuttgart.iste.meitrex.generated.dto.*;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 
 import java.time.OffsetDateTime;
 import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static de.unistuttgart.iste.meitrex.common.util.MeitrexCollectionUtils.countAsInt;
 
@@ -23,21 +27,24 @@ import static de.unistuttgart.iste.meitrex.common.util.MeitrexCollectionUtils.co
 @Slf4j
 public class UserProgressDataService {
 
+    private static final int MAX_PROGRESS_LOG_PAGE_SIZE = 100;
+    /**
+     * Same as the default value of the first argument of UserProgressData.log in the schema.
+     */
+    private static final int DEFAULT_PROGRESS_LOG_PAGE_SIZE = 20;
+
     private final UserProgressDataRepository userProgressDataRepository;
     private final ContentService contentService;
     private final SectionService sectionService;
     private final StageService stageService;
     private final UserProgressDataMapper userProgressDataMapper;
 
-    private final ItemRepository itemRepository;
-    private final TopicPublisher topicPublisher;
-    private final SectionRepository sectionRepository;
+    private final ItemAssociationCache itemAssociationCache;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final EventOutbox eventOutbox;
     private final StageRepository stageRepository;
-    private final MessageSequenceNoEntityRepository messageSequenceNoEntityRepository;
-
-
-    private final StageMapper stageMapper;
-    private final ContentMapper contentMapper;
+    private final MessageSequenceNoAllocator messageSequenceNoAllocator;
+    private final CompletionCounterService completionCounterService;
 
     /**
      * Returns the user progress data for the given user and content.
@@ -49,6 +56,54 @@ public class UserProgressDataService {
         return userProgressDataMapper.entityToDto(dbProgressData);
     }
 
+    /**
+     * Returns the user progress data for each of the given combinations of user and content. Like in
+     * {@link #getUserProgressData(UUID, UUID)}, progress data which does not exist yet is created, but the
+     * progress data of each user is loaded and created with a constant number of queries.
+     *
+     * @param keys the combinations of user and content
+     * @return the progress data by user and content. Contents which do not exist are not part of the result.
+     */
+    @Transactional
+    public Map<UserContentKey, UserProgressData> getUserProgressData(final Collection<UserContentKey> keys) {
+        final Map<UserContentKey, UserProgressDataEntity> entities = getOrCreateUserProgressDataEntities(keys);
+
+        final Map<UserContentKey, UserProgressData> result = HashMap.newHashMap(entities.size());
+        entities.forEach((key, entity) -> result.put(key, userProgressDataMapper.entityToDto(entity)));
+        return result;
+    }
+
+    /**
+     * Loads the progress data entities for the given combinations of user and content and creates the ones which
+     * do not exist yet, with a constant number of queries per user.
+     *
+     * @return the progress data by user and content. Contents which do not exist are not part of the result.
+     */
+    private Map<UserContentKey, UserProgressDataEntity> getOrCreateUserProgressDataEntities(
+            final Collection<UserContentKey> keys) {
+        final Map<UserContentKey, UserProgressDataEntity> result = HashMap.newHashMap(keys.size());
+
+        groupContentIdsByUser(keys).forEach((userId, contentIds) -> {
+            final List<UserProgressDataEntity> entities =
+                    new ArrayList<>(userProgressDataRepository.findByUserIdAndContentIdIn(userId, contentIds));
+
+            final Set<UUID> missingContentIds = new HashSet<>(contentIds);
+            entities.forEach(entity -> missingContentIds.remove(entity.getContentId()));
+            if (!missingContentIds.isEmpty()) {
+                log.info("Creating initial user progress data for user {} and {} contents",
+                        userId, missingContentIds.size());
+                userProgressDataRepository.insertInitialUserProgressData(userId, missingContentIds);
+                entities.addAll(userProgressDataRepository.findByUserIdAndContentIdIn(userId, missingContentIds));
+            }
+
+            for (final UserProgressDataEntity entity : entities) {
+                result.put(new UserContentKey(userId, entity.getContentId()), entity);
+            }
+        });
+
+        return result;
+    }
+
     /**
      * Retrieves a User Progress Object for a user, content combination from the database
      *
@@ -64,39 +119,149 @@ public class UserProgressDataService {
 
     /**
      * Creates a User Progress Entity in the Database with no initial Progress tracked.
-     * This method is synchronized to prevent multiple threads from creating the same entity,
-     * which causes a unique constraint violation.
+     * If the entity is created concurrently by another thread or another instance of this service,
+     * the existing entity is returned instead, so no locking is required.
      *
      * @param userId    ID of user
      * @param contentId ID of Content
      * @return a newly initialized User Progress Entity
+     * @throws EntityNotFoundException if the content does not exist
      */
-    public synchronized UserProgressDataEntity createInitialUserProgressData(final UUID userId, final UUID contentId) {
+    public UserProgressDataEntity createInitialUserProgressData(final UUID userId, final UUID contentId) {
         log.info("Creating initial user progress data for user {} and content {}", userId, contentId);
-        final ContentEntity contentEntity = contentService.requireContentExisting(contentId);
+        userProgressDataRepository.insertInitialUserProgressData(userId, List.of(contentId));
 
-        final Integer learningInterval = contentEntity instanceof final AssessmentEntity assessmentEntity
-                ? assessmentEntity.getAssessmentMetadata().getInitialLearningInterval()
-                : null;
+        // the progress data exists now, no matter if it was inserted by us or concurrently by someone else,
+        // unless the content does not exist
+        return userProgressDataRepository.findByUserIdAndContentId(userId, contentId)
+                .orElseThrow(() -> new EntityNotFoundException("Content with id " + contentId + " not found"));
+    }
+
+    /**
+     * Returns the user progress data of the given user for each of the given contents, loaded with a constant number
+     * of queries. Contents for which no progress data exists yet get initial progress data, which is only
+     * created in memory and not written to the database, so this method can be used by read-only code paths.
+     *
+     * @param userId   ID of the user
+     * @param contents the contents to get the progress data for
+     * @return the progress data of the user, keyed by the ID of the content
+     */
+    @Transactional
+    public Map<UUID, UserProgressData> getUserProgressDataOfContents(final UUID userId,
+                                                                     final Collection<? extends Content> contents) {
+        return mapToDtos(loadUserProgressDataEntities(userId, contents));
+    }
+
+    /**
+     * Loads the progress data entities of the user for the given contents with one query, the progress logs are
+     * fetched with a second query. Missing progress data is only initialized in memory.
+     */
+    private List<UserProgressDataEntity> loadUserProgressDataEntities(final UUID userId,
+                                                                      final Collection<? extends Content> contents) {
+        if (contents.isEmpty()) {
+            return List.of();
+        }
+
+        final Map<UUID, Content> contentsById = HashMap.newHashMap(contents.size());
+        for (final Content content : contents) {
+            contentsById.putIfAbsent(content.getId(), content);
+        }
+
+        final List<UserProgressDataEntity> result =
+                new ArrayList<>(userProgressDataRepository.findByUserIdAndContentIdIn(userId, contentsById.keySet()));
+
+        final Set<UUID> missingContentIds = new HashSet<>(contentsById.keySet());
+        for (final UserProgressDataEntity userProgressDataEntity : result) {
+            missingContentIds.remove(userProgressDataEntity.getContentId());
+        }
+
+        for (final UUID contentId : missingContentIds) {
+            final Integer learningInterval = getInitialLearningInterval(contentsById.get(contentId));
+            result.add(buildInitialUserProgressData(userId, contentId, learningInterval));
+        }
+
+        return result;
+    }
 
-        final UserProgressDataEntity userProgressDataEntity = UserProgressDataEntity.builder()
+    private Map<UUID, UserProgressData> mapToDtos(final List<UserProgressDataEntity> userProgressDataEntities) {
+        final Map<UUID, UserProgressData> result = HashMap.newHashMap(userProgressDataEntities.size());
+        for (final UserProgressDataEntity userProgressDataEntity : userProgressDataEntities) {
+            result.put(userProgressDataEntity.getContentId(), userProgressDataMapper.entityToDto(userProgressDataEntity));
+        }
+        return result;
+    }
+
+    private static UserProgressDataEntity buildInitialUserProgressData(final UUID userId,
+                                                                       final UUID contentId,
+                                                                       final Integer learningInterval) {
+        return UserProgressDataEntity.builder()
                 .userId(userId)
                 .contentId(contentId)
                 .progressLog(new ArrayList<>(0))
                 .learningInterval(learningInterval)
+                .learned(false)
+                .attemptCount(0)
                 .build();
+    }
+
+    private static Integer getInitialLearningInterval(final Content content) {
+        return content instanceof final Assessment assessment && assessment.getAssessmentMetadata() != null
+                ? assessment.getAssessmentMetadata().getInitialLearningInterval()
+                : null;
+    }
+
+    /**
+     * Returns a page of the progress log of the given user and content, newest entries first.
+     *
+     * @param userId    ID of the user
+     * @param contentId ID of the content
+     * @param first     the maximum number of entries to return, capped at {@value #MAX_PROGRESS_LOG_PAGE_SIZE}.
+     *                  If null, {@value #DEFAULT_PROGRESS_LOG_PAGE_SIZE} entries are returned.
+     * @param after     if not null, only the entries after the entry with this cursor are returned. Pass the cursor
+     *                  of the last entry of the previous page to get the next page.
+     * @return the entries of the progress log, sorted by timestamp in descending order
+     * @throws IllegalArgumentException if first is negative or after is not a valid cursor
+     */
+    public List<ProgressLogItem> getProgressLog(final UUID userId,
+                                                final UUID contentId,
+                                                @Nullable final Integer first,
+                                                @Nullable final String after) {
+        final int pageSize = first == null ? DEFAULT_PROGRESS_LOG_PAGE_SIZE : first;
+        if (pageSize < 0) {
+            throw new IllegalArgumentException("The number of progress log entries must not be negative");
+        }
+        if (pageSize == 0) {
+            return List.of();
+        }
+
+        final Limit limit = Limit.of(Math.min(pageSize, MAX_PROGRESS_LOG_PAGE_SIZE));
+        final List<ProgressLogItemEmbeddable> progressLog = after == null
+                ? userProgressDataRepository.findProgressLog(userId, contentId, limit)
+                : userProgressDataRepository.findProgressLogAfter(userId, contentId, parseCursor(after), limit);
+
+        return progressLog.stream().map(userProgressDataMapper::logItemToDto).toList();
+    }
 
-        return userProgressDataRepository.save(userProgressDataEntity);
+    /**
+     * The cursor of a progress log entry is its entry number, see {@link ProgressLogItemEmbeddable#getEntryNo()}.
+     */
+    private static long parseCursor(final String cursor) {
+        try {
+            return Long.parseLong(cursor);
+        } catch (final NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid progress log cursor: " + cursor, e);
+        }
     }
 
     /**
      * Logs user progress according to the given event.
      * The learning interval of the user progress data entity will be updated.
      * A new progress log item will be added to the progress log.
-     * The event will be forwarded to the topic "user-progress-updated".
+     * The event will be forwarded to the topic "user-progress-updated" through the {@link EventOutbox}.
      *
      * @param contentProgressedEvent the event to log
      */
+    @Transactional
     public void logUserProgress(final ContentProgressedEvent contentProgressedEvent) {
         final Content content = contentService
                 .getContentsById(List.of(contentProgressedEvent.getContentId())).getFirst();
@@ -104,18 +269,54 @@ public class UserProgressDataService {
         final UserProgressDataEntity userProgressDataEntity = getUserProgressDataEntity(
                 contentProgressedEvent.getUserId(), contentProgressedEvent.getContentId());
 
-        final Optional<Stage> stage = stageService.findStageOfContent(userProgressDataEntity.getContentId());
+        logUserProgress(contentProgressedEvent, content, userProgressDataEntity);
+    }
 
-        final StageCompletedValueChangedDetector stageCompletedDetector = new StageCompletedValueChangedDetector();
-        final ChapterCompletedValueChangedDetector chapterCompletedDetector = new ChapterCompletedValueChangedDetector();
-        final CourseCompletedValueChangedDetector courseCompletedDetector = new CourseCompletedValueChangedDetector();
+    /**
+     * Logs user progress according to each of the given events, like {@link #logUserProgress(ContentProgressedEvent)},
+     * but in a single transaction. The contents and the progress data of all events are loaded at once.
+     * Events of the same user and content are applied in the order of the list.
+     *
+     * @param contentProgressedEvents the events to log
+     * @throws EntityNotFoundException if the content of any of the events does not exist. In this case, none of
+     *                                 the events is logged.
+     */
+    @Transactional
+    public void logUserProgress(final List<ContentProgressedEvent> contentProgressedEvents) {
+        final List<UUID> contentIds = contentProgressedEvents.stream()
+                .map(ContentProgressedEvent::getContentId)
+                .distinct()
+                .toList();
+        final Map<UUID, Content> contentsById = HashMap.newHashMap(contentIds.size());
+        for (final Content content : contentService.findContentsById(contentIds)) {
+            if (content != null) {
+                contentsById.put(content.getId(), content);
+            }
+        }
+
+        final Map<UserContentKey, UserProgressDataEntity> userProgressDataEntities =
+                getOrCreateUserProgressDataEntities(contentProgressedEvents.stream()
+                        .map(event -> new UserContentKey(event.getUserId(), event.getContentId()))
+                        .toList());
 
-        stageCompletedDetector.measureValue(new StageCompletedValueChangedDetector.InputParameters(
-                stage, userProgressDataEntity));
-        chapterCompletedDetector.measureValue(new ChapterCompletedValueChangedDetector.InputParameters(
-                content.getMetadata().getChapterId(), userProgressDataEntity));
-        courseCompletedDetector.measureValue(new CourseCompletedValueChangedDetector.InputParameters(
-                content.getMetadata().getCourseId(), userProgressDataEntity));
+        for (final ContentProgressedEvent contentProgressedEvent : contentProgressedEvents) {
+            final Content content = contentsById.get(contentProgressedEvent.getContentId());
+            if (content == null) {
+                throw new EntityNotFoundException("Content with id " + contentProgressedEvent.getContentId() + " not found");
+            }
+            logUserProgress(contentProgressedEvent, content, userProgressDataEntities.get(
+                    new UserContentKey(contentProgressedEvent.getUserId(), contentProgressedEvent.getContentId())));
+        }
+    }
+
+    private void logUserProgress(final ContentProgressedEvent contentProgressedEvent,
+                                 final Content content,
+                                 final UserProgressDataEntity userProgressDataEntity) {
+        if (userProgressDataEntity.getAttemptCount() == null) {
+            calculateLearningStateFromProgressLog(userProgressDataEntity);
+        }
+
+        final boolean wasLearned = userProgressDataEntity.isLearned();
 
         userProgressDataEntity.setLearningInterval(
                 calculateNewLearningInterval(contentProgressedEvent, userProgressDataEntity));
@@ -123,10 +324,16 @@ public class UserProgressDataService {
         final var logItem = userProgressDataMapper.eventToEmbeddable(contentProgressedEvent);
         logItem.setTimestamp(OffsetDateTime.now());
 
-        final List<ProgressLogItemEmbeddable> progressLogList = userProgressDataEntity.getProgressLog();
-        progressLogList.add(logItem);
+        updateLearningState(userProgressDataEntity, logItem);
 
         userProgressDataRepository.save(userProgressDataEntity);
+        // insert the log item directly, so that the existing progress log does not have to be loaded
+        userProgressDataRepository.insertProgressLogItem(
+                userProgressDataEntity.getUserId(), userProgressDataEntity.getContentId(), logItem);
+        cacheInvalidationBus.broadcast(CacheInvalidation.builder()
+                .userChapter(new CacheInvalidation.UserChapter(
+                        userProgressDataEntity.getUserId(), content.getMetadata().getChapterId()))
+                .build());
 
 
         List<ItemResponse> itemResponses = new ArrayList<>();
@@ -134,40 +341,89 @@ public class UserProgressDataService {
             itemResponses = createItemResponsesList(contentProgressedEvent);
         }
 
-        // check if stages, chapters, or courses have been completed by making progress on this content, and publish
-        // events for that accordingly
-        stageCompletedDetector.measureValue(new StageCompletedValueChangedDetector.InputParameters(
-                stage, userProgressDataEntity));
-        chapterCompletedDetector.measureValue(new ChapterCompletedValueChangedDetector.InputParameters(
-                content.getMetadata().getChapterId(), userProgressDataEntity));
-        courseCompletedDetector.measureValue(new CourseCompletedValueChangedDetector.InputParameters(
-                content.getMetadata().getCourseId(), userProgressDataEntity));
+        // stages, chapters and courses can only be completed by making progress on this content if the content
+        // has been learned for the first time, so in all other cases there is nothing to check
+        if (!wasLearned && logItem.isSuccess()) {
+            publishCompletedScopes(userProgressDataEntity.getUserId(), content);
+        }
+
+        final int attemptCount = userProgressDataEntity.getAttemptCount();
+        eventOutbox.notifyUserProgressUpdated(createUserProgressUpdatedEvent(contentProgressedEvent, content, itemResponses, attemptCount));
+    }
+
+    /**
+     * Updates the completion counters after the user has learned the given content for the first time and publishes
+     * events for the stage, chapter and course of the content if they have been completed by that.
+     */
+    private void publishCompletedScopes(final UUID userId, final Content content) {
+        final Optional<Stage> stage = stageService.findStageOfContent(content);
+
+        final CompletionCounterService.CompletedScopes completedScopes =
+                completionCounterService.registerLearnedContent(userId, content, stage);
 
-        // note that stageCompletedDetector ensures that this content has a stage, so stage.isPresent() is always true
+        // note that stageCompleted is only true if this content has a stage, so stage.isPresent() is always true
         // the check is just to make the linter happy
-        if(stageCompletedDetector.hasValueChanged() && stage.isPresent())
-            topicPublisher.notifyStageCompleted(StageCompletedEvent.builder()
-                    .userId(userProgressDataEntity.getUserId())
+        if (completedScopes.stageCompleted() && stage.isPresent())
+            eventOutbox.notifyStageCompleted(StageCompletedEvent.builder()
+                    .userId(userId)
                     .stageId(stage.get().getId())
                     .chapterId(content.getMetadata().getChapterId())
                     .courseId(content.getMetadata().getCourseId())
                     .build());
 
-        if(chapterCompletedDetector.hasValueChanged())
-            topicPublisher.notifyChapterCompleted(ChapterCompletedEvent.builder()
-                    .userId(userProgressDataEntity.getUserId())
+        if (completedScopes.chapterCompleted())
+            eventOutbox.notifyChapterCompleted(ChapterCompletedEvent.builder()
+                    .userId(userId)
                     .chapterId(content.getMetadata().getChapterId())
                     .courseId(content.getMetadata().getCourseId())
                     .build());
 
-        if(courseCompletedDetector.hasValueChanged())
-            topicPublisher.notifyCourseCompleted(CourseCompletedEvent.builder()
-                    .userId(userProgressDataEntity.getUserId())
+        if (completedScopes.courseCompleted())
+            eventOutbox.notifyCourseCompleted(CourseCompletedEvent.builder()
+                    .userId(userId)
                     .courseId(content.getMetadata().getCourseId())
                     .build());
+    }
+
+    /**
+     * Updates the stored learning state of the user progress data entity after the given log item has been added
+     * to its progress log.
+     */
+    private static void updateLearningState(final UserProgressDataEntity userProgressDataEntity,
+                                            final ProgressLogItemEmbeddable logItem) {
+        userProgressDataEntity.setAttemptCount(userProgressDataEntity.getAttemptCount() + 1);
+
+        if (logItem.isSuccess()) {
+            userProgressDataEntity.setLearned(true);
+            userProgressDataEntity.setLastLearnDate(logItem.getTimestamp());
+        }
+
+        // the learning interval changes with every attempt, even if it was not successful
+        userProgressDataEntity.setNextLearnDate(calculateNextLearnDate(userProgressDataEntity));
+    }
+
+    /**
+     * Calculates the stored learning state of a user progress data entity which was created before the learning
+     * state was stored, using its progress log.
+     */
+    private static void calculateLearningStateFromProgressLog(final UserProgressDataEntity userProgressDataEntity) {
+        final List<ProgressLogItemEmbeddable> progressLog = userProgressDataEntity.getProgressLog();
+
+        userProgressDataEntity.setAttemptCount(progressLog.size());
+        userProgressDataEntity.setLastLearnDate(progressLog.stream()
+                .filter(ProgressLogItemEmbeddable::isSuccess)
+                .map(ProgressLogItemEmbeddable::getTimestamp)
+                .max(OffsetDateTime::compareTo)
+                .orElse(null));
+        userProgressDataEntity.setLearned(userProgressDataEntity.getLastLearnDate() != null);
+        userProgressDataEntity.setNextLearnDate(calculateNextLearnDate(userProgressDataEntity));
+    }
 
-        final int attemptCount = progressLogList.size();
-        topicPublisher.notifyUserProgressUpdated(createUserProgressUpdatedEvent(contentProgressedEvent, content, itemResponses, attemptCount));
+    private static OffsetDateTime calculateNextLearnDate(final UserProgressDataEntity userProgressDataEntity) {
+        if (userProgressDataEntity.getLastLearnDate() == null || userProgressDataEntity.getLearningInterval() == null) {
+            return null;
+        }
+        return userProgressDataEntity.getLastLearnDate().plusDays(userProgressDataEntity.getLearningInterval());
     }
 
     /**
@@ -177,21 +433,21 @@ public class UserProgressDataService {
      * @return list with all responses from the event and for each response the added item information
      */
     private List<ItemResponse> createItemResponsesList(final ContentProgressedEvent event) {
-        List<Response> responses = event.getResponses();
-        List<ItemResponse> itemResponses = new ArrayList<ItemResponse>();
-        for (Response response : responses) {
-            ItemEntity item = itemRepository.findById(response.getItemId()).get();
-            List<SkillEntity> skillEntities = item.getAssociatedSkills();
-            List<UUID> skillIds = new ArrayList<>();
-            for (SkillEntity skillEntity : skillEntities) {
-                skillIds.add(skillEntity.getId());
+        final List<Response> responses = event.getResponses();
+        final Map<UUID, ItemAssociationCache.ItemAssociations> associationsByItemId = itemAssociationCache
+                .getItemAssociations(responses.stream().map(Response::getItemId).toList());
+
+        final List<ItemResponse> itemResponses = new ArrayList<>(responses.size());
+        for (final Response response : responses) {
+            final ItemAssociationCache.ItemAssociations associations = associationsByItemId.get(response.getItemId());
+            if (associations == null) {
+                throw new EntityNotFoundException("Item with id " + response.getItemId() + " not found");
             }
-            List<BloomLevel> bloomLevelsForEvent = new ArrayList<>(item.getAssociatedBloomLevels());
-            ItemResponse itemResponse = ItemResponse.builder()
+            final ItemResponse itemResponse = ItemResponse.builder()
                     .itemId(response.getItemId())
                     .response(response.getResponse())
-                    .skillIds(skillIds)
-                    .levelsOfBloomsTaxonomy(bloomLevelsForEvent)
+                    .skillIds(new ArrayList<>(associations.skillIds()))
+                    .levelsOfBloomsTaxonomy(new ArrayList<>(associations.bloomLevels()))
                     .build();
             itemResponses.add(itemResponse);
         }
@@ -204,7 +460,7 @@ public class UserProgressDataService {
             final List<ItemResponse> itemResponses,
             final int attemptCount
     ) {
-        final Long sequenceNo = this.fetchNextMessageSequenceNo();
+        final long sequenceNo = messageSequenceNoAllocator.next();
 
 
         return UserProgressUpdatedEvent.builder()
@@ -293,17 +549,21 @@ public class UserProgressDataService {
      * @return Progress for each chapter, containing a percentage of progress, absolut number of content and completed content
      */
     public List<CompositeProgressInformation> getProgressByChapterIdsForUser(final List<UUID> chapterIds, final UUID userId) {
-        final List<List<Content>> contentsByChapterIds = contentService.getContentsByChapterIds(chapterIds);
-
-        final List<CompositeProgressInformation> chapterProgressItems = new ArrayList<>();
-
-        for (final List<Content> contentList : contentsByChapterIds) {
-            final int numCompletedContent = countNumCompletedContent(userId, contentList);
-
-            final CompositeProgressInformation compositeProgressInformation =
-                    createProgressInformation(contentList, numCompletedContent);
-
-            chapterProgressItems.add(compositeProgressInformation);
+        final Map<UUID, ChapterProgressCount> progressCountsByChapterId =
+                userProgressDataRepository.countProgressByChapterIds(userId, chapterIds).stream()
+                        .collect(Collectors.toMap(ChapterProgressCount::getChapterId, Function.identity()));
+
+        final List<CompositeProgressInformation> chapterProgressItems = new ArrayList<>(chapterIds.size());
+
+        for (final UUID chapterId : chapterIds) {
+            // chapters without contents are not returned by the query
+            final ChapterProgressCount progressCount = progressCountsByChapterId.get(chapterId);
+            if (progressCount == null) {
+                chapterProgressItems.add(createProgressInformation(0, 0));
+            } else {
+                chapterProgressItems.add(createProgressInformation(
+                        (int) progressCount.getTotalContents(), (int) progressCount.getCompletedContents()));
+            }
         }
 
         return chapterProgressItems;
@@ -318,13 +578,17 @@ public class UserProgressDataService {
      * @return Progress for each chapter, containing a percentage of progress, absolut number of content and completed content
      */
     public CompositeProgressInformation getProgressByChapterIdForUser(final UUID chapterId, final UUID userId) {
-        final List<Content> contentsByChapterIds = contentService.getContentsByChapterId(chapterId);
-
-        final int numCompletedContent = countNumCompletedContent(userId, contentsByChapterIds);
-
-        return createProgressInformation(contentsByChapterIds, numCompletedContent);
+        return getProgressByChapterIdsForUser(List.of(chapterId), userId).getFirst();
     }
 
+    /**
+     * Checks whether the user can work on the given stage, i.e. whether it is the first stage of its section or the
+     * user has learned all required contents of the previous stage.
+     *
+     * @param stageId the ID of the stage
+     * @param userId  the ID of the user
+     * @return whether the user can work on the stage
+     */
     public boolean isStageAvailableToBeWorkedOn(final UUID stageId, final UUID userId) {
         final Optional<Section> section = sectionService.findSectionOfStage(stageId);
 
@@ -332,72 +596,86 @@ public class UserProgressDataService {
         if(section.isEmpty())
             return true;
 
-        final Optional<Integer> thisStagePosition = section.get().getStages().stream()
-                .filter(x -> x.getId() == stageId)
-                .findAny()
-                .map(Stage::getPosition);
+        return StageReachability.resolve(List.of(section.get()), new UserProgressSnapshot(userId, this))
+                .isReachable(stageId);
+    }
 
-        // this should never happen, but let's return true in that case
-        if(thisStagePosition.isEmpty())
-            return true;
+    public boolean isContentAvailableToBeWorkedOn(final UUID contentId, final UUID userId) {
+        final UserContentKey key = new UserContentKey(userId, contentId);
+        return areContentsAvailableToBeWorkedOn(List.of(key)).get(key);
+    }
 
-        final Optional<Stage> previousStage = section.get().getStages().stream()
-                .filter(stage -> stage.getPosition() < thisStagePosition.get())
-                .max(Comparator.comparing(Stage::getPosition));
+    /**
+     * Checks for each of the given combinations of user and content whether the user can work on the content.
+     * Contents which are not part of a stage can always be worked on, otherwise the stage of the content has to be
+     * available to the user, see {@link #isStageAvailableToBeWorkedOn(UUID, UUID)}.
+     * The sections of all contents are loaded with one query and the progress of each user with another one.
+     *
+     * @param keys the combinations of user and content
+     * @return whether the user can work on the content, for each of the given combinations
+     */
+    public Map<UserContentKey, Boolean> areContentsAvailableToBeWorkedOn(final Collection<UserContentKey> keys) {
+        final List<Section> sections = sectionService.getSectionsContainingContents(
+                keys.stream().map(UserContentKey::contentId).collect(Collectors.toSet()));
+
+        final Map<UUID, UUID> stageIdByContentId = new HashMap<>();
+        for (final Section section : sections) {
+            for (final Stage stage : section.getStages()) {
+                Stream.concat(stage.getRequiredContents().stream(), stage.getOptionalContents().stream())
+                        .forEach(content -> stageIdByContentId.put(content.getId(), stage.getId()));
+            }
+        }
 
-        // if this is the first stage in the section, obviously the user is allowed to work on it in any case
-        if(previousStage.isEmpty())
-            return true;
+        final Map<UserContentKey, Boolean> result = HashMap.newHashMap(keys.size());
+        groupContentIdsByUser(keys).forEach((userId, contentIds) -> {
+            final StageReachability reachability =
+                    StageReachability.resolve(sections, new UserProgressSnapshot(userId, this));
 
-        // otherwise, check if the user has completed the required contents in the previous stage
-        double progress = getStageProgressForUser(previousStage.get(), userId, true);
+            for (final UUID contentId : contentIds) {
+                final UUID stageId = stageIdByContentId.get(contentId);
+                // if content isn't part of a stage it can always be worked on
+                result.put(new UserContentKey(userId, contentId), stageId == null || reachability.isReachable(stageId));
+            }
+        });
 
-        return progress >= 100.0;
+        return result;
     }
 
-    public boolean isContentAvailableToBeWorkedOn(final UUID contentId, final UUID userId) {
-        Optional<Stage> stage = stageService.findStageOfContent(contentId);
-
-        // if content isn't part of a stage it can always be worked on
-        if(stage.isEmpty())
-            return true;
-
-        // otherwise check if the stage can be worked on by the user
-        return isStageAvailableToBeWorkedOn(stage.get().getId(), userId);
+    private static Map<UUID, Set<UUID>> groupContentIdsByUser(final Collection<UserContentKey> keys) {
+        return keys.stream().collect(Collectors.groupingBy(UserContentKey::userId,
+                Collectors.mapping(UserContentKey::contentId, Collectors.toSet())));
     }
 
+    /**
+     * Returns the contents of the stages of the given courses which the user has access to. In each section, these
+     * are the stages up to and including the first stage whose required contents the user has not all learned.
+     *
+     * @param userId    the ID of the user
+     * @param courseIds the IDs of the courses
+     * @return the required and optional contents of the stages the user has access to
+     */
     public List<Content> getContentsAvailableToBeWorkedOnByUserForCourseIds(final UUID userId, List<UUID> courseIds) {
-        List<SectionEntity> sectionEntities = sectionRepository.findByCourseIdIn(courseIds);
-
-        List<Content> results = new ArrayList<>();
-        for(SectionEntity sectionEntity : sectionEntities) {
-            for (StageEntity stageEntity : sectionEntity.getStages().stream()
-                    .sorted(Comparator.comparing(StageEntity::getPosition)).toList()) {
+        final List<Section> sections = sectionService.getSectionsByCourseIds(courseIds);
 
-                // add the contents of this stage to our results list
-                results.addAll(stageEntity.getRequiredContents().stream().map(contentMapper::entityToDto).toList());
-                results.addAll(stageEntity.getOptionalContents().stream().map(contentMapper::entityToDto).toList());
-
-                // if required contents of this stage haven't been completed, this is the last stage the user has
-                // access to in this section
-                if(getStageProgressForUser(stageMapper.entityToDto(stageEntity), userId, true) < 100.0)
-                    break;
-            }
-        }
-        return results;
+        return StageReachability.resolve(sections, new UserProgressSnapshot(userId, this))
+                .getStagesUpToFirstIncompleteStage()
+                .stream()
+                .flatMap(stage -> Stream.concat(stage.getRequiredContents().stream(),
+                        stage.getOptionalContents().stream()))
+                .toList();
     }
 
-    private static CompositeProgressInformation createProgressInformation(final List<Content> contentList, final int numCompletedContent) {
+    private static CompositeProgressInformation createProgressInformation(final int numContents, final int numCompletedContent) {
         double progress = 100.0;
 
-        if (!contentList.isEmpty()) {
-            progress = (double) numCompletedContent / contentList.size() * 100;
+        if (numContents > 0) {
+            progress = (double) numCompletedContent / numContents * 100;
         }
 
         return CompositeProgressInformation.builder()
                 .setProgress(progress)
                 .setCompletedContents(numCompletedContent)
-                .setTotalContents(contentList.size())
+                .setTotalContents(numContents)
                 .build();
     }
 
@@ -410,79 +688,9 @@ public class UserProgressDataService {
      */
     private int countNumCompletedContent(final UUID userId, final List<Content> contentList) {
 
-        final List<UserProgressData> userProgressDataOfContents = contentList
-                .stream()
-                .map(Content::getId)
-                .map(contentId -> getUserProgressData(userId, contentId))
-                .toList();
+        final List<UserProgressData> userProgressDataOfContents =
+                List.copyOf(getUserProgressDataOfContents(userId, contentList).values());
 
         return countAsInt(userProgressDataOfContents, UserProgressData::getIsLearned);
     }
-
-    private Long fetchNextMessageSequenceNo() {
-        final MessageSequenceNoEntity sequenceNoEntity = this.messageSequenceNoEntityRepository.save(new MessageSequenceNoEntity());
-        return sequenceNoEntity.getSequenceNo();
-    }
-
-    private class StageCompletedValueChangedDetector
-            extends ObjectValueChangedDetector<StageCompletedValueChangedDetector.InputParameters, Boolean> {
-
-        public StageCompletedValueChangedDetector() {
-            super(params -> {
-                // always return false if content isn't part of a stage, because in that case the stage can't be
-                // completed and the false value will never change
-                if(params.stage().isEmpty())
-                    return false;
-
-                return getStageProgressForUser(
-                        params.stage().get(), params.progressData().getUserId(), true) < 100;
-            });
-        }
-
-        public record InputParameters(Optional<Stage> stage, UserProgressDataEntity progressData) {
-        }
-    }
-
-    private class ChapterCompletedValueChangedDetector
-            extends ObjectValueChangedDetector<ChapterCompletedValueChangedDetector.InputParameters, Boolean> {
-
-        public ChapterCompletedValueChangedDetector() {
-            super(params -> {
-
-                List<Content> contentsOfChapter = contentService.getContentsByChapterId(params.chapterId());
-
-                // if there is no content in the chapter, it is considered completed
-                if(contentsOfChapter.isEmpty())
-                    return true;
-
-                CompositeProgressInformation chapterProgress =
-                        getProgressByChapterIdForUser(params.chapterId(), params.progressData().getUserId());
-
-                return chapterProgress.getProgress() < 100.0;
-            });
-        }
-
-        public record InputParameters(UUID chapterId, UserProgressDataEntity progressData) {
-        }
-    }
-
-    private class CourseCompletedValueChangedDetector
-            extends ObjectValueChangedDetector<CourseCompletedValueChangedDetector.InputParameters, Boolean> {
-
-        public CourseCompletedValueChangedDetector() {
-            super(params -> {
-                List<Content> contentsOfCourse =
-                        contentService.getContentsByCourseIds(List.of(params.courseId())).stream()
-                                .flatMap(Collection::stream)
-                                .toList();
-
-                int numCompleted = countNumCompletedContent(params.progressData().getUserId(), contentsOfCourse);
-
-                return numCompleted < contentsOfCourse.size();
-            });
-        }
-
-        public record InputParameters(UUID courseId, UserProgressDataEntity progressData) {
-        }
-    }
 }
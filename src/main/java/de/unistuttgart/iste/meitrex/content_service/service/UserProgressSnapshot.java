@@ -0,0 +1,60 @@
+package de.unistuttgart.iste.meitrex.content_service.service;
+
+import de.unistuttgart.iste.meitrex.generated.dto.Content;
+import de.unistuttgart.iste.meitrex.generated.dto.UserProgressData;
+
+import java.util.*;
+
+/**
+ * The progress of a single user on a set of contents, loaded for one call of the {@link SuggestionService}.
+ * <p>
+ * Progress data is loaded in bulk with {@link #preload(Collection)}. Contents which have not been preloaded are
+ * loaded on first access. A snapshot is only used by the thread which created it and must not be shared between
+ * calls, so it needs no synchronization and cannot contain stale data of earlier calls.
+ */
+final class UserProgressSnapshot {
+
+    private final UUID userId;
+    private final UserProgressDataService userProgressDataService;
+    private final Map<UUID, UserProgressData> progressDataByContentId = new HashMap<>();
+
+    UserProgressSnapshot(final UUID userId, final UserProgressDataService userProgressDataService) {
+        this.userId = userId;
+        this.userProgressDataService = userProgressDataService;
+    }
+
+    /**
+     * Loads the progress data of all given contents which have not been loaded yet with a single call.
+     */
+    void preload(final Collection<Content> contents) {
+        final List<Content> missingContents = contents.stream()
+                .filter(content -> !progressDataByContentId.containsKey(content.getId()))
+                .toList();
+
+        if (missingContents.isEmpty()) {
+            return;
+        }
+
+        progressDataByContentId.putAll(userProgressDataService.getUserProgressDataOfContents(userId, missingContents));
+    }
+
+    /**
+     * Adds progress data of the user which has already been loaded.
+     *
+     * @param progressDataByContentId the progress data by content ID
+     */
+    void putAll(final Map<UUID, UserProgressData> progressDataByContentId) {
+        this.progressDataByContentId.putAll(progressDataByContentId);
+    }
+
+    /**
+     * @return the progress data of the user for the given content
+     */
+    UserProgressData get(final Content content) {
+        if (!progressDataByContentId.containsKey(content.getId())) {
+            preload(List.of(content));
+        }
+
+        return progressDataByContentId.get(content.getId());
+    }
+}
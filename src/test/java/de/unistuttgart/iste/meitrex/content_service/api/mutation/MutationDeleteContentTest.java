@@ -8,6 +8,7 @@ import de.unistuttgart.iste.meitrex.common.user_handling.LoggedInUser.UserRoleIn
 import de.unistuttgart.iste.meitrex.content_service.TestData;
 import de.unistuttgart.iste.meitrex.content_service.persistence.entity.*;
 import de.unistuttgart.iste.meitrex.content_service.persistence.repository.*;
+import de.unistuttgart.iste.meitrex.content_service.service.OutboxRelay;
 import java.util.ArrayList;
 
 import jakarta.transaction.Transactional;
@@ -57,6 +58,8 @@ class MutationDeleteContentTest {
 
     @Autowired
     private TopicPublisher topicPublisher;
+    @Autowired
+    private OutboxRelay outboxRelay;
 
     @BeforeEach
     void beforeEach() {
@@ -118,6 +121,8 @@ class MutationDeleteContentTest {
         assertThat(skillRepository.count(), is(0L));
         assertThat(itemRepository.count(), is(0L));
 
+        // the event is published from the outbox
+        outboxRelay.relayEvents();
         verify(topicPublisher).notifyContentChanges(List.of(contentEntity.getId()), CrudOperation.DELETE);
 
     }
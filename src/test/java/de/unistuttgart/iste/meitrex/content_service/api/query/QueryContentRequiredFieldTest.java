@@ -43,7 +43,7 @@ public class QueryContentRequiredFieldTest {
         sectionEntity = sectionRepository.save(sectionEntity);
 
         for (int i = 0; i < 2; i++) {
-            MediaContentEntity entity = buildContentEntity(sectionEntity.getChapterId());
+            MediaContentEntity entity = buildContentEntity(courseId, sectionEntity.getChapterId());
             entity = contentRepository.save(entity);
             contentEntities.add(entity);
         }
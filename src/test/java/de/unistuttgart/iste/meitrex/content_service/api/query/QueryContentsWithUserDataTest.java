@@ -8,6 +8,7 @@ import de.unistuttgart.iste.meitrex.content_service.persistence.repository.Conte
 import de.unistuttgart.iste.meitrex.content_service.persistence.repository.UserProgressDataRepository;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.graphql.test.tester.GraphQlTester;
 import org.springframework.graphql.test.tester.HttpGraphQlTester;
 
 import java.time.LocalDate;
@@ -235,4 +236,104 @@ class QueryContentsWithUserDataTest {
                 .path("contentsByIds[0].progressDataForUser.log.length()").entity(Integer.class).isEqualTo(2);
 
     }
+
+    /**
+     * Given a content with a progress log of three entries, two of which have the same timestamp
+     * When the log is queried with a page size of two and then with the cursor of the last entry of the first page
+     * Then the first page contains the two newest entries and the second page the remaining entry, so no entry with
+     * the same timestamp is skipped at the page boundary
+     */
+    @Test
+    void testQueryProgressLogPaginated(final HttpGraphQlTester graphQlTester) {
+        MediaContentEntity contentEntity = TestData.dummyMediaContentEntityBuilder(courseId).build();
+        contentEntity = contentRepository.save(contentEntity);
+
+        userProgressDataRepository.save(UserProgressDataEntity.builder()
+                .userId(userId)
+                .contentId(contentEntity.getId())
+                .learningInterval(1)
+                .progressLog(List.of(
+                        logItemAt(OffsetDateTime.parse("2021-01-01T00:00:00Z")),
+                        logItemAt(OffsetDateTime.parse("2021-01-02T00:00:00Z")),
+                        logItemAt(OffsetDateTime.parse("2021-01-02T00:00:00Z"))))
+                .build());
+
+        final String query = """
+                query($contentId: UUID!, $after: String) {
+                    contentsByIds(ids: [$contentId]) {
+                        userProgressData {
+                            log(first: 2, after: $after) {
+                                cursor
+                                timestamp
+                            }
+                        }
+                    }
+                }
+                """;
+
+        final GraphQlTester.Response firstPage = graphQlTester.document(query)
+                .variable("contentId", contentEntity.getId())
+                .execute();
+        firstPage.path("contentsByIds[0].userProgressData.log.length()").entity(Integer.class).isEqualTo(2)
+                .path("contentsByIds[0].userProgressData.log[0].timestamp").entity(OffsetDateTime.class)
+                .matches(timestamp -> timestamp.isEqual(OffsetDateTime.parse("2021-01-02T00:00:00Z")))
+                .path("contentsByIds[0].userProgressData.log[1].timestamp").entity(OffsetDateTime.class)
+                .matches(timestamp -> timestamp.isEqual(OffsetDateTime.parse("2021-01-02T00:00:00Z")));
+        final String cursor = firstPage.path("contentsByIds[0].userProgressData.log[1].cursor")
+                .entity(String.class).get();
+
+        graphQlTester.document(query)
+                .variable("contentId", contentEntity.getId())
+                .variable("after", cursor)
+                .execute()
+                .path("contentsByIds[0].userProgressData.log.length()").entity(Integer.class).isEqualTo(1)
+                .path("contentsByIds[0].userProgressData.log[0].timestamp").entity(OffsetDateTime.class)
+                .matches(timestamp -> timestamp.isEqual(OffsetDateTime.parse("2021-01-01T00:00:00Z")));
+    }
+
+    /**
+     * Given a content with a progress log of two entries
+     * When the log is queried with first explicitly set to null
+     * Then the default page size is used and both entries are returned
+     */
+    @Test
+    void testQueryProgressLogWithNullPageSize(final HttpGraphQlTester graphQlTester) {
+        MediaContentEntity contentEntity = TestData.dummyMediaContentEntityBuilder(courseId).build();
+        contentEntity = contentRepository.save(contentEntity);
+
+        userProgressDataRepository.save(UserProgressDataEntity.builder()
+                .userId(userId)
+                .contentId(contentEntity.getId())
+                .learningInterval(1)
+                .progressLog(List.of(
+                        logItemAt(OffsetDateTime.parse("2021-01-01T00:00:00Z")),
+                        logItemAt(OffsetDateTime.parse("2021-01-02T00:00:00Z"))))
+                .build());
+
+        final String query = """
+                query($contentId: UUID!) {
+                    contentsByIds(ids: [$contentId]) {
+                        userProgressData {
+                            log(first: null) {
+                                timestamp
+                            }
+                        }
+                    }
+                }
+                """;
+
+        graphQlTester.document(query)
+                .variable("contentId", contentEntity.getId())
+                .execute()
+                .path("contentsByIds[0].userProgressData.log.length()").entity(Integer.class).isEqualTo(2);
+    }
+
+    private static ProgressLogItemEmbeddable logItemAt(final OffsetDateTime timestamp) {
+        return ProgressLogItemEmbeddable.builder()
+                .success(true)
+                .correctness(1.0)
+                .hintsUsed(0)
+                .timestamp(timestamp)
+                .build();
+    }
 }
@@ -105,6 +105,42 @@ class QueryProgressByChapterIdsTest {
         assertEquals(0, resultItem.getTotalContents());
     }
 
+    /**
+     * This Testcase assumes progress is queried for several chapters, which is done in a single query
+     */
+    @Test
+    void testProgressByChapterIdsKeepsOrderOfChapters(HttpGraphQlTester graphQlTester) {
+        UUID userId = loggedInUser.getId();
+        UUID chapterId = UUID.randomUUID();
+        UUID emptyChapterId = UUID.randomUUID();
+        UUID otherChapterId = UUID.randomUUID();
+        MediaContentEntity mediaContentEntity = contentRepository.save(TestData.buildContentEntity(chapterId));
+        contentRepository.save(TestData.buildContentEntity(otherChapterId));
+        contentRepository.save(TestData.buildContentEntity(otherChapterId));
+
+        userProgressDataRepository.save(TestData.buildDummyUserProgressData(true, userId, mediaContentEntity.getId()));
+
+        List<CompositeProgressInformation> resultList = graphQlTester
+                .document(QUERY_USER_PROGRESS_BY_CHAPTER_IDS)
+                .variable("chapterIds", List.of(otherChapterId, emptyChapterId, chapterId))
+                .execute()
+                .path("_internal_noauth_progressByChapterIds")
+                .entityList(CompositeProgressInformation.class).get();
+
+        assertEquals(3, resultList.size());
+
+        assertEquals(0.0, resultList.get(0).getProgress());
+        assertEquals(0, resultList.get(0).getCompletedContents());
+        assertEquals(2, resultList.get(0).getTotalContents());
+
+        assertEquals(100.0, resultList.get(1).getProgress());
+        assertEquals(0, resultList.get(1).getTotalContents());
+
+        assertEquals(100.0, resultList.get(2).getProgress());
+        assertEquals(1, resultList.get(2).getCompletedContents());
+        assertEquals(1, resultList.get(2).getTotalContents());
+    }
+
     private List<CompositeProgressInformation> executeProgressByChapterIdsQuery(HttpGraphQlTester graphQlTester,
                                                                                 UUID chapterId) {
 
@@ -0,0 +1,115 @@
+package de.unistuttgart.iste.meitrex.content_service.mapper;
+
+import de.unistuttgart.iste.meitrex.content_service.TestData;
+import de.unistuttgart.iste.meitrex.content_service.persistence.entity.AssessmentEntity;
+import de.unistuttgart.iste.meitrex.content_service.persistence.entity.ContentEntity;
+import de.unistuttgart.iste.meitrex.content_service.persistence.entity.MediaContentEntity;
+import de.unistuttgart.iste.meitrex.content_service.persistence.mapper.ContentMapper;
+import de.unistuttgart.iste.meitrex.content_service.persistence.mapper.ItemMapper;
+import de.unistuttgart.iste.meitrex.generated.dto.*;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Checks that the direct mapping of contents produces the same result as the reflective mapping of ModelMapper.
+ */
+class TestContentMapper {
+
+    private final ModelMapper modelMapper = new ModelMapper();
+    private final ContentMapper contentMapper = new ContentMapper(modelMapper);
+
+    @Test
+    void testMediaContentMapping() {
+        final MediaContentEntity entity = TestData.dummyMediaContentEntityBuilder(UUID.randomUUID())
+                .id(UUID.randomUUID())
+                .build();
+        entity.getMetadata().setTags(Set.of("tag"));
+
+        final Content actual = contentMapper.entityToDto(entity);
+
+        assertThat(actual, is(instanceOf(MediaContent.class)));
+        assertThat(actual, is(mapWithModelMapper(entity, MediaContent.class)));
+        assertThat(actual.getMetadata().getTagNames(), contains("tag"));
+    }
+
+    @Test
+    void testFlashcardSetAssessmentMapping() {
+        final AssessmentEntity entity = buildAssessmentEntity(ContentType.FLASHCARDS);
+
+        final Content actual = contentMapper.entityToDto(entity);
+
+        assertThat(actual, is(instanceOf(FlashcardSetAssessment.class)));
+        assertThat(actual, is(mapWithModelMapper(entity, FlashcardSetAssessment.class)));
+    }
+
+    @Test
+    void testQuizAssessmentMapping() {
+        final AssessmentEntity entity = buildAssessmentEntity(ContentType.QUIZ);
+
+        final Content actual = contentMapper.entityToDto(entity);
+
+        assertThat(actual, is(instanceOf(QuizAssessment.class)));
+        assertThat(actual, is(mapWithModelMapper(entity, QuizAssessment.class)));
+    }
+
+    @Test
+    void testAssignmentAssessmentMapping() {
+        final AssessmentEntity entity = buildAssessmentEntity(ContentType.ASSIGNMENT);
+
+        final Content actual = contentMapper.entityToDto(entity);
+
+        assertThat(actual, is(instanceOf(AssignmentAssessment.class)));
+        assertThat(actual, is(mapWithModelMapper(entity, AssignmentAssessment.class)));
+    }
+
+    /**
+     * Content entities which are not loaded as assessment entities are mapped with ModelMapper.
+     */
+    @Test
+    void testAssessmentMappingOfPlainContentEntity() {
+        final ContentEntity entity = ContentEntity.builder()
+                .id(UUID.randomUUID())
+                .metadata(TestData.dummyContentMetadataEmbeddableBuilder(UUID.randomUUID())
+                        .type(ContentType.QUIZ)
+                        .build())
+                .build();
+
+        final Content actual = contentMapper.entityToDto(entity);
+
+        assertThat(actual, is(instanceOf(QuizAssessment.class)));
+        assertThat(actual, is(mapWithModelMapper(entity, QuizAssessment.class)));
+    }
+
+    @Test
+    void testItemMapping() {
+        final AssessmentEntity entity = buildAssessmentEntity(ContentType.QUIZ);
+
+        final Item actual = new ItemMapper().entityToDto(entity.getItems().get(0));
+
+        assertThat(actual, is(modelMapper.map(entity.getItems().get(0), Item.class)));
+        assertThat(actual.getAssociatedSkills().get(0).getIsCustomSkill(), is(true));
+    }
+
+    private AssessmentEntity buildAssessmentEntity(final ContentType type) {
+        final AssessmentEntity entity = TestData.assessmentEntityWithItems(UUID.randomUUID(), UUID.randomUUID());
+        entity.setId(UUID.randomUUID());
+        entity.getMetadata().setType(type);
+        entity.getMetadata().setTags(Set.of("tag1", "tag2"));
+        entity.getItems().get(0).setId(UUID.randomUUID());
+        entity.getItems().get(0).getAssociatedSkills().get(0).setId(UUID.randomUUID());
+        return entity;
+    }
+
+    private <T extends Content> T mapWithModelMapper(final ContentEntity entity, final Class<T> type) {
+        final T result = modelMapper.map(entity, type);
+        result.getMetadata().setTagNames(new ArrayList<>(entity.getMetadata().getTags()));
+        return result;
+    }
+}
@@ -3,6 +3,7 @@ package de.unistuttgart.iste.meitrex.content_service.mapper;
 import de.unistuttgart.iste.meitrex.content_service.persistence.entity.ProgressLogItemEmbeddable;
 import de.unistuttgart.iste.meitrex.content_service.persistence.entity.UserProgressDataEntity;
 import de.unistuttgart.iste.meitrex.content_service.persistence.mapper.UserProgressDataMapper;
+import de.unistuttgart.iste.meitrex.generated.dto.ProgressLogItem;
 import de.unistuttgart.iste.meitrex.generated.dto.UserProgressData;
 import org.junit.jupiter.api.Test;
 import org.modelmapper.ModelMapper;
@@ -38,20 +39,32 @@ class TestUserProgressDataMapper {
         assertThat(actual.getUserId(), is(userProgressDataEntity.getUserId()));
         assertThat(actual.getContentId(), is(userProgressDataEntity.getContentId()));
         assertThat(actual.getLearningInterval(), is(userProgressDataEntity.getLearningInterval()));
-        assertThat(actual.getLog(), contains(
-                allOf(
-                        hasProperty("correctness", is(1.0)),
-                        hasProperty("hintsUsed", is(1)),
-                        hasProperty("success", is(true)),
-                        hasProperty("timestamp", is(OffsetDateTime.parse("2021-01-01T00:00:00Z")))
-                )
-        ));
         assertThat(actual.getLastLearnDate(), is(OffsetDateTime.parse("2021-01-01T00:00:00Z")));
         assertThat(actual.getIsLearned(), is(true));
         assertThat(actual.getNextLearnDate(), is(OffsetDateTime.parse("2021-01-03T00:00:00Z")));
         assertThat(actual.getIsDueForReview(), is(true));
     }
 
+    @Test
+    void testLogItemMapping() {
+        final ProgressLogItemEmbeddable logItem = ProgressLogItemEmbeddable.builder()
+                .correctness(1.0)
+                .hintsUsed(1)
+                .success(true)
+                .timeToComplete(100)
+                .timestamp(OffsetDateTime.parse("2021-01-01T00:00:00Z"))
+                .build();
+
+        final ProgressLogItem actual = userProgressDataMapper.logItemToDto(logItem);
+
+        assertThat(actual, allOf(
+                hasProperty("correctness", is(1.0)),
+                hasProperty("hintsUsed", is(1)),
+                hasProperty("success", is(true)),
+                hasProperty("timeToComplete", is(100)),
+                hasProperty("timestamp", is(OffsetDateTime.parse("2021-01-01T00:00:00Z")))));
+    }
+
     @Test
     void testContentNotLearnedSuccessful() {
         final UserProgressDataEntity userProgressDataEntity = UserProgressDataEntity.builder()
@@ -112,4 +125,30 @@ class TestUserProgressDataMapper {
         assertThat(actual.getNextLearnDate(), is(actual.getLastLearnDate().plusDays(2)));
         assertThat(actual.getIsDueForReview(), is(false));
     }
+
+    /**
+     * Given an entity with a stored learning state
+     * When it is mapped to a DTO
+     * Then the stored learning state is used instead of deriving it from the progress log
+     */
+    @Test
+    void testStoredLearningStateIsUsed() {
+        final OffsetDateTime lastLearnDate = OffsetDateTime.parse("2021-01-01T00:00:00Z");
+        final UserProgressDataEntity userProgressDataEntity = UserProgressDataEntity.builder()
+                .userId(UUID.randomUUID())
+                .contentId(UUID.randomUUID())
+                .learningInterval(2)
+                .learned(true)
+                .lastLearnDate(lastLearnDate)
+                .nextLearnDate(lastLearnDate.plusDays(2))
+                .attemptCount(3)
+                .build();
+
+        final UserProgressData actual = userProgressDataMapper.entityToDto(userProgressDataEntity);
+
+        assertThat(actual.getIsLearned(), is(true));
+        assertThat(actual.getLastLearnDate(), is(lastLearnDate));
+        assertThat(actual.getNextLearnDate(), is(OffsetDateTime.parse("2021-01-03T00:00:00Z")));
+        assertThat(actual.getIsDueForReview(), is(true));
+    }
 }
@@ -0,0 +1,120 @@
+package de.unistuttgart.iste.meitrex.content_service.persistence.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * The lazily loaded parts of the entities are replaced by mocks, which stand in for uninitialized collections and
+ * would record any access.
+ */
+class EntityEqualityTest {
+
+    /**
+     * Given two media contents with the same ID but different metadata
+     * When they are compared and put into a set
+     * Then they are equal and the metadata is not accessed
+     */
+    @Test
+    void testContentsWithSameIdAreEqual() {
+        final UUID id = UUID.randomUUID();
+        final ContentMetadataEmbeddable metadata = mock(ContentMetadataEmbeddable.class);
+        final ContentMetadataEmbeddable otherMetadata = mock(ContentMetadataEmbeddable.class);
+        final ContentEntity content = MediaContentEntity.builder().id(id).metadata(metadata).build();
+        final ContentEntity sameContent = MediaContentEntity.builder().id(id).metadata(otherMetadata).build();
+
+        final Set<ContentEntity> contents = new HashSet<>(List.of(content));
+
+        assertThat(sameContent, is(content));
+        assertThat(sameContent.hashCode(), is(content.hashCode()));
+        assertThat(contents.contains(sameContent), is(true));
+        verifyNoInteractions(metadata, otherMetadata);
+    }
+
+    /**
+     * Given a media content and an assessment
+     * When they are compared
+     * Then they are only equal if they have the same ID
+     */
+    @Test
+    void testContentsWithDifferentIdsAreNotEqual() {
+        final UUID id = UUID.randomUUID();
+        final ContentEntity media = MediaContentEntity.builder().id(id).build();
+        final ContentEntity assessment = AssessmentEntity.builder().id(id).build();
+        final ContentEntity otherMedia = MediaContentEntity.builder().id(UUID.randomUUID()).build();
+
+        assertThat(assessment, is(media));
+        assertThat(otherMedia, is(not(media)));
+    }
+
+    /**
+     * Given two contents without ID
+     * When they are compared
+     * Then they are only equal to themselves
+     */
+    @Test
+    void testContentsWithoutIdAreOnlyEqualToThemselves() {
+        final ContentEntity content = MediaContentEntity.builder().build();
+        final ContentEntity otherContent = MediaContentEntity.builder().build();
+
+        assertThat(content, is(content));
+        assertThat(otherContent, is(not(content)));
+    }
+
+    /**
+     * Given a stage with uninitialized content collections in a section with uninitialized stages
+     * When the stage and section are put into sets and looked up
+     * Then none of the collections are initialized
+     */
+    @SuppressWarnings("unchecked")
+    @Test
+    void testSetMembershipDoesNotInitializeCollectionsOfStagesAndSections() {
+        final Set<ContentEntity> requiredContents = mock(Set.class);
+        final Set<ContentEntity> optionalContents = mock(Set.class);
+        final Set<StageEntity> stages = mock(Set.class);
+        final StageEntity stage = StageEntity.builder()
+                .id(UUID.randomUUID())
+                .requiredContents(requiredContents)
+                .optionalContents(optionalContents)
+                .build();
+        final SectionEntity section = SectionEntity.builder()
+                .id(UUID.randomUUID())
+                .stages(stages)
+                .build();
+
+        final Set<StageEntity> stageSet = new HashSet<>(List.of(stage));
+        final Set<SectionEntity> sectionSet = new HashSet<>(List.of(section));
+
+        assertThat(stageSet.contains(StageEntity.builder().id(stage.getId()).build()), is(true));
+        assertThat(stageSet.remove(stage), is(true));
+        assertThat(sectionSet.contains(SectionEntity.builder().id(section.getId()).build()), is(true));
+        verifyNoInteractions(requiredContents, optionalContents, stages);
+    }
+
+    /**
+     * Given items with uninitialized skills and a skill loaded twice
+     * When they are put into sets
+     * Then the skills are not initialized and the skill is only contained once
+     */
+    @SuppressWarnings("unchecked")
+    @Test
+    void testSetMembershipDoesNotInitializeSkillsOfItems() {
+        final List<SkillEntity> associatedSkills = mock(List.class);
+        final ItemEntity item = ItemEntity.builder().id(UUID.randomUUID()).associatedSkills(associatedSkills).build();
+        final UUID skillId = UUID.randomUUID();
+
+        final Set<ItemEntity> items = new HashSet<>(List.of(item));
+        final Set<SkillEntity> skills = new HashSet<>(List.of(
+                new SkillEntity(skillId, "skill", "category", false),
+                new SkillEntity(skillId, "skill", "category", false)));
+
+        assertThat(items.contains(ItemEntity.builder().id(item.getId()).build()), is(true));
+        assertThat(skills, hasSize(1));
+        verifyNoInteractions(associatedSkills);
+    }
+}
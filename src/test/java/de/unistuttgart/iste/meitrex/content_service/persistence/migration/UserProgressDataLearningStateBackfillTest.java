@@ -0,0 +1,117 @@
+package de.unistuttgart.iste.meitrex.content_service.persistence.migration;
+
+import de.unistuttgart.iste.meitrex.content_service.persistence.entity.ProgressLogItemEmbeddable;
+import de.unistuttgart.iste.meitrex.content_service.persistence.entity.UserProgressDataEntity;
+import de.unistuttgart.iste.meitrex.content_service.persistence.repository.UserProgressDataRepository;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@Testcontainers
+@SpringBootTest
+@Transactional
+class UserProgressDataLearningStateBackfillTest {
+
+    @Autowired
+    private UserProgressDataLearningStateBackfill userProgressDataLearningStateBackfill;
+    @Autowired
+    private UserProgressDataRepository userProgressDataRepository;
+
+    /**
+     * Given progress data without a stored learning state
+     * When the backfill is run
+     * Then the learning state is calculated from the progress log
+     */
+    @Test
+    void testLearningStateIsCalculatedFromProgressLog() {
+        final OffsetDateTime firstSuccess = OffsetDateTime.parse("2021-01-01T00:00:00Z");
+        final OffsetDateTime lastSuccess = OffsetDateTime.parse("2021-01-05T00:00:00Z");
+
+        final UserProgressDataEntity learned = userProgressDataRepository.save(UserProgressDataEntity.builder()
+                .userId(UUID.randomUUID())
+                .contentId(UUID.randomUUID())
+                .learningInterval(3)
+                .progressLog(new ArrayList<>(List.of(
+                        logItem(firstSuccess, true),
+                        logItem(lastSuccess, true),
+                        logItem(lastSuccess.plusDays(1), false))))
+                .build());
+        final UserProgressDataEntity notLearned = userProgressDataRepository.save(UserProgressDataEntity.builder()
+                .userId(UUID.randomUUID())
+                .contentId(UUID.randomUUID())
+                .learningInterval(3)
+                .progressLog(new ArrayList<>(List.of(logItem(firstSuccess, false))))
+                .build());
+        final UserProgressDataEntity withoutLog = userProgressDataRepository.save(UserProgressDataEntity.builder()
+                .userId(UUID.randomUUID())
+                .contentId(UUID.randomUUID())
+                .build());
+
+        userProgressDataLearningStateBackfill.backfillLearningState();
+
+        final UserProgressDataEntity actualLearned = reload(learned);
+        assertThat(actualLearned.getAttemptCount(), is(3));
+        assertThat(actualLearned.isLearned(), is(true));
+        assertThat(actualLearned.getLastLearnDate().isEqual(lastSuccess), is(true));
+        assertThat(actualLearned.getNextLearnDate().isEqual(lastSuccess.plusDays(3)), is(true));
+
+        final UserProgressDataEntity actualNotLearned = reload(notLearned);
+        assertThat(actualNotLearned.getAttemptCount(), is(1));
+        assertThat(actualNotLearned.isLearned(), is(false));
+        assertThat(actualNotLearned.getLastLearnDate(), is(nullValue()));
+        assertThat(actualNotLearned.getNextLearnDate(), is(nullValue()));
+
+        final UserProgressDataEntity actualWithoutLog = reload(withoutLog);
+        assertThat(actualWithoutLog.getAttemptCount(), is(0));
+        assertThat(actualWithoutLog.isLearned(), is(false));
+    }
+
+    /**
+     * Given progress data without a stored learning state whose progress log contains a successful attempt
+     * When the learned contents are counted before the backfill has run
+     * Then the content counts as learned
+     */
+    @Test
+    void testProgressDataWithoutLearningStateCountsAsLearned() {
+        final UUID userId = UUID.randomUUID();
+        final UserProgressDataEntity learned = userProgressDataRepository.save(UserProgressDataEntity.builder()
+                .userId(userId)
+                .contentId(UUID.randomUUID())
+                .progressLog(new ArrayList<>(List.of(logItem(OffsetDateTime.now(), true))))
+                .build());
+        final UserProgressDataEntity notLearned = userProgressDataRepository.save(UserProgressDataEntity.builder()
+                .userId(userId)
+                .contentId(UUID.randomUUID())
+                .progressLog(new ArrayList<>(List.of(logItem(OffsetDateTime.now(), false))))
+                .build());
+
+        final long learnedContents = userProgressDataRepository.countLearnedContents(userId,
+                List.of(learned.getContentId(), notLearned.getContentId()));
+
+        assertThat(learnedContents, is(1L));
+    }
+
+    private UserProgressDataEntity reload(final UserProgressDataEntity entity) {
+        return userProgressDataRepository.findByUserIdAndContentId(entity.getUserId(), entity.getContentId())
+                .orElseThrow();
+    }
+
+    private static ProgressLogItemEmbeddable logItem(final OffsetDateTime timestamp, final boolean success) {
+        return ProgressLogItemEmbeddable.builder()
+                .timestamp(timestamp)
+                .success(success)
+                .correctness(success ? 1.0 : 0.0)
+                .hintsUsed(0)
+                .build();
+    }
+}
@@ -0,0 +1,143 @@
+package de.unistuttgart.iste.meitrex.content_service.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CacheInvalidationBusTest {
+
+    private final LocalCacheInvalidationTransport transport = new LocalCacheInvalidationTransport();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final Instance instance = new Instance();
+    private final Instance otherInstance = new Instance();
+
+    @BeforeEach
+    void setUp() {
+        instance.bus.subscribe();
+        otherInstance.bus.subscribe();
+    }
+
+    /**
+     * Given an invalidation
+     * When it is broadcast
+     * Then the cache entries are dropped on the broadcasting instance and the invalidation is stored in the outbox
+     */
+    @Test
+    void testBroadcastIsAppliedLocallyAndStoredInOutbox() {
+        final UUID courseId = UUID.randomUUID();
+        final CacheInvalidation invalidation = CacheInvalidation.builder().courseId(courseId).build();
+
+        instance.bus.broadcast(invalidation);
+
+        final ArgumentCaptor<CacheInvalidationBus.Message> captor =
+                ArgumentCaptor.forClass(CacheInvalidationBus.Message.class);
+        verify(instance.eventOutbox).notifyCacheInvalidation(captor.capture());
+        assertThat(captor.getValue().invalidation(), is(invalidation));
+        verify(instance.courseCatalogCache).invalidate(List.of(courseId));
+        verifyNoInteractions(otherInstance.courseCatalogCache);
+    }
+
+    /**
+     * Given two instances sharing a transport
+     * When one of them publishes an invalidation
+     * Then only the other one drops the cache entries
+     */
+    @Test
+    void testInvalidationIsAppliedByOtherInstances() {
+        final UUID courseId = UUID.randomUUID();
+        final UUID chapterId = UUID.randomUUID();
+        final UUID contentId = UUID.randomUUID();
+        final UUID itemId = UUID.randomUUID();
+        final UUID skillId = UUID.randomUUID();
+        final UUID userId = UUID.randomUUID();
+        final CacheInvalidation invalidation = CacheInvalidation.builder()
+                .courseId(courseId)
+                .chapterId(chapterId)
+                .userChapter(new CacheInvalidation.UserChapter(userId, chapterId))
+                .contentId(contentId)
+                .itemId(itemId)
+                .skillId(skillId)
+                .build();
+        final CacheInvalidationBus.Message message = publishedMessage(instance, invalidation);
+        clearInvocations(instance.courseCatalogCache, instance.suggestionIndexCache, instance.contentStageIndex,
+                instance.itemAssociationCache, instance.entityCacheEviction);
+
+        transport.publish(message);
+
+        verify(otherInstance.courseCatalogCache).invalidate(List.of(courseId));
+        verify(otherInstance.suggestionIndexCache).invalidateChapters(List.of(chapterId));
+        verify(otherInstance.suggestionIndexCache).invalidate(userId, chapterId);
+        verify(otherInstance.contentStageIndex).invalidate(List.of(contentId));
+        verify(otherInstance.contentStageIndex, never()).invalidateAll();
+        verify(otherInstance.itemAssociationCache).invalidate(List.of(itemId));
+        verify(otherInstance.entityCacheEviction).evictContents(List.of(contentId));
+        verify(otherInstance.entityCacheEviction).evictItems(List.of(itemId));
+        verify(otherInstance.entityCacheEviction).evictSkills(List.of(skillId));
+        assertThat(meterRegistry.get(CacheInvalidationBus.DELAY_METRIC_NAME).timer().count(), is(1L));
+
+        verifyNoInteractions(instance.courseCatalogCache, instance.suggestionIndexCache, instance.contentStageIndex,
+                instance.itemAssociationCache, instance.entityCacheEviction);
+    }
+
+    /**
+     * Given an invalidation of all content stages without any contents or items
+     * When it is received by another instance
+     * Then the whole stage index is dropped and no contents or items are evicted
+     */
+    @Test
+    void testInvalidationOfAllContentStages() {
+        final CacheInvalidation invalidation = CacheInvalidation.builder()
+                .chapterId(UUID.randomUUID())
+                .allContentStages(true)
+                .build();
+
+        transport.publish(publishedMessage(instance, invalidation));
+
+        verify(otherInstance.contentStageIndex).invalidateAll();
+        verify(otherInstance.contentStageIndex, never()).invalidate(any());
+        verify(otherInstance.entityCacheEviction, never()).evictContents(any());
+        verify(otherInstance.entityCacheEviction, never()).evictItems(any());
+        verify(otherInstance.itemAssociationCache, never()).invalidate(any());
+    }
+
+    /**
+     * Broadcasts the invalidation on the given instance and returns the message stored in the outbox.
+     */
+    private static CacheInvalidationBus.Message publishedMessage(final Instance sender,
+                                                                 final CacheInvalidation invalidation) {
+        sender.bus.broadcast(invalidation);
+
+        final ArgumentCaptor<CacheInvalidationBus.Message> captor =
+                ArgumentCaptor.forClass(CacheInvalidationBus.Message.class);
+        verify(sender.eventOutbox).notifyCacheInvalidation(captor.capture());
+        assertThat(captor.getValue().createdAt().isAfter(OffsetDateTime.now()), is(false));
+        return captor.getValue();
+    }
+
+    /**
+     * One simulated instance of the service with its own caches.
+     */
+    private class Instance {
+        private final EventOutbox eventOutbox = Mockito.mock(EventOutbox.class);
+        private final CourseCatalogCache courseCatalogCache = Mockito.mock(CourseCatalogCache.class);
+        private final SuggestionIndexCache suggestionIndexCache = Mockito.mock(SuggestionIndexCache.class);
+        private final ContentStageIndex contentStageIndex = Mockito.mock(ContentStageIndex.class);
+        private final ItemAssociationCache itemAssociationCache = Mockito.mock(ItemAssociationCache.class);
+        private final EntityCacheEviction entityCacheEviction = Mockito.mock(EntityCacheEviction.class);
+
+        private final CacheInvalidationBus bus = new CacheInvalidationBus(eventOutbox, transport, courseCatalogCache,
+                suggestionIndexCache, contentStageIndex, itemAssociationCache, entityCacheEviction, meterRegistry);
+    }
+}
@@ -0,0 +1,144 @@
+package de.unistuttgart.iste.meitrex.content_service.service;
+
+import de.unistuttgart.iste.meitrex.content_service.persistence.entity.UserCompletionCounterEntity.CompletionScope;
+import de.unistuttgart.iste.meitrex.content_service.persistence.repository.ContentRepository;
+import de.unistuttgart.iste.meitrex.content_service.persistence.repository.UserCompletionCounterRepository;
+import de.unistuttgart.iste.meitrex.content_service.persistence.repository.UserProgressDataRepository;
+import de.unistuttgart.iste.meitrex.generated.dto.Content;
+import de.unistuttgart.iste.meitrex.generated.dto.ContentMetadata;
+import de.unistuttgart.iste.meitrex.generated.dto.MediaContent;
+import de.unistuttgart.iste.meitrex.generated.dto.Stage;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CompletionCounterServiceTest {
+
+    private final UserCompletionCounterRepository userCompletionCounterRepository
+            = Mockito.mock(UserCompletionCounterRepository.class);
+    private final UserProgressDataRepository userProgressDataRepository = Mockito.mock(UserProgressDataRepository.class);
+    private final ContentRepository contentRepository = Mockito.mock(ContentRepository.class);
+
+    private final CompletionCounterService completionCounterService = new CompletionCounterService(
+            userCompletionCounterRepository,
+            userProgressDataRepository,
+            contentRepository);
+
+    private final UUID userId = UUID.randomUUID();
+    private final UUID chapterId = UUID.randomUUID();
+    private final UUID courseId = UUID.randomUUID();
+
+    /**
+     * Given existing counters which are one below the number of contents
+     * When a content is learned
+     * Then the counters are incremented and all scopes are completed without recounting the progress data
+     */
+    @Test
+    void testExistingCountersAreIncremented() {
+        final Content content = buildContent();
+        final Content otherContent = buildContent();
+        final Stage stage = buildStage(List.of(content, otherContent));
+
+        doReturn(1).when(userCompletionCounterRepository).incrementCompletedContents(any(), any());
+        doReturn(Optional.of(2)).when(userCompletionCounterRepository).findCompletedContents(userId, stage.getId());
+        doReturn(Optional.of(3)).when(userCompletionCounterRepository).findCompletedContents(userId, chapterId);
+        doReturn(Optional.of(3)).when(userCompletionCounterRepository).findCompletedContents(userId, courseId);
+        doReturn(3L).when(contentRepository).countByChapterId(chapterId);
+        doReturn(4L).when(contentRepository).countByCourseId(courseId);
+
+        final CompletionCounterService.CompletedScopes actual
+                = completionCounterService.registerLearnedContent(userId, content, Optional.of(stage));
+
+        assertThat(actual.stageCompleted(), is(true));
+        assertThat(actual.chapterCompleted(), is(true));
+        assertThat(actual.courseCompleted(), is(false));
+
+        verify(userCompletionCounterRepository).incrementCompletedContents(userId, stage.getId());
+        verify(userCompletionCounterRepository).incrementCompletedContents(userId, chapterId);
+        verify(userCompletionCounterRepository).incrementCompletedContents(userId, courseId);
+        verifyNoInteractions(userProgressDataRepository);
+    }
+
+    /**
+     * Given no counters exist yet
+     * When a content is learned
+     * Then the counters are initialized from the progress data
+     */
+    @Test
+    void testMissingCountersAreInitialized() {
+        final Content content = buildContent();
+        final Stage stage = buildStage(List.of(content));
+
+        doReturn(0).when(userCompletionCounterRepository).incrementCompletedContents(any(), any());
+        doReturn(Optional.of(1)).when(userCompletionCounterRepository).findCompletedContents(any(), any());
+        doReturn(1L).when(userProgressDataRepository).countLearnedContents(userId, List.of(content.getId()));
+        doReturn(1L).when(userProgressDataRepository).countLearnedContentsOfChapter(userId, chapterId);
+        doReturn(1L).when(userProgressDataRepository).countLearnedContentsOfCourse(userId, courseId);
+        doReturn(2L).when(contentRepository).countByChapterId(chapterId);
+        doReturn(2L).when(contentRepository).countByCourseId(courseId);
+
+        final CompletionCounterService.CompletedScopes actual
+                = completionCounterService.registerLearnedContent(userId, content, Optional.of(stage));
+
+        assertThat(actual.stageCompleted(), is(true));
+        assertThat(actual.chapterCompleted(), is(false));
+        assertThat(actual.courseCompleted(), is(false));
+
+        verify(userCompletionCounterRepository)
+                .insertOrIncrementCompletedContents(userId, stage.getId(), CompletionScope.STAGE.name(), 1);
+        verify(userCompletionCounterRepository)
+                .insertOrIncrementCompletedContents(userId, chapterId, CompletionScope.CHAPTER.name(), 1);
+    }
+
+    /**
+     * Given a content which is an optional content of its stage
+     * When the content is learned
+     * Then the stage counter is not touched
+     */
+    @Test
+    void testOptionalContentDoesNotCountTowardsStage() {
+        final Content content = buildContent();
+        final Stage stage = Stage.builder()
+                .setId(UUID.randomUUID())
+                .setRequiredContents(List.of(buildContent()))
+                .setOptionalContents(List.of(content))
+                .build();
+
+        doReturn(1).when(userCompletionCounterRepository).incrementCompletedContents(any(), any());
+        doReturn(Optional.of(1)).when(userCompletionCounterRepository).findCompletedContents(any(), any());
+        doReturn(2L).when(contentRepository).countByChapterId(chapterId);
+        doReturn(2L).when(contentRepository).countByCourseId(courseId);
+
+        final CompletionCounterService.CompletedScopes actual
+                = completionCounterService.registerLearnedContent(userId, content, Optional.of(stage));
+
+        assertThat(actual.stageCompleted(), is(false));
+        verify(userCompletionCounterRepository, never()).incrementCompletedContents(userId, stage.getId());
+    }
+
+    private Content buildContent() {
+        return MediaContent.builder()
+                .setId(UUID.randomUUID())
+                .setMetadata(ContentMetadata.builder()
+                        .setChapterId(chapterId)
+                        .setCourseId(courseId)
+                        .build())
+                .build();
+    }
+
+    private static Stage buildStage(final List<Content> requiredContents) {
+        return Stage.builder()
+                .setId(UUID.randomUUID())
+                .setRequiredContents(requiredContents)
+                .setOptionalContents(List.of())
+                .build();
+    }
+}
@@ -0,0 +1,143 @@
+package de.unistuttgart.iste.meitrex.content_service.service;
+
+import de.unistuttgart.iste.meitrex.common.event.ContentProgressedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class ContentProgressedEventProcessorTest {
+
+    private final UserProgressDataService userProgressDataService = mock(UserProgressDataService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ContentProgressedEventProcessor processor;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        processor.stopWorkers();
+    }
+
+    /**
+     * Given several events of the same user for the same content
+     * When they are submitted
+     * Then they are processed in the order they were submitted
+     */
+    @Test
+    void testEventsOfUserAreProcessedInOrder() throws Exception {
+        processor = startProcessor(4, 100);
+        final UUID userId = UUID.randomUUID();
+        final UUID contentId = UUID.randomUUID();
+        final ContentProgressedEvent first = buildEvent(userId, contentId, true, 0);
+        final ContentProgressedEvent second = buildEvent(userId, contentId, false, 1);
+        final ContentProgressedEvent third = buildEvent(userId, contentId, true, 2);
+
+        final List<ContentProgressedEvent> processedEvents = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> processedEvents.addAll(invocation.getArgument(0)))
+                .when(userProgressDataService).logUserProgress(anyList());
+
+        CompletableFuture.allOf(processor.submit(first), processor.submit(second), processor.submit(third))
+                .get(5, TimeUnit.SECONDS);
+
+        assertThat(processedEvents, contains(first, second, third));
+    }
+
+    /**
+     * Given the queue is full
+     * When an event is submitted
+     * Then the event is rejected and the accepted events are only completed once they have been processed
+     */
+    @Test
+    void testEventIsRejectedIfQueueIsFull() throws Exception {
+        processor = startProcessor(1, 1);
+        final UUID userId = UUID.randomUUID();
+        final CountDownLatch processingStarted = new CountDownLatch(1);
+        final CountDownLatch continueProcessing = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            processingStarted.countDown();
+            continueProcessing.await();
+            return null;
+        }).when(userProgressDataService).logUserProgress(anyList());
+
+        // the first event is taken by the worker, which blocks, the second one fills the queue
+        final CompletableFuture<Void> processing = processor.submit(buildEvent(userId, UUID.randomUUID(), true));
+        assertThat(processingStarted.await(5, TimeUnit.SECONDS), is(true));
+        final CompletableFuture<Void> queued = processor.submit(buildEvent(userId, UUID.randomUUID(), true));
+
+        final CompletableFuture<Void> rejected = processor.submit(buildEvent(userId, UUID.randomUUID(), true));
+        final ExecutionException exception = assertThrows(ExecutionException.class, rejected::get);
+        assertThat(exception.getCause(), instanceOf(RejectedExecutionException.class));
+        assertThat(processor.getQueueSize(), is(1));
+        assertThat(meterRegistry.counter("content_service.progress_ingestion.events.rejected").count(), is(1.0));
+        assertThat(processing.isDone(), is(false));
+
+        continueProcessing.countDown();
+        CompletableFuture.allOf(processing, queued).get(5, TimeUnit.SECONDS);
+        verify(userProgressDataService, times(2)).logUserProgress(anyList());
+    }
+
+    /**
+     * Given processing an event fails
+     * When it is processed in a batch with other events
+     * Then only the failing event fails and the other events are still processed
+     */
+    @Test
+    void testFailingEventDoesNotFailOtherEvents() throws Exception {
+        processor = startProcessor(1, 100);
+        final ContentProgressedEvent failingEvent = buildEvent(UUID.randomUUID(), UUID.randomUUID(), true);
+        final ContentProgressedEvent nextEvent = buildEvent(UUID.randomUUID(), UUID.randomUUID(), true);
+        final CountDownLatch continueProcessing = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            continueProcessing.await();
+            final List<ContentProgressedEvent> events = invocation.getArgument(0);
+            if (events.contains(failingEvent)) {
+                throw new IllegalStateException("test");
+            }
+            return null;
+        }).when(userProgressDataService).logUserProgress(anyList());
+        doThrow(new IllegalStateException("test")).when(userProgressDataService).logUserProgress(failingEvent);
+
+        final CompletableFuture<Void> failing = processor.submit(failingEvent);
+        final CompletableFuture<Void> next = processor.submit(nextEvent);
+        continueProcessing.countDown();
+
+        next.get(5, TimeUnit.SECONDS);
+        final ExecutionException exception = assertThrows(ExecutionException.class, () -> failing.get(5, TimeUnit.SECONDS));
+        assertThat(exception.getCause(), instanceOf(IllegalStateException.class));
+    }
+
+    private ContentProgressedEventProcessor startProcessor(final int workerCount, final int queueCapacity) {
+        final ContentProgressedEventProcessor eventProcessor = new ContentProgressedEventProcessor(
+                userProgressDataService, meterRegistry, workerCount, queueCapacity, 10);
+        eventProcessor.startWorkers();
+        return eventProcessor;
+    }
+
+    private static ContentProgressedEvent buildEvent(final UUID userId, final UUID contentId, final boolean success) {
+        return buildEvent(userId, contentId, success, 0);
+    }
+
+    private static ContentProgressedEvent buildEvent(final UUID userId,
+                                                     final UUID contentId,
+                                                     final boolean success,
+                                                     final int hintsUsed) {
+        return ContentProgressedEvent.builder()
+                .userId(userId)
+                .contentId(contentId)
+                .success(success)
+                .correctness(success ? 1.0 : 0.0)
+                .hintsUsed(hintsUsed)
+                .build();
+    }
+}
@@ -1,6 +1,5 @@
 package de.unistuttgart.iste.meitrex.content_service.service;
 
-import de.unistuttgart.iste.meitrex.common.dapr.TopicPublisher;
 import de.unistuttgart.iste.meitrex.common.event.ChapterChangeEvent;
 import de.unistuttgart.iste.meitrex.common.event.CrudOperation;
 import de.unistuttgart.iste.meitrex.common.event.skilllevels.SkillEntityChangedEvent;
@@ -35,18 +34,21 @@ import static org.mockito.Mockito.*;
 class ContentServiceTest {
 
     private final ContentRepository contentRepository = Mockito.mock(ContentRepository.class);
-    private final SectionRepository sectionRepository = Mockito.mock(SectionRepository.class);
     private final StageService stageService = Mockito.mock(StageService.class);
     private final ContentMapper contentMapper = new ContentMapper(new ModelMapper());
     private final ContentValidator contentValidator = Mockito.spy(ContentValidator.class);
-    private final TopicPublisher topicPublisher = Mockito.mock(TopicPublisher.class);
+    private final EventOutbox eventOutbox = Mockito.mock(EventOutbox.class);
     private final UserProgressDataRepository userProgressDataRepository = Mockito.mock(UserProgressDataRepository.class);
     private final ItemRepository itemRepository = Mockito.mock(ItemRepository.class);
     private final SkillRepository skillRepository = Mockito.mock(SkillRepository.class);
     private final AssessmentRepository assessmentRepository = Mockito.mock(AssessmentRepository.class);
+    private final CompletionCounterService completionCounterService = Mockito.mock(CompletionCounterService.class);
+    private final CourseCatalogCache courseCatalogCache = Mockito.mock(CourseCatalogCache.class);
+    private final CacheInvalidationBus cacheInvalidationBus = Mockito.mock(CacheInvalidationBus.class);
 
-    private final ContentService contentService = new ContentService(contentRepository, sectionRepository, userProgressDataRepository,
-            stageService, contentMapper, contentValidator, itemRepository, skillRepository, assessmentRepository, topicPublisher);
+    private final ContentService contentService = new ContentService(contentRepository, userProgressDataRepository,
+            stageService, contentMapper, contentValidator, itemRepository, skillRepository, assessmentRepository, eventOutbox,
+            completionCounterService, courseCatalogCache, cacheInvalidationBus);
 
     @Test
     void cascadeContentDeletion() {
@@ -90,7 +92,7 @@ class ContentServiceTest {
 
         verify(contentRepository, times(1)).delete(argThat(content -> content.getId().equals(testEntity.getId())));
         verify(contentRepository, times(1)).delete(argThat(content -> content.getId().equals(testEntity2.getId())));
-        verify(topicPublisher, times(1)).notifyContentChanges(List.of(testEntity.getId(), testEntity2.getId()), CrudOperation.DELETE);
+        verify(eventOutbox, times(1)).notifyContentChanges(List.of(testEntity.getId(), testEntity2.getId()), CrudOperation.DELETE);
         verify(userProgressDataRepository, times(1)).deleteByContentId(argThat(content -> content.equals(testEntity.getId())));
         verify(userProgressDataRepository, times(1)).deleteByContentId(argThat(content -> content.equals(testEntity2.getId())));
     }
@@ -165,10 +167,6 @@ class ContentServiceTest {
         final UUID chapterId3 = UUID.randomUUID();
         final List<UUID> chapterIds = List.of(chapterId, chapterId2, chapterId3);
 
-        final UUID sectionId = UUID.randomUUID();
-        final UUID sectionId2 = UUID.randomUUID();
-        final UUID sectionId3 = UUID.randomUUID();
-
         final List<ContentEntity> mediaContentEntities = List.of(
                 TestData.buildContentEntity(chapterId),
                 TestData.buildContentEntity(chapterId),
@@ -178,37 +176,13 @@ class ContentServiceTest {
                 TestData.buildContentEntity(chapterId3)
         );
 
-        //case: chapter has both linked and unlinked content
-        final SectionEntity sectionEntity = SectionEntity.builder()
-                .chapterId(chapterId)
-                .name("Test Section")
-                .id(sectionId)
-                .stages(Set.of(buildDummyStage().requiredContents(Set.of(mediaContentEntities.get(0))).optionalContents(Set.of(mediaContentEntities.get(1))).build()))
-                .build();
-
-        //case: chapter has only unlinked content
-        final SectionEntity sectionEntity2 = SectionEntity.builder()
-                .chapterId(chapterId2)
-                .name("Test Section 2")
-                .id(sectionId2)
-                .stages(Set.of(buildDummyStage().requiredContents(new HashSet<>()).optionalContents(new HashSet<>()).build()))
-                .build();
-
-        //case: chapter has only linked content
-        final SectionEntity sectionEntity3 = SectionEntity.builder()
-                .chapterId(chapterId2)
-                .name("Test Section 3")
-                .id(sectionId3)
-                .stages(Set.of(buildDummyStage().requiredContents(Set.of(mediaContentEntities.get(5))).optionalContents(new HashSet<>()).build()))
-                .build();
-
         // expected outcome
         final List<Content> unlinkedContentForChapter1 = mediaContentEntities.subList(2, 4).stream().map(contentMapper::entityToDto).toList();
         final List<Content> unlinkedContentForChapter2 = mediaContentEntities.subList(4, 5).stream().map(contentMapper::entityToDto).toList();
 
         //mock database queries
-        when(sectionRepository.findByChapterIdInOrderByPosition(chapterIds)).thenReturn(List.of(sectionEntity, sectionEntity2, sectionEntity3));
-        when(contentRepository.findByChapterIdIn(chapterIds)).thenReturn(mediaContentEntities);
+        // the contents in stages are already excluded by the database
+        when(contentRepository.findWithoutStageByChapterIdIn(chapterIds)).thenReturn(mediaContentEntities.subList(2, 5));
 
         // execute method under test
         final List<List<Content>> result = contentService.getContentWithNoSection(chapterIds);
@@ -244,7 +218,7 @@ class ContentServiceTest {
         contentService.deleteContent(assessmentEntity.getId());
 
         verify(skillRepository, times(1)).delete(skillEntity);
-        verify(topicPublisher, times(1)).notifySkillEntityChanged(
+        verify(eventOutbox, times(1)).notifySkillEntityChanged(
                 SkillEntityChangedEvent.builder()
                         .skillId(skillEntity.getId())
                         .skillName(skillEntity.getSkillName())
@@ -288,10 +262,6 @@ class ContentServiceTest {
         contentService.deleteContent(assessmentEntity.getId());
 
         verify(skillRepository, never()).delete(any(SkillEntity.class));
-        verify(topicPublisher, never()).notifySkillEntityChanged(any(SkillEntityChangedEvent.class));
-    }
-
-    private StageEntity.StageEntityBuilder buildDummyStage() {
-        return StageEntity.builder().id(UUID.randomUUID()).position(0);
+        verify(eventOutbox, never()).notifySkillEntityChanged(any(SkillEntityChangedEvent.class));
     }
 }
\ No newline at end of file
@@ -0,0 +1,103 @@
+package de.unistuttgart.iste.meitrex.content_service.service;
+
+import de.unistuttgart.iste.meitrex.content_service.persistence.repository.StageRepository;
+import de.unistuttgart.iste.meitrex.content_service.persistence.repository.StageRepository.ContentStageLink;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.*;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ContentStageIndexTest {
+
+    private final StageRepository stageRepository = Mockito.mock(StageRepository.class);
+
+    private final ContentStageIndex contentStageIndex = new ContentStageIndex(stageRepository, Duration.ofMinutes(30), 100);
+
+    /**
+     * Given a content in a stage and a content without stage
+     * When their stages are looked up twice
+     * Then they are loaded with one query the first time and taken from the index the second time
+     */
+    @Test
+    void testStageLinksAreLoadedOnce() {
+        final UUID contentId = UUID.randomUUID();
+        final UUID contentWithoutStageId = UUID.randomUUID();
+        final UUID stageId = UUID.randomUUID();
+        doReturn(List.of(link(contentId, stageId, true))).when(stageRepository).findStageLinksByContentIds(any());
+
+        final Map<UUID, Optional<ContentStageIndex.StageLink>> actual =
+                contentStageIndex.getStageLinks(List.of(contentId, contentWithoutStageId));
+        contentStageIndex.findStageLink(contentId);
+        contentStageIndex.findStageLink(contentWithoutStageId);
+
+        assertThat(actual.get(contentId), is(Optional.of(new ContentStageIndex.StageLink(stageId, true))));
+        assertThat(actual.get(contentWithoutStageId), is(Optional.empty()));
+        verify(stageRepository, times(1)).findStageLinksByContentIds(Set.of(contentId, contentWithoutStageId));
+    }
+
+    /**
+     * Given a cached content
+     * When it is invalidated
+     * Then its stage is loaded again on next access
+     */
+    @Test
+    void testInvalidatedContentIsLoadedAgain() {
+        final UUID contentId = UUID.randomUUID();
+        doReturn(List.of()).when(stageRepository).findStageLinksByContentIds(any());
+
+        contentStageIndex.findStageLink(contentId);
+        contentStageIndex.invalidate(List.of(contentId));
+        contentStageIndex.findStageLink(contentId);
+
+        verify(stageRepository, times(2)).findStageLinksByContentIds(Set.of(contentId));
+    }
+
+    /**
+     * Given a content whose stage is being loaded
+     * When the content is invalidated while it is loaded
+     * Then the loaded stage is returned but not cached, so it is loaded again on next access
+     */
+    @Test
+    void testContentInvalidatedWhileLoadingIsNotCached() {
+        final UUID contentId = UUID.randomUUID();
+        doAnswer(invocation -> {
+            contentStageIndex.invalidate(List.of(contentId));
+            return List.of();
+        }).doReturn(List.of()).when(stageRepository).findStageLinksByContentIds(any());
+
+        assertThat(contentStageIndex.findStageLink(contentId), is(Optional.empty()));
+        contentStageIndex.findStageLink(contentId);
+        contentStageIndex.findStageLink(contentId);
+
+        verify(stageRepository, times(2)).findStageLinksByContentIds(Set.of(contentId));
+    }
+
+    /**
+     * Given a content which is part of two stages
+     * When its stage is looked up
+     * Then an exception is thrown
+     */
+    @Test
+    void testContentInMultipleStagesIsRejected() {
+        final UUID contentId = UUID.randomUUID();
+        doReturn(List.of(link(contentId, UUID.randomUUID(), true), link(contentId, UUID.randomUUID(), false)))
+                .when(stageRepository).findStageLinksByContentIds(any());
+
+        assertThrows(IllegalStateException.class, () -> contentStageIndex.findStageLink(contentId));
+    }
+
+    private static ContentStageLink link(final UUID contentId, final UUID stageId, final boolean required) {
+        final ContentStageLink link = mock(ContentStageLink.class);
+        doReturn(contentId).when(link).getContentId();
+        doReturn(stageId).when(link).getStageId();
+        doReturn(required).when(link).isRequired();
+        return link;
+    }
+}
@@ -0,0 +1,74 @@
+package de.unistuttgart.iste.meitrex.content_service.service;
+
+import de.unistuttgart.iste.meitrex.content_service.persistence.entity.ContentEntity;
+import de.unistuttgart.iste.meitrex.content_service.persistence.entity.MediaContentEntity;
+import de.unistuttgart.iste.meitrex.content_service.persistence.mapper.ContentMapper;
+import de.unistuttgart.iste.meitrex.content_service.persistence.repository.ContentRepository;
+import de.unistuttgart.iste.meitrex.content_service.persistence.repository.ContentRepository.ChapterCourseLink;
+import de.unistuttgart.iste.meitrex.content_service.persistence.repository.SectionRepository;
+import de.unistuttgart.iste.meitrex.generated.dto.ContentMetadata;
+import de.unistuttgart.iste.meitrex.generated.dto.MediaContent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CourseCatalogCacheTest {
+
+    private final ContentRepository contentRepository = mock(ContentRepository.class);
+    private final SectionRepository sectionRepository = mock(SectionRepository.class);
+    private final ContentMapper contentMapper = mock(ContentMapper.class);
+
+    private final CourseCatalogCache courseCatalogCache = new CourseCatalogCache(contentRepository, sectionRepository,
+            contentMapper, new SimpleMeterRegistry(), Duration.ofMinutes(10), 100, 100);
+
+    private final UUID courseId = UUID.randomUUID();
+    private final UUID chapterId = UUID.randomUUID();
+
+    /**
+     * Given the catalog of a course has been loaded for one of its chapters
+     * When the course is invalidated and the chapter has been deleted in the meantime
+     * Then the course of the chapter is looked up again and the chapter is no longer part of the result
+     */
+    @Test
+    void testInvalidationDropsCourseOfChapter() {
+        final ContentEntity contentEntity = MediaContentEntity.builder().id(UUID.randomUUID()).build();
+        doReturn(List.of(contentEntity)).when(contentRepository).findByCourseIdIn(List.of(courseId));
+        doReturn(MediaContent.builder()
+                .setId(contentEntity.getId())
+                .setMetadata(ContentMetadata.builder().setChapterId(chapterId).setCourseId(courseId).build())
+                .build())
+                .when(contentMapper).entityToDto(contentEntity);
+        doReturn(List.of(new Link(chapterId, courseId))).when(contentRepository).findChapterCourseLinks(any());
+
+        assertThat(courseCatalogCache.getCatalogsOfChapters(List.of(chapterId)), hasKey(chapterId));
+        // the course of the chapter is cached now
+        assertThat(courseCatalogCache.getCatalogsOfChapters(List.of(chapterId)), hasKey(chapterId));
+        verify(contentRepository, times(1)).findChapterCourseLinks(any());
+
+        doReturn(List.of()).when(contentRepository).findChapterCourseLinks(any());
+        courseCatalogCache.invalidate(List.of(courseId));
+
+        assertThat(courseCatalogCache.getCatalogsOfChapters(List.of(chapterId)), is(anEmptyMap()));
+        verify(contentRepository, times(2)).findChapterCourseLinks(any());
+    }
+
+    private record Link(UUID chapterId, UUID courseId) implements ChapterCourseLink {
+        @Override
+        public UUID getChapterId() {
+            return chapterId;
+        }
+
+        @Override
+        public UUID getCourseId() {
+            return courseId;
+        }
+    }
+}
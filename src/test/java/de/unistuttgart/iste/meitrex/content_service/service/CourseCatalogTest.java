@@ -0,0 +1,115 @@
+package de.unistuttgart.iste.meitrex.content_service.service;
+
+import de.unistuttgart.iste.meitrex.generated.dto.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class CourseCatalogTest {
+
+    private final UUID courseId = UUID.randomUUID();
+    private final UUID chapterId = UUID.randomUUID();
+    private final UUID otherChapterId = UUID.randomUUID();
+
+    /**
+     * Given contents of two chapters
+     * When the contents of each chapter are requested
+     * Then only the contents of the chapter are returned, in the order in which they were loaded
+     */
+    @Test
+    void testContentsAreGroupedByChapter() {
+        final Content first = buildContent(chapterId);
+        final Content other = buildContent(otherChapterId);
+        final Content second = buildContent(chapterId);
+
+        final CourseCatalog catalog = CourseCatalog.of(courseId, List.of(first, other, second), List.of());
+
+        assertThat(catalog.getContents(), contains(first, other, second));
+        assertThat(catalog.getContentsOfChapter(chapterId), contains(first, second));
+        assertThat(catalog.getContentsOfChapter(otherChapterId), contains(other));
+        assertThat(catalog.getContentsOfChapter(UUID.randomUUID()), is(empty()));
+        assertThat(catalog.getChapterIds(), contains(chapterId, otherChapterId));
+    }
+
+    /**
+     * Given sections of two chapters, one of them without contents
+     * When the sections of each chapter are requested
+     * Then the sections of the chapter are returned in the given order
+     */
+    @Test
+    void testSectionsAreGroupedByChapter() {
+        final Section first = buildSection(chapterId);
+        final Section other = buildSection(otherChapterId);
+        final Section second = buildSection(chapterId);
+
+        final CourseCatalog catalog = CourseCatalog.of(courseId, List.of(), List.of(first, other, second));
+
+        assertThat(catalog.getSections(), contains(first, other, second));
+        assertThat(catalog.getSectionsOfChapter(chapterId), contains(first, second));
+        assertThat(catalog.getSectionsOfChapter(otherChapterId), contains(other));
+        assertThat(catalog.getSectionsOfChapter(UUID.randomUUID()), is(empty()));
+    }
+
+    /**
+     * Given a section with two stages with required and optional contents and a content without stage
+     * When the stage of each content is looked up
+     * Then the stage containing the content is found and only required contents are marked as required
+     */
+    @Test
+    void testStageAndRequiredStateOfContents() {
+        final Content required = buildContent(chapterId);
+        final Content optional = buildContent(chapterId);
+        final Content inSecondStage = buildContent(chapterId);
+        final Content withoutStage = buildContent(chapterId);
+        final Stage firstStage = buildStage(List.of(required), List.of(optional));
+        final Stage secondStage = buildStage(List.of(inSecondStage), List.of());
+        final Section section = buildSection(chapterId, firstStage, secondStage);
+
+        final CourseCatalog catalog = CourseCatalog.of(courseId,
+                List.of(required, optional, inSecondStage, withoutStage), List.of(section));
+
+        assertThat(catalog.findStageOfContent(required.getId()), is(Optional.of(firstStage)));
+        assertThat(catalog.findStageOfContent(optional.getId()), is(Optional.of(firstStage)));
+        assertThat(catalog.findStageOfContent(inSecondStage.getId()), is(Optional.of(secondStage)));
+        assertThat(catalog.findStageOfContent(withoutStage.getId()), is(Optional.empty()));
+        assertThat(catalog.findStageOfContent(UUID.randomUUID()), is(Optional.empty()));
+
+        assertThat(catalog.isRequired(required.getId()), is(true));
+        assertThat(catalog.isRequired(inSecondStage.getId()), is(true));
+        assertThat(catalog.isRequired(optional.getId()), is(false));
+        assertThat(catalog.isRequired(withoutStage.getId()), is(false));
+        assertThat(catalog.isRequired(UUID.randomUUID()), is(false));
+    }
+
+    private Section buildSection(final UUID chapterId, final Stage... stages) {
+        return Section.builder()
+                .setId(UUID.randomUUID())
+                .setCourseId(courseId)
+                .setChapterId(chapterId)
+                .setStages(List.of(stages))
+                .build();
+    }
+
+    private static Stage buildStage(final List<Content> requiredContents, final List<Content> optionalContents) {
+        return Stage.builder()
+                .setId(UUID.randomUUID())
+                .setRequiredContents(requiredContents)
+                .setOptionalContents(optionalContents)
+                .build();
+    }
+
+    private Content buildContent(final UUID chapterId) {
+        return MediaContent.builder()
+                .setId(UUID.randomUUID())
+                .setMetadata(ContentMetadata.builder()
+                        .setCourseId(courseId)
+                        .setChapterId(chapterId)
+                        .build())
+                .build();
+    }
+}
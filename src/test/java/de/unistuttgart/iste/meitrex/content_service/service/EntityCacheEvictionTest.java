@@ -0,0 +1,133 @@
+package de.unistuttgart.iste.meitrex.content_service.service;
+
+import de.unistuttgart.iste.meitrex.content_service.TestData;
+import de.unistuttgart.iste.meitrex.content_service.persistence.entity.ContentEntity;
+import de.unistuttgart.iste.meitrex.content_service.persistence.repository.ContentRepository;
+import de.unistuttgart.iste.meitrex.content_service.persistence.repository.UserProgressDataRepository;
+import de.unistuttgart.iste.meitrex.generated.dto.Content;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests the second-level cache of contents with the configuration of the service. This test is intentionally not
+ * transactional, because contents are only cached after the transaction which created them has been committed.
+ */
+@Testcontainers
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=true",
+        "spring.jpa.properties.hibernate.cache.region.factory_class=jcache",
+        "spring.jpa.properties.hibernate.javax.cache.provider=com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider",
+        "spring.jpa.properties.hibernate.javax.cache.missing_cache_strategy=create",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+})
+class EntityCacheEvictionTest {
+
+    @Autowired
+    private ContentService contentService;
+    @Autowired
+    private EntityCacheEviction entityCacheEviction;
+    @Autowired
+    private ContentRepository contentRepository;
+    @Autowired
+    private UserProgressDataRepository userProgressDataRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private ContentEntity content;
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        content = contentRepository.save(TestData.buildContentEntity(UUID.randomUUID(), UUID.randomUUID()));
+        // load the content once, so that it is cached
+        contentService.getContentsById(List.of(content.getId()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        userProgressDataRepository.deleteAll(
+                userProgressDataRepository.findByUserIdAndContentIdIn(userId, List.of(content.getId())));
+        contentRepository.findById(content.getId()).ifPresent(contentRepository::delete);
+    }
+
+    /**
+     * Given a content which has been loaded before
+     * When it is loaded again
+     * Then it is taken from the second-level cache
+     */
+    @Test
+    void testContentIsLoadedFromCache() {
+        final Statistics statistics = getStatistics();
+        statistics.clear();
+
+        final List<Content> contents = contentService.getContentsById(List.of(content.getId()));
+
+        assertThat(contents, hasSize(1));
+        assertThat(getCache().containsEntity(ContentEntity.class, content.getId()), is(true));
+        assertThat(statistics.getSecondLevelCacheHitCount(), is(greaterThan(0L)));
+    }
+
+    /**
+     * Given a cached content
+     * When a tag is added to it
+     * Then the tag is part of the content when it is loaded again
+     */
+    @Test
+    void testChangedTagsAreNotTakenFromCache() {
+        contentService.addTagToContent(content.getId(), "newTag");
+
+        final List<Content> contents = contentService.getContentsById(List.of(content.getId()));
+        final List<List<Content>> contentsOfChapter = contentService.getContentsByChapterIds(
+                List.of(content.getMetadata().getChapterId()));
+
+        assertThat(contents.get(0).getMetadata().getTagNames(), contains("newTag"));
+        assertThat(contentsOfChapter.get(0).get(0).getMetadata().getTagNames(), contains("newTag"));
+    }
+
+    /**
+     * Given a cached content
+     * When it is evicted
+     * Then it is no longer cached
+     */
+    @Test
+    void testEvictContents() {
+        entityCacheEviction.evictContents(List.of(content.getId()));
+
+        assertThat(getCache().containsEntity(ContentEntity.class, content.getId()), is(false));
+    }
+
+    /**
+     * Given a cached content
+     * When progress data is inserted with a native statement
+     * Then the content stays cached, because the statement declares the tables it changes
+     */
+    @Test
+    void testNativeProgressInsertDoesNotClearCache() {
+        userProgressDataRepository.insertInitialUserProgressData(userId, List.of(content.getId()));
+
+        assertThat(getCache().containsEntity(ContentEntity.class, content.getId()), is(true));
+    }
+
+    private Cache getCache() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+
+    private Statistics getStatistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
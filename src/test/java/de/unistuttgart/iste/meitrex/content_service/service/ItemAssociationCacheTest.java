@@ -0,0 +1,95 @@
+package de.unistuttgart.iste.meitrex.content_service.service;
+
+import de.unistuttgart.iste.meitrex.content_service.persistence.entity.ItemEntity;
+import de.unistuttgart.iste.meitrex.content_service.persistence.entity.SkillEntity;
+import de.unistuttgart.iste.meitrex.content_service.persistence.repository.ItemRepository;
+import de.unistuttgart.iste.meitrex.generated.dto.BloomLevel;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.*;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ItemAssociationCacheTest {
+
+    private final ItemRepository itemRepository = Mockito.mock(ItemRepository.class);
+
+    private final ItemAssociationCache itemAssociationCache = new ItemAssociationCache(itemRepository, 2);
+
+    /**
+     * Given items which are not cached
+     * When their associations are requested twice
+     * Then they are loaded in one query the first time and taken from the cache the second time
+     */
+    @Test
+    void testItemsAreLoadedOnceInOneQuery() {
+        final ItemEntity item = buildItem();
+        final ItemEntity otherItem = buildItem();
+        doReturn(List.of(item, otherItem)).when(itemRepository).findWithSkillsByIdIn(any());
+
+        final Map<UUID, ItemAssociationCache.ItemAssociations> actual =
+                itemAssociationCache.getItemAssociations(List.of(item.getId(), otherItem.getId()));
+        itemAssociationCache.getItemAssociations(List.of(item.getId(), otherItem.getId()));
+
+        assertThat(actual.get(item.getId()).skillIds(), contains(item.getAssociatedSkills().getFirst().getId()));
+        assertThat(actual.get(item.getId()).bloomLevels(), contains(BloomLevel.REMEMBER));
+        verify(itemRepository, times(1)).findWithSkillsByIdIn(Set.of(item.getId(), otherItem.getId()));
+    }
+
+    /**
+     * Given a cached item
+     * When it is invalidated
+     * Then it is loaded again on next access
+     */
+    @Test
+    void testInvalidatedItemIsLoadedAgain() {
+        final ItemEntity item = buildItem();
+        doReturn(List.of(item)).when(itemRepository).findWithSkillsByIdIn(any());
+
+        itemAssociationCache.getItemAssociations(List.of(item.getId()));
+        itemAssociationCache.invalidate(List.of(item.getId()));
+        itemAssociationCache.getItemAssociations(List.of(item.getId()));
+
+        verify(itemRepository, times(2)).findWithSkillsByIdIn(Set.of(item.getId()));
+    }
+
+    /**
+     * Given the cache is full
+     * When another item is loaded
+     * Then the least recently used item is evicted
+     */
+    @Test
+    void testLeastRecentlyUsedItemIsEvicted() {
+        final ItemEntity first = buildItem();
+        final ItemEntity second = buildItem();
+        final ItemEntity third = buildItem();
+        doReturn(List.of(first)).when(itemRepository).findWithSkillsByIdIn(Set.of(first.getId()));
+        doReturn(List.of(second)).when(itemRepository).findWithSkillsByIdIn(Set.of(second.getId()));
+        doReturn(List.of(third)).when(itemRepository).findWithSkillsByIdIn(Set.of(third.getId()));
+
+        itemAssociationCache.getItemAssociations(List.of(first.getId()));
+        itemAssociationCache.getItemAssociations(List.of(second.getId()));
+        // access the first item again, so that the second one is the least recently used
+        itemAssociationCache.getItemAssociations(List.of(first.getId()));
+        itemAssociationCache.getItemAssociations(List.of(third.getId()));
+
+        itemAssociationCache.getItemAssociations(List.of(first.getId()));
+        itemAssociationCache.getItemAssociations(List.of(second.getId()));
+
+        verify(itemRepository, times(1)).findWithSkillsByIdIn(Set.of(first.getId()));
+        verify(itemRepository, times(2)).findWithSkillsByIdIn(Set.of(second.getId()));
+    }
+
+    private static ItemEntity buildItem() {
+        final SkillEntity skill = new SkillEntity(UUID.randomUUID(), "skill", "category", false);
+        return ItemEntity.builder()
+                .id(UUID.randomUUID())
+                .associatedSkills(new ArrayList<>(List.of(skill)))
+                .associatedBloomLevels(new ArrayList<>(List.of(BloomLevel.REMEMBER)))
+                .build();
+    }
+}
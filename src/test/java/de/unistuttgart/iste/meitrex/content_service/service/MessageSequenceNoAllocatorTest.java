@@ -0,0 +1,38 @@
+package de.unistuttgart.iste.meitrex.content_service.service;
+
+import de.unistuttgart.iste.meitrex.content_service.persistence.migration.MessageSequenceNoMigration;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class MessageSequenceNoAllocatorTest {
+
+    private final JdbcTemplate jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+
+    private final MessageSequenceNoAllocator messageSequenceNoAllocator = new MessageSequenceNoAllocator(jdbcTemplate);
+
+    /**
+     * Given a database sequence which is incremented by the allocation size
+     * When sequence numbers are allocated
+     * Then the sequence is only queried once per block and the numbers are consecutive within a block
+     */
+    @Test
+    void testSequenceNumbersAreAllocatedInBlocks() {
+        final long blockSize = MessageSequenceNoMigration.ALLOCATION_SIZE;
+        doReturn(1L, 1 + blockSize).when(jdbcTemplate).queryForObject(anyString(), eq(Long.class));
+
+        for (long expected = 1; expected <= blockSize; expected++) {
+            assertThat(messageSequenceNoAllocator.next(), is(expected));
+        }
+        verify(jdbcTemplate, times(1)).queryForObject(anyString(), eq(Long.class));
+
+        assertThat(messageSequenceNoAllocator.next(), is(1 + blockSize));
+        verify(jdbcTemplate, times(2)).queryForObject(anyString(), eq(Long.class));
+    }
+}
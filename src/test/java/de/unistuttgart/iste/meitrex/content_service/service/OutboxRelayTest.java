@@ -0,0 +1,191 @@
+package de.unistuttgart.iste.meitrex.content_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.unistuttgart.iste.meitrex.common.dapr.TopicPublisher;
+import de.unistuttgart.iste.meitrex.common.event.CourseCompletedEvent;
+import de.unistuttgart.iste.meitrex.common.event.CrudOperation;
+import de.unistuttgart.iste.meitrex.content_service.persistence.entity.OutboxEventEntity;
+import de.unistuttgart.iste.meitrex.content_service.persistence.entity.OutboxEventEntity.EventType;
+import de.unistuttgart.iste.meitrex.content_service.persistence.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class OutboxRelayTest {
+
+    private final OutboxEventRepository outboxEventRepository = Mockito.mock(OutboxEventRepository.class);
+    private final TopicPublisher topicPublisher = Mockito.mock(TopicPublisher.class);
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final CacheInvalidationTransport cacheInvalidationTransport = Mockito.mock(CacheInvalidationTransport.class);
+
+    private final TransactionTemplate transactionTemplate =
+            new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class));
+
+    private final OutboxRelay outboxRelay = new OutboxRelay(outboxEventRepository, topicPublisher, objectMapper,
+            cacheInvalidationTransport, transactionTemplate);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(outboxRelay, "batchSize", 100);
+        ReflectionTestUtils.setField(outboxRelay, "claimDuration", Duration.ofMinutes(1));
+        doReturn(true).when(outboxEventRepository).tryAcquireTransactionLock(anyLong());
+    }
+
+    /**
+     * Given due events in the outbox
+     * When the events are relayed
+     * Then they are published and deleted
+     */
+    @Test
+    void testEventsArePublishedAndDeleted() throws Exception {
+        final UUID contentId = UUID.randomUUID();
+        final CourseCompletedEvent courseCompletedEvent = CourseCompletedEvent.builder()
+                .userId(UUID.randomUUID())
+                .courseId(UUID.randomUUID())
+                .build();
+        final OutboxEventEntity contentChanged = buildEvent(1L, contentId, EventType.CONTENT_CHANGED,
+                new EventOutbox.ContentChanges(List.of(contentId), CrudOperation.DELETE));
+        final OutboxEventEntity courseCompleted = buildEvent(2L, courseCompletedEvent.getUserId(),
+                EventType.COURSE_COMPLETED, courseCompletedEvent);
+        doReturn(List.of(contentChanged, courseCompleted)).when(outboxEventRepository).findDueEvents(any(), any());
+
+        assertThat(outboxRelay.relayEvents(), is(2));
+
+        verify(topicPublisher).notifyContentChanges(List.of(contentId), CrudOperation.DELETE);
+        verify(topicPublisher).notifyCourseCompleted(courseCompletedEvent);
+        verify(outboxEventRepository).deleteAllInBatch(List.of(contentChanged, courseCompleted));
+    }
+
+    /**
+     * Given due events in the outbox
+     * When the events are claimed
+     * Then they are not due anymore until the claim expires
+     */
+    @Test
+    void testEventsAreClaimedBeforePublishing() throws Exception {
+        final CourseCompletedEvent courseCompletedEvent = CourseCompletedEvent.builder()
+                .userId(UUID.randomUUID())
+                .courseId(UUID.randomUUID())
+                .build();
+        final OutboxEventEntity event = buildEvent(1L, courseCompletedEvent.getUserId(),
+                EventType.COURSE_COMPLETED, courseCompletedEvent);
+        doReturn(List.of(event)).when(outboxEventRepository).findDueEvents(any(), any());
+        final List<OffsetDateTime> nextAttemptsWhilePublishing = new ArrayList<>();
+        doAnswer(invocation -> nextAttemptsWhilePublishing.add(event.getNextAttemptAt()))
+                .when(topicPublisher).notifyCourseCompleted(courseCompletedEvent);
+
+        final OffsetDateTime before = OffsetDateTime.now();
+        assertThat(outboxRelay.relayEvents(), is(1));
+
+        assertThat(nextAttemptsWhilePublishing, hasSize(1));
+        assertThat(nextAttemptsWhilePublishing.getFirst().isAfter(before.plusSeconds(59)), is(true));
+    }
+
+    /**
+     * Given two events of the same aggregate and publishing the first one fails
+     * When the events are relayed
+     * Then the second event is held back and the first one is scheduled for a retry
+     */
+    @Test
+    void testFailedEventBlocksLaterEventsOfAggregate() throws Exception {
+        final UUID userId = UUID.randomUUID();
+        final CourseCompletedEvent firstEvent = CourseCompletedEvent.builder()
+                .userId(userId)
+                .courseId(UUID.randomUUID())
+                .build();
+        final CourseCompletedEvent secondEvent = CourseCompletedEvent.builder()
+                .userId(userId)
+                .courseId(UUID.randomUUID())
+                .build();
+        final OutboxEventEntity first = buildEvent(1L, userId, EventType.COURSE_COMPLETED, firstEvent);
+        final OutboxEventEntity second = buildEvent(2L, userId, EventType.COURSE_COMPLETED, secondEvent);
+        doReturn(List.of(first, second)).when(outboxEventRepository).findDueEvents(any(), any());
+        doThrow(new IllegalStateException("dapr unavailable")).when(topicPublisher).notifyCourseCompleted(firstEvent);
+
+        final OffsetDateTime before = OffsetDateTime.now();
+        assertThat(outboxRelay.relayEvents(), is(0));
+
+        verify(topicPublisher, never()).notifyCourseCompleted(secondEvent);
+        verify(outboxEventRepository).deleteAllInBatch(List.of());
+        verify(outboxEventRepository).saveAll(List.of(first, second));
+        assertThat(first.getAttempts(), is(1));
+        assertThat(first.getNextAttemptAt().isAfter(before), is(true));
+        assertThat(first.getLastError(), is("dapr unavailable"));
+        // the claim of the held back event is released, it is due as soon as the first one has been published
+        assertThat(second.getAttempts(), is(0));
+        assertThat(second.getNextAttemptAt().isAfter(OffsetDateTime.now()), is(false));
+    }
+
+    /**
+     * Given a cache invalidation in the outbox
+     * When the events are relayed
+     * Then it is published to the cache invalidation transport instead of the topic publisher
+     */
+    @Test
+    void testCacheInvalidationIsPublishedToTransport() throws Exception {
+        final CacheInvalidation invalidation = CacheInvalidation.builder()
+                .courseId(UUID.randomUUID())
+                .contentId(UUID.randomUUID())
+                .build();
+        final CacheInvalidationBus.Message message =
+                new CacheInvalidationBus.Message(UUID.randomUUID(), OffsetDateTime.now(), invalidation);
+        final OutboxEventEntity event = buildEvent(1L, UUID.randomUUID(), EventType.CACHE_INVALIDATION, message);
+        doReturn(List.of(event)).when(outboxEventRepository).findDueEvents(any(), any());
+
+        assertThat(outboxRelay.relayEvents(), is(1));
+
+        final ArgumentCaptor<CacheInvalidationBus.Message> captor =
+                ArgumentCaptor.forClass(CacheInvalidationBus.Message.class);
+        verify(cacheInvalidationTransport).publish(captor.capture());
+        assertThat(captor.getValue().instanceId(), is(message.instanceId()));
+        assertThat(captor.getValue().invalidation(), is(invalidation));
+        verifyNoInteractions(topicPublisher);
+        verify(outboxEventRepository).deleteAllInBatch(List.of(event));
+    }
+
+    /**
+     * Given another instance is relaying events
+     * When the events are relayed
+     * Then nothing is published
+     */
+    @Test
+    void testNothingIsPublishedWithoutLock() {
+        doReturn(false).when(outboxEventRepository).tryAcquireTransactionLock(anyLong());
+
+        assertThat(outboxRelay.relayEvents(), is(0));
+
+        verify(outboxEventRepository, never()).findDueEvents(any(), any());
+        verify(outboxEventRepository, never()).deleteAllInBatch(any());
+        verifyNoInteractions(topicPublisher);
+    }
+
+    private OutboxEventEntity buildEvent(final long id,
+                                         final UUID aggregateId,
+                                         final EventType eventType,
+                                         final Object event) throws Exception {
+        final OffsetDateTime now = OffsetDateTime.now();
+        return OutboxEventEntity.builder()
+                .id(id)
+                .aggregateId(aggregateId)
+                .eventType(eventType)
+                .payload(objectMapper.writeValueAsString(event))
+                .createdAt(now)
+                .nextAttemptAt(now)
+                .build();
+    }
+}
@@ -0,0 +1,147 @@
+package de.unistuttgart.iste.meitrex.content_service.service;
+
+import de.unistuttgart.iste.meitrex.content_service.TestData;
+import de.unistuttgart.iste.meitrex.content_service.persistence.entity.*;
+import de.unistuttgart.iste.meitrex.content_service.persistence.repository.ContentRepository;
+import de.unistuttgart.iste.meitrex.content_service.persistence.repository.SectionRepository;
+import de.unistuttgart.iste.meitrex.content_service.persistence.repository.StageRepository;
+import de.unistuttgart.iste.meitrex.generated.dto.Section;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Checks that loading the sections of a course with all their stages, contents, tags, items and skills needs the
+ * same number of statements regardless of the size of the course.
+ */
+@Testcontainers
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class SectionLoadingStatementCountTest {
+
+    @Autowired
+    private SectionService sectionService;
+    @Autowired
+    private SectionRepository sectionRepository;
+    @Autowired
+    private StageRepository stageRepository;
+    @Autowired
+    private ContentRepository contentRepository;
+    @Autowired
+    private EntityManager entityManager;
+
+    /**
+     * Given a course with one section, stage and content per stage list and a course with several of each
+     * When the sections of the courses are loaded
+     * Then the same number of statements is executed for both courses
+     */
+    @Test
+    void testStatementCountOfCourseDoesNotDependOnCourseSize() {
+        final UUID smallCourseId = UUID.randomUUID();
+        final UUID largeCourseId = UUID.randomUUID();
+        createCourse(smallCourseId, UUID.randomUUID(), 1, 1, 1);
+        createCourse(largeCourseId, UUID.randomUUID(), 3, 3, 4);
+
+        final List<Section> smallCourse = new ArrayList<>();
+        final long smallCourseStatements = countStatements(() ->
+                smallCourse.addAll(sectionService.getSectionsByCourseId(smallCourseId)));
+        final List<Section> largeCourse = new ArrayList<>();
+        final long largeCourseStatements = countStatements(() ->
+                largeCourse.addAll(sectionService.getSectionsByCourseId(largeCourseId)));
+
+        assertThat(smallCourse, hasSize(1));
+        assertThat(largeCourse, hasSize(3));
+        assertThat(largeCourse.get(0).getStages(), hasSize(3));
+        assertThat(largeCourse.get(0).getStages().get(0).getRequiredContents(), hasSize(4));
+        assertThat(largeCourseStatements, is(smallCourseStatements));
+    }
+
+    /**
+     * Given two chapters with different numbers of sections
+     * When the sections of the chapters are loaded
+     * Then the same number of statements is executed for both chapters
+     */
+    @Test
+    void testStatementCountOfChapterDoesNotDependOnChapterSize() {
+        final UUID smallChapterId = UUID.randomUUID();
+        final UUID largeChapterId = UUID.randomUUID();
+        createCourse(UUID.randomUUID(), smallChapterId, 1, 1, 1);
+        createCourse(UUID.randomUUID(), largeChapterId, 4, 2, 3);
+
+        final long smallChapterStatements = countStatements(() ->
+                sectionService.getSectionsByChapterIds(List.of(smallChapterId)));
+        final long largeChapterStatements = countStatements(() ->
+                sectionService.getSectionsByChapterIds(List.of(largeChapterId)));
+
+        assertThat(largeChapterStatements, is(smallChapterStatements));
+    }
+
+    private long countStatements(final Supplier<?> loader) {
+        // start with an empty persistence context, so that everything has to be loaded from the database
+        entityManager.flush();
+        entityManager.clear();
+
+        final Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+        loader.get();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void createCourse(final UUID courseId,
+                              final UUID chapterId,
+                              final int sectionCount,
+                              final int stagesPerSection,
+                              final int contentsPerStage) {
+        for (int sectionPosition = 0; sectionPosition < sectionCount; sectionPosition++) {
+            final SectionEntity section = sectionRepository.save(SectionEntity.builder()
+                    .name("Section " + sectionPosition)
+                    .position(sectionPosition)
+                    .chapterId(chapterId)
+                    .courseId(courseId)
+                    .stages(new HashSet<>())
+                    .build());
+
+            for (int stagePosition = 0; stagePosition < stagesPerSection; stagePosition++) {
+                final StageEntity stage = StageEntity.builder()
+                        .sectionId(section.getId())
+                        .position(stagePosition)
+                        .requiredContents(new HashSet<>())
+                        .optionalContents(new HashSet<>())
+                        .build();
+                for (int i = 0; i < contentsPerStage; i++) {
+                    stage.getRequiredContents().add(createMediaContent(courseId, chapterId));
+                    stage.getOptionalContents().add(createAssessment(courseId, chapterId));
+                }
+                section.getStages().add(stageRepository.save(stage));
+            }
+        }
+    }
+
+    private ContentEntity createMediaContent(final UUID courseId, final UUID chapterId) {
+        return contentRepository.save(TestData.dummyMediaContentEntityBuilder(courseId)
+                .metadata(TestData.dummyContentMetadataEmbeddableBuilder(courseId)
+                        .chapterId(chapterId)
+                        .tags(new HashSet<>(Set.of("tag1", "tag2")))
+                        .build())
+                .build());
+    }
+
+    private ContentEntity createAssessment(final UUID courseId, final UUID chapterId) {
+        final AssessmentEntity assessment = TestData.assessmentEntityWithItems(courseId, chapterId);
+        assessment.getMetadata().setTags(new HashSet<>(Set.of("tag")));
+        return contentRepository.save(assessment);
+    }
+}
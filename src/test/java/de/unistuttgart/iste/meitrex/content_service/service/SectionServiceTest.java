@@ -26,7 +26,11 @@ class SectionServiceTest {
     private final SectionMapper sectionMapper = new SectionMapper(stageMapper);
     private final SectionRepository sectionRepository = Mockito.mock(SectionRepository.class);
 
-    private final SectionService sectionService = new SectionService(sectionMapper, sectionRepository);
+    private final CourseCatalogCache courseCatalogCache = Mockito.mock(CourseCatalogCache.class);
+    private final CacheInvalidationBus cacheInvalidationBus = Mockito.mock(CacheInvalidationBus.class);
+
+    private final SectionService sectionService = new SectionService(sectionMapper, sectionRepository,
+            courseCatalogCache, cacheInvalidationBus);
 
     @Test
     void createSectionTest() {
@@ -99,6 +103,8 @@ class SectionServiceTest {
         final Section result = sectionService.updateSectionName(sectionId, newName);
 
         verify(sectionRepository, times(1)).save(newSectionEntity);
+        // sections are compared by ID only, so the new name is checked on the updated entity
+        assertEquals(newName, oldSectionEntity.getName());
 
         assertEquals(expectedResult, result);
         assertEquals(expectedResult.getId(), result.getId());
@@ -204,6 +210,8 @@ class SectionServiceTest {
         final Section result = sectionService.updateSectionName(sectionId, newName);
 
         verify(sectionRepository, times(1)).save(newSectionEntity);
+        // sections are compared by ID only, so the new name is checked on the updated entity
+        assertEquals(newName, oldSectionEntity.getName());
 
         assertEquals(expectedResult.getId(), result.getId());
         assertEquals(expectedResult.getName(), result.getName());
@@ -215,14 +223,23 @@ class SectionServiceTest {
     @Test
     void deleteSection() {
         final UUID input = UUID.randomUUID();
+        final UUID chapterId = UUID.randomUUID();
+        final UUID courseId = UUID.randomUUID();
 
         //mock database
         when(sectionRepository.existsById(input)).thenReturn(true);
+        when(sectionRepository.getReferenceById(input))
+                .thenReturn(SectionEntity.builder().id(input).chapterId(chapterId).courseId(courseId).build());
         doNothing().when(sectionRepository).deleteById(input);
 
         final UUID result = sectionService.deleteSection(input);
 
         verify(sectionRepository, times(1)).deleteById(input);
+        verify(cacheInvalidationBus, times(1)).broadcast(CacheInvalidation.builder()
+                .courseId(courseId)
+                .chapterId(chapterId)
+                .allContentStages(true)
+                .build());
         assertEquals(input, result);
     }
 
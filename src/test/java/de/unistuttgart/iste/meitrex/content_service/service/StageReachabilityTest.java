@@ -0,0 +1,131 @@
+package de.unistuttgart.iste.meitrex.content_service.service;
+
+import de.unistuttgart.iste.meitrex.generated.dto.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class StageReachabilityTest {
+
+    private final UserProgressDataService userProgressDataService = mock(UserProgressDataService.class);
+    private final UUID userId = UUID.randomUUID();
+    private final Set<UUID> learnedContentIds = new HashSet<>();
+
+    /**
+     * Given a section with three stages of which only the first one is completed
+     * When the reachability of the stages is resolved
+     * Then the first two stages are reachable
+     */
+    @Test
+    void testStageAfterCompletedStageIsReachable() {
+        final Content learned = buildContent();
+        final Content notLearned = buildContent();
+        final Content optional = buildContent();
+        learnedContentIds.add(learned.getId());
+
+        final Stage first = buildStage(List.of(learned), List.of());
+        final Stage second = buildStage(List.of(notLearned), List.of(optional));
+        final Stage third = buildStage(List.of(), List.of());
+        final Section section = buildSection(UUID.randomUUID(), first, second, third);
+        mockUserProgressData();
+
+        final StageReachability reachability = resolve(List.of(section));
+
+        assertThat(reachability.getReachableStages(), contains(first, second));
+        assertThat(reachability.isReachable(first.getId()), is(true));
+        assertThat(reachability.isReachable(second.getId()), is(true));
+        assertThat(reachability.isReachable(third.getId()), is(false));
+        assertThat(reachability.getRequiredContents(), contains(learned, notLearned));
+        assertThat(reachability.getOptionalContents(), contains(optional));
+    }
+
+    /**
+     * Given a section whose first stage is not completed, but whose second stage is
+     * When the reachability of the stages is resolved
+     * Then the third stage is reachable, but the stages up to the first incomplete stage only contain the first one
+     */
+    @Test
+    void testStagesUpToFirstIncompleteStageStopAtIncompleteStage() {
+        final Content learned = buildContent();
+        learnedContentIds.add(learned.getId());
+
+        final Stage first = buildStage(List.of(buildContent()), List.of());
+        final Stage second = buildStage(List.of(learned), List.of());
+        final Stage third = buildStage(List.of(), List.of());
+        mockUserProgressData();
+
+        final StageReachability reachability = resolve(List.of(buildSection(UUID.randomUUID(), first, second, third)));
+
+        assertThat(reachability.getReachableStages(), contains(first, third));
+        assertThat(reachability.getStagesUpToFirstIncompleteStage(), contains(first));
+    }
+
+    /**
+     * Given sections of two chapters
+     * When the reachability of their stages is resolved
+     * Then the progress of all required contents is loaded at once and the reachable stages are grouped by chapter
+     */
+    @Test
+    void testSectionsOfMultipleChaptersAreResolvedAtOnce() {
+        final UUID chapterId = UUID.randomUUID();
+        final UUID otherChapterId = UUID.randomUUID();
+        final Stage stage = buildStage(List.of(buildContent()), List.of());
+        final Stage otherStage = buildStage(List.of(buildContent()), List.of());
+        mockUserProgressData();
+
+        final StageReachability reachability = resolve(List.of(
+                buildSection(chapterId, stage),
+                buildSection(otherChapterId, otherStage)));
+
+        assertThat(reachability.getReachableStagesOfChapter(chapterId), contains(stage));
+        assertThat(reachability.getReachableStagesOfChapter(otherChapterId), contains(otherStage));
+        assertThat(reachability.getReachableStagesOfChapter(UUID.randomUUID()), is(empty()));
+        verify(userProgressDataService, times(1)).getUserProgressDataOfContents(eq(userId), any());
+    }
+
+    private StageReachability resolve(final List<Section> sections) {
+        return StageReachability.resolve(sections, new UserProgressSnapshot(userId, userProgressDataService));
+    }
+
+    private void mockUserProgressData() {
+        doAnswer(invocation -> {
+            final Collection<Content> contents = invocation.getArgument(1);
+            final Map<UUID, UserProgressData> result = new HashMap<>();
+            for (final Content content : contents) {
+                result.put(content.getId(), UserProgressData.builder()
+                        .setIsLearned(learnedContentIds.contains(content.getId()))
+                        .build());
+            }
+            return result;
+        }).when(userProgressDataService).getUserProgressDataOfContents(eq(userId), any());
+    }
+
+    private static Section buildSection(final UUID chapterId, final Stage... stages) {
+        return Section.builder()
+                .setId(UUID.randomUUID())
+                .setChapterId(chapterId)
+                .setStages(List.of(stages))
+                .build();
+    }
+
+    private static Stage buildStage(final List<Content> requiredContents, final List<Content> optionalContents) {
+        return Stage.builder()
+                .setId(UUID.randomUUID())
+                .setRequiredContents(requiredContents)
+                .setOptionalContents(optionalContents)
+                .build();
+    }
+
+    private static Content buildContent() {
+        return MediaContent.builder()
+                .setId(UUID.randomUUID())
+                .setMetadata(ContentMetadata.builder().build())
+                .build();
+    }
+}
@@ -26,11 +26,21 @@ class StageServiceTest {
 
     private final StageMapper stageMapper = new StageMapper(new ContentMapper(new ModelMapper()));
 
+    private final CompletionCounterService completionCounterService = Mockito.mock(CompletionCounterService.class);
+
+    private final ContentStageIndex contentStageIndex = Mockito.mock(ContentStageIndex.class);
+    private final CourseCatalogCache courseCatalogCache = Mockito.mock(CourseCatalogCache.class);
+    private final CacheInvalidationBus cacheInvalidationBus = Mockito.mock(CacheInvalidationBus.class);
+
     private final StageService stageService = new StageService(
             stageRepository,
             sectionRepository,
             contentRepository,
-            stageMapper);
+            stageMapper,
+            completionCounterService,
+            contentStageIndex,
+            courseCatalogCache,
+            cacheInvalidationBus);
 
     @Test
     void createNewStageTest() {
@@ -315,6 +325,57 @@ class StageServiceTest {
         assertEquals(1, result.getOptionalContents().size());
     }
 
+    @Test
+    void updateStageContentOfOtherStageTest() {
+        // content which is already part of a different stage
+        final UUID chapterId = UUID.randomUUID();
+        final UUID sectionId = UUID.randomUUID();
+        final UUID stageId = UUID.randomUUID();
+
+        final ContentEntity contentOfThisStage = buildContentEntity(chapterId);
+        final ContentEntity contentOfOtherStage = buildContentEntity(chapterId);
+        final List<ContentEntity> requiredContents = List.of(contentOfThisStage, contentOfOtherStage);
+
+        final StageEntity oldStageEntity = StageEntity.builder()
+                .id(stageId)
+                .position(0)
+                .sectionId(sectionId)
+                .requiredContents(new HashSet<>(Set.of(contentOfThisStage)))
+                .optionalContents(new HashSet<>())
+                .build();
+
+        final SectionEntity sectionEntity = SectionEntity.builder()
+                .id(sectionId)
+                .name("Test1")
+                .chapterId(chapterId)
+                .stages(Set.of(oldStageEntity))
+                .build();
+
+        final UpdateStageInput input = UpdateStageInput.builder()
+                .setId(stageId)
+                .setRequiredContents(requiredContents.stream().map(ContentEntity::getId).toList())
+                .setOptionalContents(new ArrayList<>())
+                .build();
+
+        final List<StageRepository.ContentStageLink> links = List.of(
+                buildContentStageLink(contentOfThisStage.getId(), stageId),
+                buildContentStageLink(contentOfOtherStage.getId(), UUID.randomUUID()));
+
+        //mock database
+        when(stageRepository.findById(input.getId())).thenReturn(Optional.of(oldStageEntity));
+        when(sectionRepository.findById(oldStageEntity.getSectionId())).thenReturn(Optional.of(sectionEntity));
+        when(stageRepository.findStageLinksByContentIds(input.getRequiredContents())).thenReturn(links);
+        when(contentRepository.findAllById(input.getRequiredContents())).thenReturn(requiredContents);
+        when(stageRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        //execute method under test
+        final Stage result = stageService.updateStage(input);
+
+        assertEquals(1, result.getRequiredContents().size());
+        assertEquals(contentOfThisStage.getId(), result.getRequiredContents().get(0).getId());
+        verify(sectionRepository, never()).findByChapterIdInOrderByPosition(any());
+    }
+
     @Test
     void deleteStageTest() {
         //init
@@ -362,6 +423,26 @@ class StageServiceTest {
         assertThrows(EntityNotFoundException.class, () -> stageService.deleteStage(uuid));
     }
 
+    @Test
+    void getRequiredContentsIdsTest() {
+        final UUID requiredContentId = UUID.randomUUID();
+        final UUID otherContentId = UUID.randomUUID();
+        final List<UUID> contentIds = List.of(requiredContentId, otherContentId);
+
+        when(stageRepository.findRequiredContentIdsIn(contentIds)).thenReturn(List.of(requiredContentId));
+
+        final Set<UUID> result = stageService.getRequiredContentsIds(contentIds);
+
+        assertEquals(Set.of(requiredContentId), result);
+        verify(stageRepository, never()).findAll();
+    }
+
+    @Test
+    void getRequiredContentsIdsWithoutContentsTest() {
+        assertTrue(stageService.getRequiredContentsIds(List.of()).isEmpty());
+        verifyNoInteractions(stageRepository);
+    }
+
     private ContentEntity buildContentEntity(final UUID chapterId) {
         return ContentEntity.builder()
                 .id(UUID.randomUUID())
@@ -376,6 +457,14 @@ class StageServiceTest {
                 ).build();
     }
 
+    private StageRepository.ContentStageLink buildContentStageLink(final UUID contentId, final UUID stageId) {
+        final StageRepository.ContentStageLink link = Mockito.mock(StageRepository.ContentStageLink.class);
+        when(link.getContentId()).thenReturn(contentId);
+        when(link.getStageId()).thenReturn(stageId);
+        when(link.isRequired()).thenReturn(true);
+        return link;
+    }
+
     private StageEntity buildStageEntity(final UUID sectionId, final int pos) {
         return StageEntity.builder()
                 .id(UUID.randomUUID())
@@ -0,0 +1,96 @@
+package de.unistuttgart.iste.meitrex.content_service.service;
+
+import de.unistuttgart.iste.meitrex.generated.dto.ContentMetadata;
+import de.unistuttgart.iste.meitrex.generated.dto.MediaContent;
+import de.unistuttgart.iste.meitrex.generated.dto.UserProgressData;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class SuggestionCandidateTest {
+
+    private final OffsetDateTime now = OffsetDateTime.now();
+
+    /**
+     * Given many candidates with random and partially equal sort keys
+     * When the best candidates are selected
+     * Then the result is the same as the first candidates of a completely sorted list
+     */
+    @Test
+    void testSelectBestMatchesFullSort() {
+        final Random random = new Random(42);
+        final List<SuggestionCandidate> candidates = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            candidates.add(buildCandidate(random.nextInt(10) - 5, random.nextBoolean(), random.nextInt(3), i));
+        }
+
+        for (final int k : List.of(1, 5, 50, 1000, 2000)) {
+            final List<SuggestionCandidate> expected = candidates.stream()
+                    .sorted(SuggestionCandidate.RANKING)
+                    .limit(k)
+                    .toList();
+
+            assertThat(SuggestionCandidate.selectBest(candidates, k), is(expected));
+        }
+    }
+
+    /**
+     * Given a new and a learned content which are due on the same day
+     * When the best candidate is selected
+     * Then the new content is selected
+     */
+    @Test
+    void testNewContentIsRankedBeforeRepetition() {
+        final SuggestionCandidate repetition = SuggestionCandidate.of(
+                MediaContent.builder().setId(UUID.randomUUID()).setMetadata(ContentMetadata.builder().build()).build(),
+                UserProgressData.builder().setIsLearned(true).setNextLearnDate(now.plusHours(1)).build(),
+                now, 0);
+        final SuggestionCandidate newContent = SuggestionCandidate.of(
+                MediaContent.builder()
+                        .setId(UUID.randomUUID())
+                        .setMetadata(ContentMetadata.builder().setSuggestedDate(now.plusHours(2)).build())
+                        .build(),
+                UserProgressData.builder().setIsLearned(false).build(),
+                now, 1);
+
+        assertThat(repetition.daysUntilDue(), is(0L));
+        assertThat(newContent.daysUntilDue(), is(0L));
+        assertThat(SuggestionCandidate.selectBest(List.of(repetition, newContent), 1), contains(newContent));
+    }
+
+    /**
+     * Given no candidates or a non-positive amount
+     * When the best candidates are selected
+     * Then the result is empty
+     */
+    @Test
+    void testSelectBestWithoutCandidates() {
+        assertThat(SuggestionCandidate.selectBest(List.of(), 5), is(empty()));
+        assertThat(SuggestionCandidate.selectBest(List.of(buildCandidate(0, true, 0, 0)), 0), is(empty()));
+    }
+
+    private SuggestionCandidate buildCandidate(final int daysUntilDue,
+                                               final boolean isNew,
+                                               final int rewardPoints,
+                                               final int position) {
+        final MediaContent content = MediaContent.builder()
+                .setId(UUID.randomUUID())
+                .setMetadata(ContentMetadata.builder()
+                        .setSuggestedDate(now.plusDays(daysUntilDue).plusHours(1))
+                        .setRewardPoints(rewardPoints)
+                        .build())
+                .build();
+        final UserProgressData progress = UserProgressData.builder()
+                .setIsLearned(!isNew)
+                .setNextLearnDate(now.plusDays(daysUntilDue).plusHours(1))
+                .build();
+        return SuggestionCandidate.of(content, progress, now, position);
+    }
+}
@@ -0,0 +1,71 @@
+package de.unistuttgart.iste.meitrex.content_service.service;
+
+import de.unistuttgart.iste.meitrex.content_service.service.SuggestionIndexCache.ChapterSuggestionIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Function;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class SuggestionIndexCacheTest {
+
+    private final SuggestionIndexCache suggestionIndexCache =
+            new SuggestionIndexCache(new SimpleMeterRegistry(), Duration.ofMinutes(5), 100);
+
+    private final UUID userId = UUID.randomUUID();
+    private final UUID otherUserId = UUID.randomUUID();
+    private final UUID chapterId = UUID.randomUUID();
+    private final UUID otherChapterId = UUID.randomUUID();
+
+    private final List<List<UUID>> loadedChapterIds = new ArrayList<>();
+
+    /**
+     * Given cached indexes of two users for two chapters
+     * When one chapter is invalidated
+     * Then the indexes of both users for this chapter are built again, but not the ones for the other chapter
+     */
+    @Test
+    void testInvalidateChaptersRemovesIndexesOfAllUsers() {
+        suggestionIndexCache.getIndexes(userId, List.of(chapterId, otherChapterId), this::load);
+        suggestionIndexCache.getIndexes(otherUserId, List.of(chapterId, otherChapterId), this::load);
+        loadedChapterIds.clear();
+
+        suggestionIndexCache.invalidateChapters(List.of(chapterId));
+        suggestionIndexCache.getIndexes(userId, List.of(chapterId, otherChapterId), this::load);
+        suggestionIndexCache.getIndexes(otherUserId, List.of(chapterId, otherChapterId), this::load);
+
+        assertThat(loadedChapterIds, contains(List.of(chapterId), List.of(chapterId)));
+    }
+
+    /**
+     * Given an index which is being built
+     * When the chapter is invalidated while the index is built
+     * Then the built index is returned but not cached, so it is built again on next access
+     */
+    @Test
+    void testIndexInvalidatedWhileBuildingIsNotCached() {
+        final Function<List<UUID>, Map<UUID, ChapterSuggestionIndex>> invalidatingLoader = chapterIds -> {
+            suggestionIndexCache.invalidate(userId, chapterId);
+            return load(chapterIds);
+        };
+
+        final List<ChapterSuggestionIndex> indexes =
+                suggestionIndexCache.getIndexes(userId, List.of(chapterId), invalidatingLoader);
+        suggestionIndexCache.getIndexes(userId, List.of(chapterId), this::load);
+        suggestionIndexCache.getIndexes(userId, List.of(chapterId), this::load);
+
+        assertThat(indexes, hasSize(1));
+        assertThat(loadedChapterIds, contains(List.of(chapterId), List.of(chapterId)));
+    }
+
+    private Map<UUID, ChapterSuggestionIndex> load(final List<UUID> chapterIds) {
+        loadedChapterIds.add(List.copyOf(chapterIds));
+        final Map<UUID, ChapterSuggestionIndex> result = new HashMap<>();
+        chapterIds.forEach(id -> result.put(id, new ChapterSuggestionIndex(List.of(), List.of(), Map.of())));
+        return result;
+    }
+}
@@ -1,11 +1,15 @@
 package de.unistuttgart.iste.meitrex.content_service.service;
 
+import de.unistuttgart.iste.meitrex.content_service.service.SuggestionIndexCache.ChapterSuggestionIndex;
 import de.unistuttgart.iste.meitrex.generated.dto.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.time.OffsetDateTime;
-import java.util.List;
-import java.util.UUID;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
 
 import static java.time.OffsetDateTime.now;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -17,7 +21,11 @@ class SuggestionServiceTest {
 
     private final SectionService sectionService = mock(SectionService.class);
     private final UserProgressDataService userProgressDataService = mock(UserProgressDataService.class);
-    private final SuggestionService suggestionService = new SuggestionService(sectionService, userProgressDataService);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SuggestionIndexCache suggestionIndexCache =
+            new SuggestionIndexCache(meterRegistry, Duration.ofMinutes(5), 1000);
+    private final SuggestionService suggestionService =
+            new SuggestionService(sectionService, userProgressDataService, suggestionIndexCache);
 
     @Test
     void testCreateSuggestionsNoSections() {
@@ -85,7 +93,7 @@ class SuggestionServiceTest {
 
         final UserProgressData userProgressData = UserProgressData.builder().setIsLearned(false).build();
 
-        doReturn(userProgressData).when(userProgressDataService).getUserProgressData(any(), any());
+        mockUserProgressData(userId, contentId -> userProgressData);
 
         // Act
         final List<Content> requiredContents = suggestionService.getAvailableRequiredContentsOfChaptersForUser(chapterIds, userId);
@@ -102,7 +110,7 @@ class SuggestionServiceTest {
         assertThat(actual.get(2).getType(), is(SuggestionType.NEW_CONTENT));
 
         // Verify
-        verify(userProgressDataService, atLeastOnce()).getUserProgressData(any(), any());
+        verify(userProgressDataService, atLeastOnce()).getUserProgressDataOfContents(eq(userId), any());
         verify(sectionService, times(2)).getSectionsByChapterIds(chapterIds);
     }
 
@@ -159,10 +167,11 @@ class SuggestionServiceTest {
         final UUID contentIdMinus1 = section.getStages().get(0).getRequiredContents().get(2).getId();
         final UUID contentIdPlus2 = section.getStages().get(0).getRequiredContents().get(3).getId();
 
-        doReturn(progressDataMinus5).when(userProgressDataService).getUserProgressData(userId, contentIdMinus5);
-        doReturn(progressDataMinus2).when(userProgressDataService).getUserProgressData(userId, contentIdMinus2);
-        doReturn(progressDataMinus1).when(userProgressDataService).getUserProgressData(userId, contentIdMinus1);
-        doReturn(progressDataPlus2).when(userProgressDataService).getUserProgressData(userId, contentIdPlus2);
+        mockUserProgressData(userId, Map.of(
+                contentIdMinus5, progressDataMinus5,
+                contentIdMinus2, progressDataMinus2,
+                contentIdMinus1, progressDataMinus1,
+                contentIdPlus2, progressDataPlus2)::get);
 
         // Act
         final List<Content> requiredContents = suggestionService.getAvailableRequiredContentsOfChaptersForUser(chapterIds, userId);
@@ -177,10 +186,9 @@ class SuggestionServiceTest {
         assertThat(actual.get(1).getType(), is(SuggestionType.REPETITION));
 
         // Verify
-        verify(userProgressDataService).getUserProgressData(userId, contentIdMinus5);
-        verify(userProgressDataService).getUserProgressData(userId, contentIdMinus2);
-        verify(userProgressDataService).getUserProgressData(userId, contentIdMinus1);
-        verify(userProgressDataService).getUserProgressData(userId, contentIdPlus2);
+        verify(userProgressDataService, atLeastOnce()).getUserProgressDataOfContents(eq(userId), any());
+        // progress data must be loaded in bulk, not content by content
+        verify(userProgressDataService, never()).getUserProgressData(any(), any());
     }
 
     /**
@@ -214,7 +222,7 @@ class SuggestionServiceTest {
                 .setNextLearnDate(now().plusDays(1))
                 .build();
 
-        doReturn(progressNotDueForRepetition).when(userProgressDataService).getUserProgressData(any(), any());
+        mockUserProgressData(userId, contentId -> progressNotDueForRepetition);
 
         // Act
         final List<Content> requiredContents = suggestionService.getAvailableRequiredContentsOfChaptersForUser(chapterIds, userId);
@@ -225,7 +233,7 @@ class SuggestionServiceTest {
         assertThat(actual, is(empty()));
 
         // Verify
-        verify(userProgressDataService, atLeastOnce()).getUserProgressData(any(), any());
+        verify(userProgressDataService, atLeastOnce()).getUserProgressDataOfContents(eq(userId), any());
     }
 
     /**
@@ -257,7 +265,7 @@ class SuggestionServiceTest {
 
         final UserProgressData userProgressData = UserProgressData.builder().setIsLearned(false).build();
 
-        doReturn(userProgressData).when(userProgressDataService).getUserProgressData(any(), any());
+        mockUserProgressData(userId, contentId -> userProgressData);
 
         // Act
         final List<Content> requiredContents = suggestionService.getAvailableRequiredContentsOfChaptersForUser(chapterIds, userId);
@@ -271,7 +279,7 @@ class SuggestionServiceTest {
         assertThat(actual, hasSize(3));
 
         // Verify
-        verify(userProgressDataService, atLeastOnce()).getUserProgressData(any(), any());
+        verify(userProgressDataService, atLeastOnce()).getUserProgressDataOfContents(eq(userId), any());
         verify(sectionService, times(2)).getSectionsByChapterIds(chapterIds);
     }
 
@@ -306,8 +314,9 @@ class SuggestionServiceTest {
         final UUID contentIdNew = section.getStages().get(0).getRequiredContents().get(0).getId();
         final UUID contentIdRepetition = section.getStages().get(0).getRequiredContents().get(1).getId();
 
-        doReturn(progressDataNew).when(userProgressDataService).getUserProgressData(userId, contentIdNew);
-        doReturn(progressDataRepetition).when(userProgressDataService).getUserProgressData(userId, contentIdRepetition);
+        mockUserProgressData(userId, Map.of(
+                contentIdNew, progressDataNew,
+                contentIdRepetition, progressDataRepetition)::get);
 
         // Act
         final List<Content> requiredContents = suggestionService.getAvailableRequiredContentsOfChaptersForUser(chapterIds, userId);
@@ -320,8 +329,7 @@ class SuggestionServiceTest {
         assertThat(actual.get(0).getType(), is(SuggestionType.NEW_CONTENT));
 
         // Verify
-        verify(userProgressDataService).getUserProgressData(userId, contentIdNew);
-        verify(userProgressDataService).getUserProgressData(userId, contentIdRepetition);
+        verify(userProgressDataService, atLeastOnce()).getUserProgressDataOfContents(eq(userId), any());
         verify(sectionService, times(2)).getSectionsByChapterIds(chapterIds);
     }
 
@@ -356,8 +364,9 @@ class SuggestionServiceTest {
         final UUID contentIdMorePoints = section.getStages().get(0).getRequiredContents().get(0).getId();
         final UUID contentIdLessPoints = section.getStages().get(0).getRequiredContents().get(1).getId();
 
-        doReturn(progressDataMorePoints).when(userProgressDataService).getUserProgressData(userId, contentIdMorePoints);
-        doReturn(progressDataLessPoints).when(userProgressDataService).getUserProgressData(userId, contentIdLessPoints);
+        mockUserProgressData(userId, Map.of(
+                contentIdMorePoints, progressDataMorePoints,
+                contentIdLessPoints, progressDataLessPoints)::get);
 
         // Act
         final List<Content> requiredContents = suggestionService.getAvailableRequiredContentsOfChaptersForUser(chapterIds, userId);
@@ -370,8 +379,7 @@ class SuggestionServiceTest {
         assertThat(actual.get(0).getType(), is(SuggestionType.NEW_CONTENT));
 
         // Verify
-        verify(userProgressDataService).getUserProgressData(userId, contentIdMorePoints);
-        verify(userProgressDataService).getUserProgressData(userId, contentIdLessPoints);
+        verify(userProgressDataService, atLeastOnce()).getUserProgressDataOfContents(eq(userId), any());
         verify(sectionService, times(2)).getSectionsByChapterIds(chapterIds);
     }
 
@@ -403,7 +411,7 @@ class SuggestionServiceTest {
 
         final UserProgressData progressDataAll = UserProgressData.builder().setIsLearned(false).build();
 
-        doReturn(progressDataAll).when(userProgressDataService).getUserProgressData(eq(userId), any());
+        mockUserProgressData(userId, contentId -> progressDataAll);
 
         // Act
         final List<Content> requiredContents = suggestionService.getAvailableRequiredContentsOfChaptersForUser(chapterIds, userId);
@@ -415,7 +423,7 @@ class SuggestionServiceTest {
         assertThat(actual, hasSize(1));
 
         // Verify
-        verify(userProgressDataService, atLeastOnce()).getUserProgressData(eq(userId), any());
+        verify(userProgressDataService, atLeastOnce()).getUserProgressDataOfContents(eq(userId), any());
         verify(sectionService, times(2)).getSectionsByChapterIds(chapterIds);
     }
 
@@ -466,10 +474,11 @@ class SuggestionServiceTest {
         final UUID contentIdUnlocked3 = section.getStages().get(1).getRequiredContents().get(0).getId();
         final UUID contentIdUnlocked4 = section.getStages().get(1).getRequiredContents().get(1).getId();
 
-        doReturn(progressDataLearned).when(userProgressDataService).getUserProgressData(userId, contentIdUnlocked1);
-        doReturn(progressDataLearned).when(userProgressDataService).getUserProgressData(userId, contentIdUnlocked2);
-        doReturn(progressDataNotLearned).when(userProgressDataService).getUserProgressData(userId, contentIdUnlocked3);
-        doReturn(progressDataNotLearned).when(userProgressDataService).getUserProgressData(userId, contentIdUnlocked4);
+        mockUserProgressData(userId, Map.of(
+                contentIdUnlocked1, progressDataLearned,
+                contentIdUnlocked2, progressDataLearned,
+                contentIdUnlocked3, progressDataNotLearned,
+                contentIdUnlocked4, progressDataNotLearned)::get);
 
         // Act
         final List<Content> requiredContents = suggestionService.getAvailableRequiredContentsOfChaptersForUser(chapterIds, userId);
@@ -482,13 +491,84 @@ class SuggestionServiceTest {
         assertThat(actual, hasSize(2));
 
         // Verify
-        verify(userProgressDataService, atLeastOnce()).getUserProgressData(userId, contentIdUnlocked1);
-        verify(userProgressDataService, atLeastOnce()).getUserProgressData(userId, contentIdUnlocked2);
-        verify(userProgressDataService, atLeastOnce()).getUserProgressData(userId, contentIdUnlocked3);
-        verify(userProgressDataService, atLeastOnce()).getUserProgressData(userId, contentIdUnlocked4);
+        verify(userProgressDataService, atLeastOnce()).getUserProgressDataOfContents(eq(userId), any());
         verify(sectionService, atLeastOnce()).getSectionsByChapterIds(chapterIds);
     }
 
+    /**
+     * Given a section with two stages and users of which half have completed the first stage
+     * When suggestions are created for all users in parallel
+     * Then every user gets the suggestions matching their own progress
+     */
+    @Test
+    void testCreateSuggestionsForParallelUsers() throws Exception {
+        // Arrange
+        final List<UUID> chapterIds = List.of(UUID.randomUUID());
+        final Content firstContent = contentWithSuggestedDate(now(), "first");
+        final Content secondContent = contentWithSuggestedDate(now(), "second");
+        final Section section = Section.builder()
+                .setChapterId(chapterIds.get(0))
+                .setStages(List.of(
+                        Stage.builder()
+                                .setRequiredContents(List.of(firstContent))
+                                .setOptionalContents(List.of())
+                                .build(),
+                        Stage.builder()
+                                .setRequiredContents(List.of(secondContent))
+                                .setOptionalContents(List.of())
+                                .build()))
+                .build();
+        doReturn(List.of(List.of(section))).when(sectionService).getSectionsByChapterIds(chapterIds);
+
+        final int userCount = 32;
+        final List<UUID> userIds = new ArrayList<>();
+        final Set<UUID> usersWhoLearnedFirstContent = new HashSet<>();
+        for (int i = 0; i < userCount; i++) {
+            final UUID userId = UUID.randomUUID();
+            userIds.add(userId);
+            if (i % 2 == 0) {
+                usersWhoLearnedFirstContent.add(userId);
+            }
+        }
+
+        final UserProgressData learned = UserProgressData.builder().setIsLearned(true).setIsDueForReview(false).build();
+        final UserProgressData notLearned = UserProgressData.builder().setIsLearned(false).build();
+        doAnswer(invocation -> {
+            final UUID userId = invocation.getArgument(0);
+            final Collection<Content> contents = invocation.getArgument(1);
+            final Map<UUID, UserProgressData> result = new HashMap<>();
+            for (final Content content : contents) {
+                final boolean isLearned = content == firstContent && usersWhoLearnedFirstContent.contains(userId);
+                result.put(content.getId(), isLearned ? learned : notLearned);
+            }
+            return result;
+        }).when(userProgressDataService).getUserProgressDataOfContents(any(), any());
+
+        // Act
+        final ExecutorService executorService = Executors.newFixedThreadPool(8);
+        final Map<UUID, Future<List<Suggestion>>> suggestionsByUser = new HashMap<>();
+        try {
+            for (final UUID userId : userIds) {
+                suggestionsByUser.put(userId, executorService.submit(() -> {
+                    final List<Content> requiredContents = suggestionService.getAvailableRequiredContentsOfChaptersForUser(chapterIds, userId);
+                    final List<Content> optionalContents = suggestionService.getAvailableOptionalContentsOfChaptersForUser(chapterIds, userId);
+                    return suggestionService.createSuggestions(requiredContents, optionalContents, userId, 5, List.of());
+                }));
+            }
+
+            // Assert
+            for (final UUID userId : userIds) {
+                final List<Suggestion> actual = suggestionsByUser.get(userId).get(30, TimeUnit.SECONDS);
+                final Content expectedContent = usersWhoLearnedFirstContent.contains(userId) ? secondContent : firstContent;
+                assertThat(actual, hasSize(1));
+                assertThat(actual.get(0).getContent(), is(expectedContent));
+                assertThat(actual.get(0).getType(), is(SuggestionType.NEW_CONTENT));
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
     private Content contentWithSuggestedDate(final OffsetDateTime suggestedDate, final String name) {
         return contentWithMetadata(ContentMetadata.builder()
                 .setSuggestedDate(suggestedDate)
@@ -516,10 +596,75 @@ class SuggestionServiceTest {
                 .build());
     }
 
+    /**
+     * Given a chapter with a stage of new contents
+     * When the user requests suggestions for the chapter twice
+     * Then the suggestion index of the chapter is built only once, until the progress of the user in the chapter
+     * changes
+     */
+    @Test
+    void testSuggestionIndexIsCachedUntilInvalidated() {
+        // Arrange
+        final UUID chapterId = UUID.randomUUID();
+        final UUID userId = UUID.randomUUID();
+
+        final Section section = Section.builder()
+                .setChapterId(chapterId)
+                .setStages(List.of(
+                        Stage.builder()
+                                .setRequiredContents(List.of(
+                                        contentWithSuggestedDate(now().minusDays(1), "minus1"),
+                                        contentWithSuggestedDate(now().minusDays(2), "minus2")))
+                                .setOptionalContents(List.of(contentWithSuggestedDate(now(), "optional")))
+                                .build()))
+                .build();
+
+        doReturn(List.of(List.of(section))).when(sectionService).getSectionsByChapterIds(List.of(chapterId));
+        mockUserProgressData(userId, contentId -> UserProgressData.builder().setIsLearned(false).build());
+
+        // Act
+        final List<ChapterSuggestionIndex> firstIndexes =
+                suggestionService.getSuggestionIndexesOfChaptersForUser(List.of(chapterId), userId);
+        final List<Suggestion> firstSuggestions = suggestionService.createSuggestions(firstIndexes, userId, 3, List.of());
+        final List<ChapterSuggestionIndex> secondIndexes =
+                suggestionService.getSuggestionIndexesOfChaptersForUser(List.of(chapterId), userId);
+        final List<Suggestion> secondSuggestions = suggestionService.createSuggestions(secondIndexes, userId, 3, List.of());
+
+        // Assert
+        assertThat(firstSuggestions.stream().map(suggestion -> suggestion.getContent().getMetadata().getName()).toList(),
+                contains("minus2", "minus1", "optional"));
+        assertThat(secondSuggestions, is(firstSuggestions));
+        assertThat(meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count(), is(1.0));
+        assertThat(meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count(), is(1.0));
+        verify(sectionService, times(1)).getSectionsByChapterIds(List.of(chapterId));
+
+        // Act
+        suggestionIndexCache.invalidate(userId, chapterId);
+        suggestionService.getSuggestionIndexesOfChaptersForUser(List.of(chapterId), userId);
+
+        // Verify
+        verify(sectionService, times(2)).getSectionsByChapterIds(List.of(chapterId));
+    }
+
     private Content contentWithMetadata(final ContentMetadata metadata) {
         return MediaContent.builder()
                 .setId(UUID.randomUUID())
                 .setMetadata(metadata)
                 .build();
     }
+
+    /**
+     * Mocks the user progress data service to return the progress data given by the function for each content
+     * requested for the given user.
+     */
+    private void mockUserProgressData(final UUID userId, final Function<UUID, UserProgressData> progressDataByContentId) {
+        doAnswer(invocation -> {
+            final Collection<Content> contents = invocation.getArgument(1);
+            final Map<UUID, UserProgressData> result = new HashMap<>();
+            for (final Content content : contents) {
+                result.put(content.getId(), progressDataByContentId.apply(content.getId()));
+            }
+            return result;
+        }).when(userProgressDataService).getUserProgressDataOfContents(eq(userId), any());
+    }
 }
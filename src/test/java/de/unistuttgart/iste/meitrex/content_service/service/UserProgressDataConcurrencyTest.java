@@ -0,0 +1,143 @@
+package de.unistuttgart.iste.meitrex.content_service.service;
+
+import de.unistuttgart.iste.meitrex.content_service.TestData;
+import de.unistuttgart.iste.meitrex.content_service.persistence.entity.ContentEntity;
+import de.unistuttgart.iste.meitrex.content_service.persistence.entity.UserProgressDataEntity;
+import de.unistuttgart.iste.meitrex.content_service.persistence.repository.ContentRepository;
+import de.unistuttgart.iste.meitrex.content_service.persistence.repository.UserProgressDataRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.function.IntFunction;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Tests that the initial user progress data can be created concurrently without locking. This test is
+ * intentionally not transactional, because every thread needs to commit its own inserts.
+ */
+@Testcontainers
+@SpringBootTest
+class UserProgressDataConcurrencyTest {
+
+    private static final int THREAD_COUNT = 16;
+    private static final int TASKS_PER_THREAD = 8;
+
+    @Autowired
+    private UserProgressDataService userProgressDataService;
+    @Autowired
+    private UserProgressDataRepository userProgressDataRepository;
+    @Autowired
+    private ContentRepository contentRepository;
+
+    private final List<ContentEntity> contentEntities = new ArrayList<>();
+    private final List<UUID> userIds = new ArrayList<>();
+
+    private ExecutorService executorService;
+
+    @BeforeEach
+    void setUp() {
+        final UUID courseId = UUID.randomUUID();
+        contentEntities.add(contentRepository.save(TestData.dummyAssessmentEntityBuilder(courseId)
+                .assessmentMetadata(TestData.dummyAssessmentMetadataEmbeddableBuilder()
+                        .initialLearningInterval(2)
+                        .build())
+                .build()));
+        for (int i = 0; i < 3; i++) {
+            contentEntities.add(contentRepository.save(TestData.buildContentEntity(courseId, UUID.randomUUID())));
+        }
+
+        executorService = Executors.newFixedThreadPool(THREAD_COUNT);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executorService.shutdownNow();
+
+        final List<UUID> contentIds = contentEntities.stream().map(ContentEntity::getId).toList();
+        for (final UUID userId : userIds) {
+            userProgressDataRepository.deleteAll(userProgressDataRepository.findByUserIdAndContentIdIn(userId, contentIds));
+        }
+        contentRepository.deleteAll(contentEntities);
+    }
+
+    /**
+     * Given a single user and content
+     * When many threads create the initial progress data for it at the same time
+     * Then no thread fails and exactly one row is created
+     */
+    @Test
+    void testConcurrentCreationForSameKey() throws Exception {
+        final UUID userId = UUID.randomUUID();
+        userIds.add(userId);
+        final UUID contentId = contentEntities.getFirst().getId();
+
+        final List<UserProgressDataEntity> results = runConcurrently(THREAD_COUNT * TASKS_PER_THREAD,
+                taskIndex -> userProgressDataService.createInitialUserProgressData(userId, contentId));
+
+        assertThat(results, everyItem(hasProperty("learningInterval", is(2))));
+
+        final List<UserProgressDataEntity> persisted =
+                userProgressDataRepository.findByUserIdAndContentIdIn(userId, List.of(contentId));
+        assertThat(persisted, hasSize(1));
+    }
+
+    /**
+     * Given many users and contents
+     * When many threads create the initial progress data of overlapping and distinct users at the same time
+     * Then no thread fails and exactly one row is created per user and content
+     */
+    @Test
+    void testConcurrentCreationForDifferentKeys() throws Exception {
+        for (int i = 0; i < THREAD_COUNT; i++) {
+            userIds.add(UUID.randomUUID());
+        }
+        final List<UUID> contentIds = contentEntities.stream().map(ContentEntity::getId).toList();
+
+        // every user is hit by several tasks, so both distinct and conflicting keys are inserted concurrently
+        runConcurrently(THREAD_COUNT * TASKS_PER_THREAD, taskIndex -> userProgressDataService.getUserProgressData(
+                contentIds.stream()
+                        .map(contentId -> new UserContentKey(userIds.get(taskIndex % userIds.size()), contentId))
+                        .toList()));
+
+        for (final UUID userId : userIds) {
+            assertThat(userProgressDataRepository.findByUserIdAndContentIdIn(userId, contentIds),
+                    hasSize(contentIds.size()));
+        }
+    }
+
+    /**
+     * Runs the given number of tasks on all threads of the executor, starting them at the same time,
+     * and fails if any of the tasks fails.
+     */
+    private <T> List<T> runConcurrently(final int taskCount, final IntFunction<T> task) throws Exception {
+        final CountDownLatch startSignal = new CountDownLatch(1);
+        final List<Future<T>> futures = new ArrayList<>(taskCount);
+
+        for (int i = 0; i < taskCount; i++) {
+            final int taskIndex = i;
+            futures.add(executorService.submit(() -> {
+                startSignal.await();
+                return task.apply(taskIndex);
+            }));
+        }
+
+        startSignal.countDown();
+
+        final List<T> results = new ArrayList<>(taskCount);
+        for (final Future<T> future : futures) {
+            // rethrows any exception of the task
+            results.add(future.get(30, TimeUnit.SECONDS));
+        }
+        return results;
+    }
+}
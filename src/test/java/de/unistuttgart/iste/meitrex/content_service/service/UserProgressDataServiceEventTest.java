@@ -33,13 +33,15 @@ class UserProgressDataServiceEventTest {
     private ContentRepository contentRepository;
     @Autowired
     private StageRepository stageRepository;
+    @Autowired
+    private OutboxRelay outboxRelay;
     @Mock
     private TopicPublisher topicPublisher;
 
     @BeforeEach
     public void setup() {
         // replace the autowired topic publisher with our mock
-        ReflectionTestUtils.setField(userProgressDataService, "topicPublisher", topicPublisher);
+        ReflectionTestUtils.setField(outboxRelay, "topicPublisher", topicPublisher);
     }
 
     /**
@@ -72,6 +74,9 @@ class UserProgressDataServiceEventTest {
                 .success(true)
                 .build());
 
+        // the events are published from the outbox
+        outboxRelay.relayEvents();
+
         verify(topicPublisher).notifyStageCompleted(StageCompletedEvent.builder()
                 .userId(userId)
                 .stageId(stageEntity.getId())
@@ -125,6 +130,8 @@ class UserProgressDataServiceEventTest {
                 .success(true)
                 .build());
 
+        outboxRelay.relayEvents();
+
         // verify no completion events were sent
         verify(topicPublisher).notifyUserProgressUpdated(any(UserProgressUpdatedEvent.class));
         verify(topicPublisher, never()).notifyStageCompleted(any());
@@ -1,17 +1,18 @@
 package de.unistuttgart.iste.meitrex.content_service.service;
 
-import de.unistuttgart.iste.meitrex.common.dapr.TopicPublisher;
 import de.unistuttgart.iste.meitrex.common.event.*;
 import de.unistuttgart.iste.meitrex.content_service.TestData;
 import de.unistuttgart.iste.meitrex.content_service.persistence.entity.*;
 import de.unistuttgart.iste.meitrex.content_service.persistence.mapper.ContentMapper;
 import de.unistuttgart.iste.meitrex.content_service.persistence.mapper.UserProgressDataMapper;
-import de.unistuttgart.iste.meitrex.content_service.persistence.repository.MessageSequenceNoEntityRepository;
 import de.unistuttgart.iste.meitrex.content_service.persistence.repository.UserProgressDataRepository;
+import de.unistuttgart.iste.meitrex.content_service.persistence.repository.UserProgressDataRepository.ChapterProgressCount;
 
 import de.unistuttgart.iste.meitrex.generated.dto.*;
+import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
@@ -27,6 +28,7 @@ import static de.unistuttgart.iste.meitrex.content_service.TestData.buildDummyUs
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.AdditionalAnswers.returnsFirstArg;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -44,11 +46,17 @@ class UserProgressDataServiceTest {
     @Spy
     private ContentMapper contentMapper = new ContentMapper(new ModelMapper());
     @Mock
-    private TopicPublisher topicPublisher;
+    private EventOutbox eventOutbox;
     @Mock
     private StageService stageService;
     @Mock
-    private MessageSequenceNoEntityRepository messageSequenceNoEntityRepository;
+    private MessageSequenceNoAllocator messageSequenceNoAllocator;
+    @Mock
+    private CompletionCounterService completionCounterService;
+    @Mock
+    private ItemAssociationCache itemAssociationCache;
+    @Mock
+    private CacheInvalidationBus cacheInvalidationBus;
 
     @InjectMocks
     private UserProgressDataService userProgressDataService;
@@ -77,7 +85,6 @@ class UserProgressDataServiceTest {
         assertThat(actual.getLearningInterval(), is(equalTo(userProgressEntity.getLearningInterval())));
         assertThat(actual.getLastLearnDate(), is(nullValue()));
         assertThat(actual.getNextLearnDate(), is(nullValue()));
-        assertThat(actual.getLog(), is(empty()));
 
         verify(userProgressDataRepository).findByUserIdAndContentId(any(), any());
     }
@@ -117,7 +124,6 @@ class UserProgressDataServiceTest {
         final var expectedNextLearnDate = expectedLastLearnDate.plusDays(7);
         assertThat(actual.getLastLearnDate(), is(expectedLastLearnDate));
         assertThat(actual.getNextLearnDate(), is(expectedNextLearnDate));
-        assertThat(actual.getLog(), hasSize(1));
 
         verify(userProgressDataRepository).findByUserIdAndContentId(any(), any());
     }
@@ -126,16 +132,15 @@ class UserProgressDataServiceTest {
     void userDataIsInitializedWhenAbsent() {
         final var contentId = UUID.randomUUID();
         final var userId = UUID.randomUUID();
-        final AssessmentEntity assessmentEntity = TestData.dummyAssessmentEntityBuilder(UUID.randomUUID())
-                .assessmentMetadata(TestData.dummyAssessmentMetadataEmbeddableBuilder()
-                        .initialLearningInterval(2)
-                        .build())
-                .id(contentId).build();
+        final UserProgressDataEntity initialProgressData = UserProgressDataEntity.builder()
+                .userId(userId)
+                .contentId(contentId)
+                .learningInterval(2)
+                .build();
 
-        doReturn(Optional.empty()).when(userProgressDataRepository).findByUserIdAndContentId(any(), any());
-        doReturn(assessmentEntity).when(contentService).requireContentExisting(any());
-        // save method returns its argument
-        doAnswer(returnsFirstArg()).when(userProgressDataRepository).save(any(UserProgressDataEntity.class));
+        // the progress data exists after it has been inserted
+        when(userProgressDataRepository.findByUserIdAndContentId(userId, contentId))
+                .thenReturn(Optional.empty(), Optional.of(initialProgressData));
 
         final var actual = userProgressDataService.getUserProgressData(userId, contentId);
 
@@ -144,16 +149,31 @@ class UserProgressDataServiceTest {
         assertThat(actual.getLearningInterval(), is(2));
         assertThat(actual.getLastLearnDate(), is(nullValue()));
         assertThat(actual.getNextLearnDate(), is(nullValue()));
-        assertThat(actual.getLog(), is(empty()));
 
-        verify(userProgressDataRepository).findByUserIdAndContentId(any(), any());
-        verify(userProgressDataRepository, times(1)).save(any(UserProgressDataEntity.class));
+        verify(userProgressDataRepository, times(2)).findByUserIdAndContentId(any(), any());
+        verify(userProgressDataRepository).insertInitialUserProgressData(userId, List.of(contentId));
+        verify(userProgressDataRepository, never()).save(any(UserProgressDataEntity.class));
+    }
+
+    /**
+     * Given the content does not exist
+     * When getUserProgressData is called
+     * Then an EntityNotFoundException is thrown
+     */
+    @Test
+    void userDataInitializationFailsForMissingContent() {
+        final var contentId = UUID.randomUUID();
+        final var userId = UUID.randomUUID();
+
+        doReturn(Optional.empty()).when(userProgressDataRepository).findByUserIdAndContentId(userId, contentId);
+
+        assertThrows(EntityNotFoundException.class, () -> userProgressDataService.getUserProgressData(userId, contentId));
     }
 
     /**
      * Given a user progress event
      * When logUserProgress is called
-     * Then the event is added to the progress log
+     * Then the event is added to the progress log and the suggestion index of the user is invalidated
      */
     @Test
     void logProgress() {
@@ -192,35 +212,29 @@ class UserProgressDataServiceTest {
                 .setPosition(1)
                 .build();
 
-        doReturn(Optional.of(stage)).when(stageService).findStageOfContent(contentId);
+        doReturn(Optional.of(stage)).when(stageService).findStageOfContent(content);
         doReturn(List.of(content)).when(contentService).getContentsById(List.of(contentId));
-        doReturn(List.of(List.of(content))).when(contentService).getContentsByCourseIds(List.of(courseId));
-        doReturn(List.of(content)).when(contentService).getContentsByChapterId(chapterId);
+        doReturn(new CompletionCounterService.CompletedScopes(true, true, true))
+                .when(completionCounterService).registerLearnedContent(userId, content, Optional.of(stage));
         doReturn(Optional.of(initialProgress)).when(userProgressDataRepository).findByUserIdAndContentId(any(), any());
         doAnswer(returnsFirstArg()).when(userProgressDataRepository).save(any(UserProgressDataEntity.class));
-        doAnswer(invocation -> {
-            MessageSequenceNoEntity arg = invocation.getArgument(0);
-            arg.setSequenceNo(1L);
-            return arg; // return the modified arg
-        }).when(messageSequenceNoEntityRepository).save(any(MessageSequenceNoEntity.class));
+        doReturn(1L).when(messageSequenceNoAllocator).next();
 
         userProgressDataService.logUserProgress(event);
 
-        verify(userProgressDataRepository).save(
-                UserProgressDataEntity.builder()
-                        .contentId(contentId)
-                        .userId(userId)
-                        .learningInterval(null)
-                        .progressLog(List.of(
-                                ProgressLogItemEmbeddable.builder()
-                                        .timestamp(notNull())
-                                        .timeToComplete(100)
-                                        .correctness(1.0)
-                                        .hintsUsed(0)
-                                        .success(true)
-                                        .build()))
-                        .build()
-        );
+        verify(userProgressDataRepository).save(initialProgress);
+        verify(userProgressDataRepository).insertProgressLogItem(eq(userId), eq(contentId), argThat(logItem ->
+                logItem.getTimestamp() != null
+                && Objects.equals(logItem.getTimeToComplete(), 100)
+                && logItem.getCorrectness() == 1.0
+                && logItem.getHintsUsed() == 0
+                && logItem.isSuccess()));
+        // the log item is inserted directly instead of being added to the possibly not loaded progress log
+        assertThat(initialProgress.getProgressLog(), is(empty()));
+        // the suggestions of the user for the chapter are outdated on all instances
+        verify(cacheInvalidationBus).broadcast(CacheInvalidation.builder()
+                .userChapter(new CacheInvalidation.UserChapter(userId, chapterId))
+                .build());
 
         final UserProgressUpdatedEvent expectedUserProgressEvent = UserProgressUpdatedEvent.builder()
                 .sequenceNo(1L)
@@ -235,17 +249,17 @@ class UserProgressDataServiceTest {
                 .success(true)
                 .responses(new ArrayList<ItemResponse>())
                 .build();
-        verify(topicPublisher).notifyUserProgressUpdated(expectedUserProgressEvent);
-        verify(topicPublisher).notifyCourseCompleted(CourseCompletedEvent.builder()
+        verify(eventOutbox).notifyUserProgressUpdated(expectedUserProgressEvent);
+        verify(eventOutbox).notifyCourseCompleted(CourseCompletedEvent.builder()
                 .userId(userId)
                 .courseId(courseId)
                 .build());
-        verify(topicPublisher).notifyChapterCompleted(ChapterCompletedEvent.builder()
+        verify(eventOutbox).notifyChapterCompleted(ChapterCompletedEvent.builder()
                 .userId(userId)
                 .chapterId(chapterId)
                 .courseId(courseId)
                 .build());
-        verify(topicPublisher).notifyStageCompleted(StageCompletedEvent.builder()
+        verify(eventOutbox).notifyStageCompleted(StageCompletedEvent.builder()
                 .userId(userId)
                 .stageId(stageId)
                 .chapterId(chapterId)
@@ -253,6 +267,193 @@ class UserProgressDataServiceTest {
                 .build());
     }
 
+    /**
+     * Given progress data whose learning state has not been stored yet
+     * When a successful attempt is logged
+     * Then the learning state is calculated from the progress log and updated with the new attempt
+     */
+    @Test
+    void logProgressUpdatesLearningState() {
+        final var contentId = UUID.randomUUID();
+        final var userId = UUID.randomUUID();
+        final Content content = MediaContent.builder()
+                .setId(contentId)
+                .setMetadata(ContentMetadata.builder()
+                        .setChapterId(UUID.randomUUID())
+                        .setCourseId(UUID.randomUUID())
+                        .build())
+                .build();
+        final ContentProgressedEvent event = ContentProgressedEvent.builder()
+                .contentId(contentId)
+                .userId(userId)
+                .correctness(1.0)
+                .hintsUsed(0)
+                .success(true)
+                .build();
+
+        // one failed attempt, logged before the learning state was stored
+        final UserProgressDataEntity progressData = buildDummyUserProgressData(false, userId, contentId);
+        progressData.setProgressLog(new ArrayList<>(progressData.getProgressLog()));
+        progressData.setLearningInterval(2);
+
+        doReturn(List.of(content)).when(contentService).getContentsById(List.of(contentId));
+        doReturn(Optional.of(progressData)).when(userProgressDataRepository).findByUserIdAndContentId(userId, contentId);
+        doReturn(Optional.empty()).when(stageService).findStageOfContent(content);
+        doReturn(new CompletionCounterService.CompletedScopes(false, false, false))
+                .when(completionCounterService).registerLearnedContent(userId, content, Optional.empty());
+        doAnswer(returnsFirstArg()).when(userProgressDataRepository).save(any(UserProgressDataEntity.class));
+
+        userProgressDataService.logUserProgress(event);
+
+        assertThat(progressData.getAttemptCount(), is(2));
+        assertThat(progressData.isLearned(), is(true));
+        assertThat(progressData.getLastLearnDate(), is(notNullValue()));
+        assertThat(progressData.getNextLearnDate(),
+                is(progressData.getLastLearnDate().plusDays(progressData.getLearningInterval())));
+        verify(eventOutbox).notifyUserProgressUpdated(argThat(updatedEvent -> updatedEvent.getAttempt() == 2));
+    }
+
+    /**
+     * Given a content progressed event with responses to several items
+     * When logUserProgress is called
+     * Then the skills and bloom levels of all items are resolved at once and added to the published event
+     */
+    @Test
+    void logProgressResolvesItemsOfAllResponsesAtOnce() {
+        final var contentId = UUID.randomUUID();
+        final var userId = UUID.randomUUID();
+        final UUID itemId = UUID.randomUUID();
+        final UUID otherItemId = UUID.randomUUID();
+        final UUID skillId = UUID.randomUUID();
+        final Content content = MediaContent.builder()
+                .setId(contentId)
+                .setMetadata(ContentMetadata.builder()
+                        .setChapterId(UUID.randomUUID())
+                        .setCourseId(UUID.randomUUID())
+                        .build())
+                .build();
+        final ContentProgressedEvent event = ContentProgressedEvent.builder()
+                .contentId(contentId)
+                .userId(userId)
+                .correctness(0.0)
+                .hintsUsed(0)
+                .success(false)
+                .responses(List.of(
+                        Response.builder().itemId(itemId).build(),
+                        Response.builder().itemId(otherItemId).build()))
+                .build();
+
+        doReturn(List.of(content)).when(contentService).getContentsById(List.of(contentId));
+        doReturn(Optional.of(buildDummyUserProgressData(false, userId, contentId)))
+                .when(userProgressDataRepository).findByUserIdAndContentId(userId, contentId);
+        doAnswer(returnsFirstArg()).when(userProgressDataRepository).save(any(UserProgressDataEntity.class));
+        doReturn(Map.of(
+                itemId, new ItemAssociationCache.ItemAssociations(List.of(skillId), List.of(BloomLevel.REMEMBER)),
+                otherItemId, new ItemAssociationCache.ItemAssociations(List.of(), List.of())))
+                .when(itemAssociationCache).getItemAssociations(List.of(itemId, otherItemId));
+
+        userProgressDataService.logUserProgress(event);
+
+        verify(itemAssociationCache, times(1)).getItemAssociations(any());
+        verify(eventOutbox).notifyUserProgressUpdated(argThat(updatedEvent ->
+                updatedEvent.getResponses().size() == 2
+                && updatedEvent.getResponses().get(0).getSkillIds().equals(List.of(skillId))
+                && updatedEvent.getResponses().get(0).getLevelsOfBloomsTaxonomy().equals(List.of(BloomLevel.REMEMBER))
+                && updatedEvent.getResponses().get(1).getSkillIds().isEmpty()));
+    }
+
+    /**
+     * Given a content the user has already learned
+     * When logUserProgress is called
+     * Then the completion of stage, chapter and course is not checked again
+     */
+    @Test
+    void logProgressDoesNotCheckCompletionIfContentWasAlreadyLearned() {
+        final var contentId = UUID.randomUUID();
+        final var userId = UUID.randomUUID();
+        final Content content = MediaContent.builder()
+                .setId(contentId)
+                .setMetadata(ContentMetadata.builder()
+                        .setChapterId(UUID.randomUUID())
+                        .setCourseId(UUID.randomUUID())
+                        .build())
+                .build();
+        final ContentProgressedEvent event = ContentProgressedEvent.builder()
+                .contentId(contentId)
+                .userId(userId)
+                .correctness(1.0)
+                .hintsUsed(0)
+                .success(true)
+                .build();
+
+        final UserProgressDataEntity learnedProgress = buildDummyUserProgressData(true, userId, contentId);
+        learnedProgress.setProgressLog(new ArrayList<>(learnedProgress.getProgressLog()));
+
+        doReturn(List.of(content)).when(contentService).getContentsById(List.of(contentId));
+        doReturn(Optional.of(learnedProgress)).when(userProgressDataRepository).findByUserIdAndContentId(userId, contentId);
+        doAnswer(returnsFirstArg()).when(userProgressDataRepository).save(any(UserProgressDataEntity.class));
+
+        userProgressDataService.logUserProgress(event);
+
+        verifyNoInteractions(completionCounterService);
+        verify(stageService, never()).findStageOfContent(any(Content.class));
+        verify(eventOutbox).notifyUserProgressUpdated(any(UserProgressUpdatedEvent.class));
+        verify(eventOutbox, never()).notifyStageCompleted(any());
+        verify(eventOutbox, never()).notifyChapterCompleted(any());
+        verify(eventOutbox, never()).notifyCourseCompleted(any());
+    }
+
+    /**
+     * Given two content progressed events of the same user and content
+     * When they are logged as a batch
+     * Then the content and the progress data are loaded once and both attempts are logged in order
+     */
+    @Test
+    void logProgressOfBatchLoadsContentsAndProgressDataOnce() {
+        final var contentId = UUID.randomUUID();
+        final var userId = UUID.randomUUID();
+        final Content content = MediaContent.builder()
+                .setId(contentId)
+                .setMetadata(ContentMetadata.builder()
+                        .setChapterId(UUID.randomUUID())
+                        .setCourseId(UUID.randomUUID())
+                        .build())
+                .build();
+        final ContentProgressedEvent first = ContentProgressedEvent.builder()
+                .contentId(contentId)
+                .userId(userId)
+                .correctness(0.0)
+                .hintsUsed(0)
+                .success(false)
+                .build();
+        final ContentProgressedEvent second = ContentProgressedEvent.builder()
+                .contentId(contentId)
+                .userId(userId)
+                .correctness(0.5)
+                .hintsUsed(1)
+                .success(false)
+                .build();
+
+        final UserProgressDataEntity progressData = buildDummyUserProgressData(false, userId, contentId);
+        progressData.setProgressLog(new ArrayList<>());
+        progressData.setAttemptCount(0);
+
+        doReturn(List.of(content)).when(contentService).findContentsById(List.of(contentId));
+        doReturn(List.of(progressData)).when(userProgressDataRepository)
+                .findByUserIdAndContentIdIn(userId, Set.of(contentId));
+        doAnswer(returnsFirstArg()).when(userProgressDataRepository).save(any(UserProgressDataEntity.class));
+
+        userProgressDataService.logUserProgress(List.of(first, second));
+
+        assertThat(progressData.getAttemptCount(), is(2));
+        verify(contentService, times(1)).findContentsById(any());
+        verify(userProgressDataRepository, never()).findByUserIdAndContentId(any(), any());
+        verify(userProgressDataRepository, times(2)).insertProgressLogItem(eq(userId), eq(contentId), any());
+        final InOrder inOrder = inOrder(eventOutbox);
+        inOrder.verify(eventOutbox).notifyUserProgressUpdated(argThat(event -> event.getAttempt() == 1));
+        inOrder.verify(eventOutbox).notifyUserProgressUpdated(argThat(event -> event.getAttempt() == 2));
+    }
+
     /**
      * Given a user progress event with 1.0 correctness and success
      * When calculateNewLearningInterval is called
@@ -405,16 +606,15 @@ class UserProgressDataServiceTest {
                 .setOptionalContents(List.of(mediaContent, mediaContent2))
                 .build();
 
-        when(userProgressDataRepository.findByUserIdAndContentId(userId, mediaContent.getId()))
-                .thenReturn(Optional.of(userProgressData));
-        when(userProgressDataRepository.findByUserIdAndContentId(userId, mediaContent2.getId()))
-                .thenReturn(Optional.of(userProgressData2));
+        when(userProgressDataRepository.findByUserIdAndContentIdIn(userId, Set.of(mediaContent.getId(), mediaContent2.getId())))
+                .thenReturn(List.of(userProgressData, userProgressData2));
 
         // run method under test
         final double result = userProgressDataService.getStageProgressForUser(stage, userId, false);
 
         // verify methods called
-        verify(userProgressDataRepository, times(2)).findByUserIdAndContentId(any(), any());
+        verify(userProgressDataRepository, times(1)).findByUserIdAndContentIdIn(any(), any());
+        verify(userProgressDataRepository, never()).findByUserIdAndContentId(any(), any());
 
         // assertions
         assertEquals(50.0, result);
@@ -444,15 +644,15 @@ class UserProgressDataServiceTest {
         final UserProgressDataEntity progressDataEntity2 = buildDummyUserProgressData(false, userId, mediaContent2.getId());
 
         // mock repository
-        doReturn(Optional.of(progressDataEntity)).when(userProgressDataRepository).findByUserIdAndContentId(userId, mediaContent.getId());
-        doReturn(Optional.of(progressDataEntity2)).when(userProgressDataRepository).findByUserIdAndContentId(userId, mediaContent2.getId());
+        doReturn(List.of(progressDataEntity, progressDataEntity2)).when(userProgressDataRepository)
+                .findByUserIdAndContentIdIn(userId, Set.of(mediaContent.getId(), mediaContent2.getId()));
 
         // run method under test
         final double result = userProgressDataService.getStageProgressForUser(stage, userId, true);
 
         // verify methods called
         verify(userProgressDataRepository, never()).save(any());
-        verify(userProgressDataRepository, times(2)).findByUserIdAndContentId(any(), any());
+        verify(userProgressDataRepository, times(1)).findByUserIdAndContentIdIn(any(), any());
 
         // assertions
         assertEquals(50.0, result);
@@ -470,25 +670,15 @@ class UserProgressDataServiceTest {
 
         final List<UUID> chapterIds = List.of(chapterId1, chapterId2);
 
-        // init content and user progress
-        final List<MediaContentEntity> mediaContentEntities = List.of(TestData.buildContentEntity(chapterId1),
-                TestData.buildContentEntity(chapterId1));
-
-        for (int i = 0; i < mediaContentEntities.size(); i++) {
-            final MediaContentEntity mediaContentEntity = mediaContentEntities.get(i);
-            final boolean success = i % 2 == 0;
-            final UserProgressDataEntity progressDataEntity = buildDummyUserProgressData(success, userId, mediaContentEntity.getId());
-            // mock repository calls
-            doReturn(Optional.of(progressDataEntity)).when(userProgressDataRepository)
-                    .findByUserIdAndContentId(userId, mediaContentEntity.getId());
-
-        }
+        // the second chapter has no contents, so the query does not return a row for it
+        final ChapterProgressCount progressCountOfChapter1 = mock(ChapterProgressCount.class);
+        when(progressCountOfChapter1.getChapterId()).thenReturn(chapterId1);
+        when(progressCountOfChapter1.getTotalContents()).thenReturn(2L);
+        when(progressCountOfChapter1.getCompletedContents()).thenReturn(1L);
 
-        final List<Content> contentsForChapter1 = mediaContentEntities.stream().map(contentMapper::entityToDto).toList();
-        final List<Content> contentsForChapter2 = List.of();
-
-        // mock service with repository calls
-        when(contentService.getContentsByChapterIds(chapterIds)).thenReturn(List.of(contentsForChapter1, contentsForChapter2));
+        // mock repository calls
+        when(userProgressDataRepository.countProgressByChapterIds(userId, chapterIds))
+                .thenReturn(List.of(progressCountOfChapter1));
 
         // run method under test
         final List<CompositeProgressInformation> resultList = userProgressDataService.getProgressByChapterIdsForUser(chapterIds, userId);
@@ -503,9 +693,67 @@ class UserProgressDataServiceTest {
         assertEquals(0, resultList.get(1).getCompletedContents());
         assertEquals(0, resultList.get(1).getTotalContents());
 
-        // verify called methods
-        verify(userProgressDataRepository, times(2)).findByUserIdAndContentId(any(), any());
-        verify(contentService, times(1)).getContentsByChapterIds(chapterIds);
+        // verify that the progress of all chapters is calculated in a single query without loading any contents
+        verify(userProgressDataRepository, times(1)).countProgressByChapterIds(userId, chapterIds);
+        verify(userProgressDataRepository, never()).findByUserIdAndContentIdIn(any(), any());
+        verifyNoInteractions(contentService);
+    }
+
+    /**
+     * Given progress data exists for only one of two contents
+     * When getUserProgressDataOfContents is called
+     * Then initial progress data is returned for the other content without writing it to the database
+     */
+    @Test
+    void getUserProgressDataOfContentsDoesNotPersistMissingProgressData() {
+        final UUID userId = UUID.randomUUID();
+        final MediaContent mediaContent = buildDummyMediaContent();
+        final Assessment assessment = FlashcardSetAssessment.builder()
+                .setId(UUID.randomUUID())
+                .setAssessmentMetadata(AssessmentMetadata.builder().setInitialLearningInterval(3).build())
+                .build();
+
+        final UserProgressDataEntity progressDataEntity = buildDummyUserProgressData(true, userId, mediaContent.getId());
+        doReturn(List.of(progressDataEntity)).when(userProgressDataRepository).findByUserIdAndContentIdIn(eq(userId), any());
+
+        final Map<UUID, UserProgressData> actual =
+                userProgressDataService.getUserProgressDataOfContents(userId, List.of(mediaContent, assessment));
+
+        assertThat(actual.keySet(), containsInAnyOrder(mediaContent.getId(), assessment.getId()));
+        assertThat(actual.get(mediaContent.getId()).getIsLearned(), is(true));
+        assertThat(actual.get(assessment.getId()).getIsLearned(), is(false));
+        assertThat(actual.get(assessment.getId()).getLearningInterval(), is(3));
+
+        verify(userProgressDataRepository, never()).insertInitialUserProgressData(any(), any());
+        verify(userProgressDataRepository, never()).save(any());
+    }
+
+    /**
+     * Given progress data exists for one of two contents of a user
+     * When the progress data of both contents is requested at once
+     * Then the existing progress data is loaded with one query and the missing progress data is created with one
+     * insert
+     */
+    @Test
+    void getUserProgressDataOfMultipleKeysCreatesMissingProgressDataInOneInsert() {
+        final UUID userId = UUID.randomUUID();
+        final UUID existingContentId = UUID.randomUUID();
+        final UUID missingContentId = UUID.randomUUID();
+        final UserContentKey existingKey = new UserContentKey(userId, existingContentId);
+        final UserContentKey missingKey = new UserContentKey(userId, missingContentId);
+
+        doReturn(List.of(UserProgressDataEntity.builder().userId(userId).contentId(existingContentId).build()))
+                .when(userProgressDataRepository).findByUserIdAndContentIdIn(userId, Set.of(existingContentId, missingContentId));
+        doReturn(List.of(UserProgressDataEntity.builder().userId(userId).contentId(missingContentId).build()))
+                .when(userProgressDataRepository).findByUserIdAndContentIdIn(userId, Set.of(missingContentId));
+
+        final Map<UserContentKey, UserProgressData> actual =
+                userProgressDataService.getUserProgressData(List.of(existingKey, missingKey));
+
+        assertThat(actual.keySet(), containsInAnyOrder(existingKey, missingKey));
+        assertThat(actual.get(missingKey).getContentId(), is(missingContentId));
+        verify(userProgressDataRepository).insertInitialUserProgressData(userId, Set.of(missingContentId));
+        verify(userProgressDataRepository, never()).findByUserIdAndContentId(any(), any());
     }
 
     /**